@@ -0,0 +1,139 @@
+package jdiskmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Splits writes into allocating writes, the first write of a block the file
+ * system has not allocated yet, and overwrites of allocated blocks. An
+ * allocating write also pays for extent allocation and metadata journaling,
+ * so the two are reported apart. Blocks below a file's allocated length at
+ * the start of the run count as allocated.
+ * <p>
+ * The blocks written by the run are kept as extents, runs of adjacent
+ * blocks, so memory grows with the number of writes that do not touch an
+ * earlier extent rather than with the working set. Sequential writes keep
+ * one extent per file.
+ */
+public class AllocationTracker {
+
+    /** Most extents tracked, about 100 bytes of heap each. */
+    static final long MAX_EXTENTS = 1L << 20;
+
+    private final long workingSetBlocks;
+    private final int firstSample;
+    private final boolean multiFile;
+    private final long[] allocatedBlocks; // per file, allocated before the run wrote
+    private final List<TreeMap<Long, Long>> written; // per file, start block -> end block of each extent
+    private final LongAdder allocating = new LongAdder();
+    private final LongAdder allocatingNs = new LongAdder();
+    private final LongAdder overwrites = new LongAdder();
+    private final LongAdder overwriteNs = new LongAdder();
+
+    /**
+     * @param workingSetBlocks blocks addressed in each test file
+     * @param firstSample first sample number of the run
+     * @param files number of test files, the samples in multi file mode
+     */
+    public AllocationTracker(long workingSetBlocks, int firstSample, int files) {
+        this.workingSetBlocks = workingSetBlocks;
+        this.firstSample = firstSample;
+        this.multiFile = files > 1;
+        allocatedBlocks = new long[Math.max(1, files)];
+        written = new ArrayList<>(allocatedBlocks.length);
+        for (int i = 0; i < allocatedBlocks.length; i++) {
+            written.add(new TreeMap<>());
+        }
+    }
+
+    /**
+     * @param workingSetBlocks blocks addressed in each test file
+     * @param files number of test files
+     * @param writes writes the run issues at most, 0 if unbounded
+     * @return the most extents the run could leave, every other block of
+     * every file written or one extent per write, whichever is less
+     */
+    static long maxExtents(long workingSetBlocks, int files, long writes) {
+        long sparse = (workingSetBlocks + 1) / 2 * Math.max(1, files);
+        return writes > 0 ? Math.min(sparse, writes) : sparse;
+    }
+
+    /**
+     * @param file index of the file, 0 unless multi file
+     * @param blocks blocks from the start of the file already allocated
+     */
+    public void setAllocatedBlocks(int file, long blocks) {
+        allocatedBlocks[file] = blocks;
+    }
+
+    /**
+     * Classifies a completed write.
+     *
+     * @param sampleNum the sample that wrote
+     * @param blockIndex first block of the write
+     * @param blocks blocks covered by the write
+     * @param latencyNs latency of the write
+     */
+    public void record(int sampleNum, long blockIndex, int blocks, long latencyNs) {
+        int file = multiFile ? sampleNum - firstSample : 0;
+        long start = Math.max(blockIndex, allocatedBlocks[file]);
+        long end = Math.min(blockIndex + blocks, workingSetBlocks);
+        boolean allocated = start < end && add(written.get(file), start, end);
+        if (allocated) {
+            allocating.increment();
+            allocatingNs.add(latencyNs);
+        } else {
+            overwrites.increment();
+            overwriteNs.add(latencyNs);
+        }
+    }
+
+    /**
+     * Adds the blocks [start, end) to the extents, merging the extents it
+     * overlaps or touches.
+     *
+     * @return true if any of the blocks was not in an extent before
+     */
+    static boolean add(TreeMap<Long, Long> extents, long start, long end) {
+        synchronized (extents) {
+            long covered = 0;
+            long mergedStart = start;
+            long mergedEnd = end;
+            Map.Entry<Long, Long> before = extents.floorEntry(start);
+            if (before != null && before.getValue() >= start) {
+                if (before.getValue() >= end) return false; // inside one extent
+                covered += before.getValue() - start;
+                mergedStart = before.getKey();
+                extents.remove(before.getKey());
+            }
+            // extents starting inside or right after the blocks
+            Map.Entry<Long, Long> next;
+            while ((next = extents.ceilingEntry(start)) != null && next.getKey() <= end) {
+                covered += Math.min(next.getValue(), end) - next.getKey();
+                mergedEnd = Math.max(mergedEnd, next.getValue());
+                extents.remove(next.getKey());
+            }
+            extents.put(mergedStart, mergedEnd);
+            return covered < end - start;
+        }
+    }
+
+    /** @return the extents kept for all files */
+    long getExtents() {
+        long n = 0;
+        for (TreeMap<Long, Long> extents : written) {
+            synchronized (extents) {
+                n += extents.size();
+            }
+        }
+        return n;
+    }
+
+    public long getAllocatingWrites() { return allocating.sum(); }
+    public long getAllocatingNs() { return allocatingNs.sum(); }
+    public long getOverwrites() { return overwrites.sum(); }
+    public long getOverwriteNs() { return overwriteNs.sum(); }
+}
@@ -17,6 +17,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Properties;
+import java.util.SplittableRandom;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -31,6 +32,8 @@ import jdiskmark.App.IoEngine;
 import jdiskmark.App.SectorAlignment;
 import jdiskmark.Benchmark.BenchmarkType;
 import jdiskmark.Benchmark.BlockSequence;
+import jdiskmark.Benchmark.CommitSync;
+import jdiskmark.Benchmark.DataPattern;
 
 /**
  * Primary class for global variables.
@@ -52,6 +55,7 @@ public class App {
     public static final long KILOBYTE = 1_024L;
     public static final long MEGABYTE = 1_024L * KILOBYTE;
     public static final long GIGABYTE = 1_024L * MEGABYTE;
+    public static final long TERABYTE = 1_024L * GIGABYTE;
     // numeric constants
     public static final int IDLE_STATE = 0;
     public static final int DISK_TEST_STATE = 1;
@@ -69,7 +73,10 @@ public class App {
     // io api, modern introduced w jdk 25 lts
     public enum IoEngine {
         MODERN("Modern (FFM API)"),
-        LEGACY("Legacy (RandomAccessFile)");
+        LEGACY("Legacy (RandomAccessFile)"),
+        ASYNC("Async (AsynchronousFileChannel)"),
+        IO_URING("io_uring (Linux FFM)"),
+        MMAP("Memory Mapped (FileChannel.map)");
 
         private final String display;
 
@@ -77,6 +84,11 @@ public class App {
             this.display = label;
         }
 
+        /** @return true if the engine keeps ioDepth transfers in flight per thread */
+        public boolean hasIoDepth() {
+            return this == ASYNC || this == IO_URING;
+        }
+
         @Override
         public String toString() {
             return display;
@@ -182,15 +194,55 @@ public class App {
     // benchmark io options
     public static IoEngine ioEngine = IoEngine.MODERN;
     public static SectorAlignment sectorAlignment = SectorAlignment.ALIGN_4K;
+    public static int ioDepth = 1; // outstanding ios per thread (async engine)
+    public static int vectorBatch = 1; // blocks per vectored call (modern engine)
+    public static boolean virtualThreads = false; // workers on virtual threads
+    public static boolean timeOpenClose = false; // include file open/close in sample time
+    public static boolean verifyEnabled = false; // check every block read back
     // benchmark configuration
     public static BenchmarkProfile activeProfile = BenchmarkProfile.QUICK_TEST;
     public static boolean profileModified = false;
     public static BenchmarkType benchmarkType = BenchmarkType.WRITE;
     public static BlockSequence blockSequence = BlockSequence.SEQUENTIAL;
+    public static DataPattern dataPattern = DataPattern.RANDOM; // content of written blocks
+    public static double compressionRatio = 2; // target ratio of COMPRESSIBLE data
+    public static Long randomSeed = null; // null picks a new seed for every run
+    // sweep axes, per run and not persisted, null keeps the single value
+    public static int[] sweepBlockSizesKb = null;
+    public static int[] sweepThreads = null;
+    public static int[] sweepIoDepths = null;
+    // saturation search, per run and not persisted
+    public static boolean findKnee = false;
+    public static int kneeMaxConcurrency = 256;
+    // latency slo search, per run and not persisted, 0 = off
+    public static double sloLatencyMs = 0;
+    public static double sloPercentile = 99;
+    public static int sloIterations = 8;
+    public static double zipfTheta = 0.99; // skew of the zipfian order
+    public static int hotspotIoPct = 90; // share of io sent to the hot blocks
+    public static int hotspotDataPct = 10; // share of blocks that are hot
+    public static long workingSetSize = 0; // bytes addressed by random orders, 0 = one sample
     public static int numOfSamples = 200; // desired number of samples
+    public static int sampleDurationMs = 0; // time based samples, 0 = sized by blocks
+    public static int maxDurationSec = 0; // runtime cap per operation, 0 = none
+    public static long targetIops = 0; // open loop rate, 0 = closed loop
+    public static double targetMbSec = 0; // open loop rate when targetIops is 0
+    public static boolean preallocateEnabled = false; // allocate test files before writing
+    public static boolean allocationSplitEnabled = false; // report allocating writes apart from overwrites
+    public static int preconditionPasses = 0; // sequential fills before measuring
+    public static int steadyStateMaxRounds = 0; // write rounds until steady state, 0 = none
     public static int numOfBlocks = 32; // desired number of blocks
     public static int blockSizeKb = 512; // size of a block in KBs
     public static int numOfThreads = 1; // number of threads
+    public static int readPct = 70; // percentage of reads in a mixed benchmark
+    public static int logRecordBytes = 0; // record size of a log commit benchmark, 0 = the block size
+    public static int commitEvery = 1; // log records per force
+    public static CommitSync commitSync = CommitSync.FDATASYNC;
+    public static int groupMaxBatch = 64; // records per group commit at most
+    public static int groupMaxWaitUs = 1000; // longest a group commit waits for more records
+    public static int metadataFiles = 10000; // files of a metadata benchmark
+    public static int metadataDirs = 16; // directories the files are spread over
+    public static int metadataFileBytes = 0; // bytes written per created file
     // active benchmark state
     public static State state = State.IDLE_STATE;
     public static int nextSampleNumber = 1; // number of the next sample
@@ -389,8 +441,12 @@ public class App {
             numOfThreads = profile.getNumThreads();
             numOfSamples = profile.getNumSamples();
             numOfBlocks = profile.getNumBlocks();
+            sampleDurationMs = profile.getSampleDurationMs();
+            maxDurationSec = profile.getMaxDurationSec();
             blockSizeKb = profile.getBlockSizeKb();
             ioEngine = profile.getIoEngine();
+            ioDepth = profile.getIoDepth();
+            vectorBatch = 1; // profiles do not use vectored io
             directEnable = profile.isDirectEnable();
             writeSyncEnable = profile.isWriteSyncEnable();
             sectorAlignment = profile.getSectorAlignment();
@@ -463,6 +519,12 @@ public class App {
         value = p.getProperty("blockSequence", String.valueOf(blockSequence));
         blockSequence = BlockSequence.valueOf(value.toUpperCase());
 
+        value = p.getProperty("dataPattern", String.valueOf(dataPattern.name()));
+        dataPattern = DataPattern.valueOf(value.toUpperCase());
+
+        value = p.getProperty("compressionRatio", String.valueOf(compressionRatio));
+        compressionRatio = Double.parseDouble(value);
+
         value = p.getProperty("numOfSamples", String.valueOf(numOfSamples));
         numOfSamples = Integer.parseInt(value);
 
@@ -475,6 +537,57 @@ public class App {
         value = p.getProperty("numOfThreads", String.valueOf(numOfThreads));
         numOfThreads = Integer.parseInt(value);
 
+        value = p.getProperty("readPct", String.valueOf(readPct));
+        readPct = Integer.parseInt(value);
+
+        value = p.getProperty("logRecordBytes", String.valueOf(logRecordBytes));
+        logRecordBytes = Integer.parseInt(value);
+
+        value = p.getProperty("commitEvery", String.valueOf(commitEvery));
+        commitEvery = Integer.parseInt(value);
+
+        value = p.getProperty("commitSync", commitSync.name());
+        commitSync = CommitSync.valueOf(value.toUpperCase());
+
+        value = p.getProperty("groupMaxBatch", String.valueOf(groupMaxBatch));
+        groupMaxBatch = Integer.parseInt(value);
+
+        value = p.getProperty("groupMaxWaitUs", String.valueOf(groupMaxWaitUs));
+        groupMaxWaitUs = Integer.parseInt(value);
+
+        value = p.getProperty("metadataFiles", String.valueOf(metadataFiles));
+        metadataFiles = Integer.parseInt(value);
+
+        value = p.getProperty("metadataDirs", String.valueOf(metadataDirs));
+        metadataDirs = Integer.parseInt(value);
+
+        value = p.getProperty("metadataFileBytes", String.valueOf(metadataFileBytes));
+        metadataFileBytes = Integer.parseInt(value);
+
+        value = p.getProperty("sampleDurationMs", String.valueOf(sampleDurationMs));
+        sampleDurationMs = Integer.parseInt(value);
+
+        value = p.getProperty("maxDurationSec", String.valueOf(maxDurationSec));
+        maxDurationSec = Integer.parseInt(value);
+
+        value = p.getProperty("targetIops", String.valueOf(targetIops));
+        targetIops = Long.parseLong(value);
+
+        value = p.getProperty("targetMbSec", String.valueOf(targetMbSec));
+        targetMbSec = Double.parseDouble(value);
+
+        value = p.getProperty("preallocateEnabled", String.valueOf(preallocateEnabled));
+        preallocateEnabled = Boolean.parseBoolean(value);
+
+        value = p.getProperty("allocationSplitEnabled", String.valueOf(allocationSplitEnabled));
+        allocationSplitEnabled = Boolean.parseBoolean(value);
+
+        value = p.getProperty("preconditionPasses", String.valueOf(preconditionPasses));
+        preconditionPasses = Integer.parseInt(value);
+
+        value = p.getProperty("steadyStateMaxRounds", String.valueOf(steadyStateMaxRounds));
+        steadyStateMaxRounds = Integer.parseInt(value);
+
         value = p.getProperty("ioEngine", ioEngine.name());
         try {
             ioEngine = IoEngine.valueOf(value.toUpperCase());
@@ -485,6 +598,33 @@ public class App {
                     e);
         }
 
+        value = p.getProperty("ioDepth", String.valueOf(ioDepth));
+        ioDepth = Integer.parseInt(value);
+
+        value = p.getProperty("vectorBatch", String.valueOf(vectorBatch));
+        vectorBatch = Integer.parseInt(value);
+
+        value = p.getProperty("zipfTheta", String.valueOf(zipfTheta));
+        zipfTheta = Double.parseDouble(value);
+
+        value = p.getProperty("hotspotIoPct", String.valueOf(hotspotIoPct));
+        hotspotIoPct = Integer.parseInt(value);
+
+        value = p.getProperty("hotspotDataPct", String.valueOf(hotspotDataPct));
+        hotspotDataPct = Integer.parseInt(value);
+
+        value = p.getProperty("workingSetSize", String.valueOf(workingSetSize));
+        workingSetSize = Long.parseLong(value);
+
+        value = p.getProperty("virtualThreads", String.valueOf(virtualThreads));
+        virtualThreads = Boolean.parseBoolean(value);
+
+        value = p.getProperty("timeOpenClose", String.valueOf(timeOpenClose));
+        timeOpenClose = Boolean.parseBoolean(value);
+
+        value = p.getProperty("verifyEnabled", String.valueOf(verifyEnabled));
+        verifyEnabled = Boolean.parseBoolean(value);
+
         value = p.getProperty("writeSyncEnable", String.valueOf(writeSyncEnable));
         writeSyncEnable = Boolean.parseBoolean(value);
 
@@ -546,11 +686,39 @@ public class App {
         p.setProperty("autoRemoveData", String.valueOf(autoRemoveData));
         p.setProperty("autoReset", String.valueOf(autoReset));
         p.setProperty("blockSequence", blockSequence.name());
+        p.setProperty("dataPattern", dataPattern.name());
+        p.setProperty("compressionRatio", String.valueOf(compressionRatio));
         p.setProperty("numOfSamples", String.valueOf(numOfSamples));
         p.setProperty("numOfBlocks", String.valueOf(numOfBlocks));
         p.setProperty("blockSizeKb", String.valueOf(blockSizeKb));
         p.setProperty("numOfThreads", String.valueOf(numOfThreads));
+        p.setProperty("readPct", String.valueOf(readPct));
+        p.setProperty("logRecordBytes", String.valueOf(logRecordBytes));
+        p.setProperty("commitEvery", String.valueOf(commitEvery));
+        p.setProperty("commitSync", commitSync.name());
+        p.setProperty("groupMaxBatch", String.valueOf(groupMaxBatch));
+        p.setProperty("groupMaxWaitUs", String.valueOf(groupMaxWaitUs));
+        p.setProperty("metadataFiles", String.valueOf(metadataFiles));
+        p.setProperty("metadataDirs", String.valueOf(metadataDirs));
+        p.setProperty("metadataFileBytes", String.valueOf(metadataFileBytes));
+        p.setProperty("sampleDurationMs", String.valueOf(sampleDurationMs));
+        p.setProperty("maxDurationSec", String.valueOf(maxDurationSec));
+        p.setProperty("targetIops", String.valueOf(targetIops));
+        p.setProperty("targetMbSec", String.valueOf(targetMbSec));
+        p.setProperty("preallocateEnabled", String.valueOf(preallocateEnabled));
+        p.setProperty("allocationSplitEnabled", String.valueOf(allocationSplitEnabled));
+        p.setProperty("preconditionPasses", String.valueOf(preconditionPasses));
+        p.setProperty("steadyStateMaxRounds", String.valueOf(steadyStateMaxRounds));
         p.setProperty("ioEngine", ioEngine.name());
+        p.setProperty("ioDepth", String.valueOf(ioDepth));
+        p.setProperty("vectorBatch", String.valueOf(vectorBatch));
+        p.setProperty("zipfTheta", String.valueOf(zipfTheta));
+        p.setProperty("hotspotIoPct", String.valueOf(hotspotIoPct));
+        p.setProperty("hotspotDataPct", String.valueOf(hotspotDataPct));
+        p.setProperty("workingSetSize", String.valueOf(workingSetSize));
+        p.setProperty("virtualThreads", String.valueOf(virtualThreads));
+        p.setProperty("verifyEnabled", String.valueOf(verifyEnabled));
+        p.setProperty("timeOpenClose", String.valueOf(timeOpenClose));
         p.setProperty("writeSyncEnable", String.valueOf(writeSyncEnable));
         p.setProperty("directEnable", String.valueOf(directEnable));
         p.setProperty("sectorAlignment", sectorAlignment.name());
@@ -584,12 +752,41 @@ public class App {
         config.profileModified = profileModified;
         config.benchmarkType = benchmarkType;
         config.blockOrder = blockSequence;
+        config.dataPattern = dataPattern;
+        config.compressionRatio = compressionRatio;
+        // record the seed actually used so the run can be replayed
+        config.randomSeed = (randomSeed != null) ? randomSeed : new SplittableRandom().nextLong();
+        config.zipfTheta = zipfTheta;
+        config.hotspotIoPct = hotspotIoPct;
+        config.hotspotDataPct = hotspotDataPct;
+        config.workingSetSize = workingSetSize;
         config.numBlocks = numOfBlocks;
-        config.blockSize = (long) blockSizeKb * KILOBYTE;
+        config.blockSize = ioSizeBytes();
         config.numSamples = numOfSamples;
+        config.sampleDurationMs = sampleDurationMs;
+        config.maxDurationSec = maxDurationSec;
+        config.targetIops = targetIops;
+        config.targetMbSec = targetMbSec;
+        config.preallocateEnabled = preallocateEnabled;
+        config.allocationSplitEnabled = allocationSplitEnabled;
+        config.preconditionPasses = preconditionPasses;
+        config.steadyStateMaxRounds = steadyStateMaxRounds;
         config.numThreads = numOfThreads;
+        config.readPct = readPct;
+        config.commitEvery = commitEvery;
+        config.commitSync = commitSync;
+        config.groupMaxBatch = groupMaxBatch;
+        config.groupMaxWaitUs = groupMaxWaitUs;
+        config.metadataFiles = metadataFiles;
+        config.metadataDirs = metadataDirs;
+        config.metadataFileBytes = metadataFileBytes;
         config.txSize = targetOperationTxSizeKb();
         config.ioEngine = ioEngine;
+        config.ioDepth = ioDepth;
+        config.vectorBatch = vectorBatch;
+        config.virtualThreads = virtualThreads;
+        config.verifyEnabled = verifyEnabled;
+        config.timeOpenClose = timeOpenClose;
         config.directIoEnabled = directEnable;
         config.writeSyncEnabled = writeSyncEnable;
         config.sectorAlignment = sectorAlignment;
@@ -601,11 +798,14 @@ public class App {
     }
 
     public static boolean hasReadOperation() {
-        return benchmarkType == BenchmarkType.READ || benchmarkType == BenchmarkType.READ_WRITE;
+        return benchmarkType == BenchmarkType.READ || benchmarkType == BenchmarkType.READ_WRITE
+                || benchmarkType == BenchmarkType.MIXED;
     }
 
     public static boolean hasWriteOperation() {
-        return benchmarkType == BenchmarkType.WRITE || benchmarkType == BenchmarkType.READ_WRITE;
+        return benchmarkType == BenchmarkType.WRITE || benchmarkType == BenchmarkType.READ_WRITE
+                || benchmarkType == BenchmarkType.MIXED || benchmarkType == BenchmarkType.LOG_COMMIT
+                || benchmarkType == BenchmarkType.GROUP_COMMIT;
     }
 
     public static String getConfigString() {
@@ -618,12 +818,39 @@ public class App {
         sb.append("autoRemoveData: ").append(autoRemoveData).append('\n');
         sb.append("autoReset: ").append(autoReset).append('\n');
         sb.append("blockSequence: ").append(blockSequence).append('\n');
+        sb.append("dataPattern: ").append(dataPattern).append('\n');
+        sb.append("compressionRatio: ").append(compressionRatio).append('\n');
+        sb.append("randomSeed: ").append(randomSeed != null ? randomSeed : "auto").append('\n');
+        sb.append("zipfTheta: ").append(zipfTheta).append('\n');
+        sb.append("hotspot: ").append(hotspotIoPct).append("% io to ")
+                .append(hotspotDataPct).append("% blocks").append('\n');
         sb.append("numOfFiles: ").append(numOfSamples).append('\n');
+        sb.append("sampleDurationMs: ").append(sampleDurationMs).append('\n');
+        sb.append("maxDurationSec: ").append(maxDurationSec).append('\n');
+        sb.append("targetIops: ").append(targetIops).append('\n');
+        sb.append("targetMbSec: ").append(targetMbSec).append('\n');
+        sb.append("preallocateEnabled: ").append(preallocateEnabled).append('\n');
+        sb.append("allocationSplitEnabled: ").append(allocationSplitEnabled).append('\n');
+        sb.append("preconditionPasses: ").append(preconditionPasses).append('\n');
+        sb.append("steadyStateMaxRounds: ").append(steadyStateMaxRounds).append('\n');
         sb.append("numOfBlocks: ").append(numOfBlocks).append('\n');
+        sb.append("workingSetSize: ").append(Util.formatByteSize(workingSetSize)).append('\n');
         sb.append("blockSizeKb: ").append(blockSizeKb).append('\n');
         sb.append("numOfThreads: ").append(numOfThreads).append('\n');
         sb.append("benchmarkType: ").append(benchmarkType).append('\n');
+        sb.append("readPct: ").append(readPct).append('\n');
+        sb.append("logRecordBytes: ").append(logRecordBytes).append('\n');
+        sb.append("commit: ").append(commitSync).append(" every ").append(commitEvery).append('\n');
+        sb.append("groupCommit: ").append(groupMaxBatch).append(" records or ").append(groupMaxWaitUs)
+                .append(" us").append('\n');
+        sb.append("metadata: ").append(metadataFiles).append(" files in ").append(metadataDirs)
+                .append(" dirs, ").append(metadataFileBytes).append(" bytes").append('\n');
         sb.append("ioEngine: ").append(ioEngine).append('\n');
+        sb.append("ioDepth: ").append(ioDepth).append('\n');
+        sb.append("vectorBatch: ").append(vectorBatch).append('\n');
+        sb.append("virtualThreads: ").append(virtualThreads).append('\n');
+        sb.append("verifyEnabled: ").append(verifyEnabled).append('\n');
+        sb.append("timeOpenClose: ").append(timeOpenClose).append('\n');
         sb.append("writeSyncEnable: ").append(writeSyncEnable).append('\n');
         sb.append("directEnable: ").append(directEnable).append('\n');
         sb.append("palette: ").append(Gui.palette).append('\n');
@@ -789,21 +1016,38 @@ public class App {
         }
     }
 
+    /** @return true if a run sweeps at least one parameter */
+    public static boolean isSweep() {
+        return sweepBlockSizesKb != null || sweepThreads != null || sweepIoDepths != null;
+    }
+
+    /** @return bytes of one io, the record size of a log or group commit benchmark when set */
+    public static long ioSizeBytes() {
+        if ((benchmarkType == BenchmarkType.LOG_COMMIT || benchmarkType == BenchmarkType.GROUP_COMMIT)
+                && logRecordBytes > 0) {
+            return logRecordBytes;
+        }
+        return (long) blockSizeKb * KILOBYTE;
+    }
+
     public static long targetSampleSizeKb() {
-        return (long) blockSizeKb * numOfBlocks;
+        return ioSizeBytes() * numOfBlocks / KILOBYTE;
     }
 
     public static long targetOperationTxSizeKb() {
-        return (long) blockSizeKb * numOfBlocks * numOfSamples;
+        return ioSizeBytes() * numOfBlocks * numOfSamples / KILOBYTE;
     }
 
     public static long targetBenchmarkTxSizeKb() {
         long operationTxSize = targetOperationTxSizeKb();
         switch (benchmarkType) {
-            case WRITE -> {
+            case WRITE, LOG_COMMIT, GROUP_COMMIT -> {
                 return operationTxSize;
             }
-            case READ, READ_WRITE -> {
+            case METADATA -> {
+                return (long) metadataFiles * metadataFileBytes / KILOBYTE;
+            }
+            case READ, READ_WRITE, MIXED -> {
                 return 2L * operationTxSize;
             }
             default -> throw new IllegalStateException("Unexpected value: " + benchmarkType);
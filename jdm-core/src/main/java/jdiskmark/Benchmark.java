@@ -15,9 +15,12 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
@@ -49,7 +52,11 @@ public class Benchmark implements Serializable {
     public enum BenchmarkType {
         READ("Read"),
         WRITE("Write"),
-        READ_WRITE("Read & Write");
+        READ_WRITE("Read & Write"),
+        MIXED("Mixed Read/Write"),
+        LOG_COMMIT("Log Commit"),
+        METADATA("Metadata"),
+        GROUP_COMMIT("Group Commit");
 
         private final String display;
         BenchmarkType(String display) { this.display = display; }
@@ -69,12 +76,66 @@ public class Benchmark implements Serializable {
 
     public enum BlockSequence {
         SEQUENTIAL("Sequential"),
-        RANDOM("Random");
+        RANDOM("Random"),
+        ZIPFIAN("Zipfian"),
+        HOTSPOT("Hotspot"),
+        SHUFFLED("Shuffled");
 
         private final String display;
         BlockSequence(String display) { this.display = display; }
         @Override
         public String toString() { return display; }
+        
+        /**
+         * @param config the benchmark config holding the seed and skew
+         * @return a new generator of block offsets for one worker
+         */
+        public OffsetGenerator newGenerator(BenchmarkConfig config) {
+            return switch (this) {
+                case SEQUENTIAL -> new OffsetGenerator.Sequential();
+                case RANDOM -> new OffsetGenerator.Uniform(config.randomSeed);
+                case ZIPFIAN -> new OffsetGenerator.Zipfian(config.randomSeed, config.zipfTheta);
+                case HOTSPOT -> new OffsetGenerator.Hotspot(config.randomSeed,
+                        config.hotspotIoPct, config.hotspotDataPct);
+                case SHUFFLED -> new OffsetGenerator.Shuffled(config.randomSeed);
+            };
+        }
+    }
+    
+    public enum DataPattern {
+        ZERO("Zero"),
+        RANDOM("Random"),
+        COMPRESSIBLE("Compressible"),
+        UNIQUE("Unique");
+
+        private final String display;
+        DataPattern(String display) { this.display = display; }
+        @Override
+        public String toString() { return display; }
+    }
+    
+    public enum CommitSync {
+        FDATASYNC("fdatasync"),
+        FSYNC("fsync");
+
+        private final String display;
+        CommitSync(String display) { this.display = display; }
+        @Override
+        public String toString() { return display; }
+        
+        /** @return the metaData argument of FileChannel.force */
+        public boolean forcesMetadata() { return this == FSYNC; }
+    }
+    
+    public enum SteadyState {
+        NOT_CHECKED("Not checked"),
+        REACHED("Reached"),
+        NOT_REACHED("Not reached");
+
+        private final String display;
+        SteadyState(String display) { this.display = display; }
+        @Override
+        public String toString() { return display; }
     }
     
     /**
@@ -146,6 +207,18 @@ public class Benchmark implements Serializable {
     BenchmarkConfig config = new BenchmarkConfig();
     public BenchmarkConfig getConfig() { return config; }
     
+    // preconditioning verdict, see Preconditioner
+    @Column
+    SteadyState steadyState = SteadyState.NOT_CHECKED;
+    public SteadyState getSteadyState() { return steadyState; }
+    @Column
+    int steadyStateRounds = 0;
+    public int getSteadyStateRounds() { return steadyStateRounds; }
+    // average IOPS of the steady state window
+    @Column
+    double steadyStateIops = 0;
+    public double getSteadyStateIops() { return steadyStateIops; }
+    
     // timestamps
     @Convert(converter = LocalDateTimeAttributeConverter.class)
     @Column(name = "startTime", columnDefinition = "TIMESTAMP")
@@ -154,10 +227,22 @@ public class Benchmark implements Serializable {
     @Column
     LocalDateTime endTime = null;
     
+    // the sweep this benchmark is a cell of, null for a single run
+    @ManyToOne
+    @JoinColumn(name = "sweep_id")
+    @JsonIgnore
+    BenchmarkSweep sweep;
+    
     @OneToMany(mappedBy = "benchmark", cascade = CascadeType.ALL, orphanRemoval = true)
     List<BenchmarkOperation> operations = new ArrayList<>();
     public List<BenchmarkOperation> getOperations() { return operations; }
     
+    // phases of the METADATA type, which has no read or write operation
+    @OneToMany(mappedBy = "benchmark", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("startTime")
+    List<MetadataOperation> metadataOperations = new ArrayList<>();
+    public List<MetadataOperation> getMetadataOperations() { return metadataOperations; }
+    
     // get the first operation of that type
     public BenchmarkOperation getOperation(IOMode mode) {
         for (BenchmarkOperation operation : operations) {
@@ -185,25 +270,131 @@ public class Benchmark implements Serializable {
         sb.append("-------------------------------------------\n");
         sb.append("Profile: ").append(config.profile.name).append("\n");
         sb.append("Benchmark: ").append(config.benchmarkType).append("\n");
+        if (config.benchmarkType == BenchmarkType.MIXED) {
+            sb.append("Mix(read/write %): ").append(config.readPct).append("/")
+                    .append(100 - config.readPct).append("\n");
+        }
+        if (config.benchmarkType == BenchmarkType.LOG_COMMIT) {
+            sb.append("Commit: ").append(config.commitSync).append(" every ")
+                    .append(config.commitEvery).append(" record(s) of ")
+                    .append(config.blockSize).append(" bytes\n");
+        }
+        if (config.benchmarkType == BenchmarkType.GROUP_COMMIT) {
+            sb.append("Group: ").append(config.commitSync).append(" at ").append(config.groupMaxBatch)
+                    .append(" records or ").append(config.groupMaxWaitUs).append(" us, records of ")
+                    .append(config.blockSize).append(" bytes\n");
+        }
         sb.append("Drive: ").append(App.getDriveModel()).append("\n");
+        if (driveInfo.logicalBlockSize != null) {
+            sb.append("Blocks(logical/physical): ").append(driveInfo.logicalBlockSize).append("/")
+                    .append(driveInfo.physicalBlockSize).append(" B");
+            if (driveInfo.optimalIoSize != null && driveInfo.optimalIoSize > 0) {
+                sb.append(", optimal io ").append(driveInfo.optimalIoSize).append(" B");
+            }
+            sb.append(Boolean.TRUE.equals(driveInfo.rotational) ? ", rotational\n" : ", non-rotational\n");
+        }
+        if (config.dataPattern != null) {
+            sb.append("Data: ").append(config.dataPattern);
+            if (config.dataPattern == DataPattern.COMPRESSIBLE) {
+                sb.append(" (").append(DF.format(config.compressionRatio)).append(":1)");
+            }
+            sb.append("\n");
+        }
+        if (config.preallocateEnabled) {
+            sb.append("Preallocate: true\n");
+        }
+        if (config.preconditionPasses > 0) {
+            sb.append("Precondition(fills): ").append(config.preconditionPasses).append("\n");
+        }
+        if (steadyState != SteadyState.NOT_CHECKED) {
+            sb.append("SteadyState: ").append(steadyState).append(" after ").append(steadyStateRounds)
+                    .append(" rounds, ").append(DFT.format(steadyStateIops)).append(" IOPS\n");
+        }
         sb.append("Capacity: ").append(App.getDriveCapacity()).append("\n");
         sb.append("Timestamp: ").append(startTime).append("\n");
         sb.append("CPU: ").append(systemInfo.processorName).append("\n");
         sb.append("System: ").append(systemInfo.os).append(" / ").append(systemInfo.arch).append("\n");
         sb.append("Java: ").append(systemInfo.jdk).append("\n");
         sb.append("Path: ").append(systemInfo.locationDir).append("\n");
+        if (!metadataOperations.isEmpty()) {
+            sb.append("-------------------------------------------\n");
+            sb.append("Files: ").append(config.metadataFiles).append(" in ").append(config.metadataDirs)
+                    .append(" dirs, ").append(config.metadataFileBytes).append(" bytes each\n");
+            sb.append("Thread(s): ").append(config.numThreads)
+                    .append(config.virtualThreads ? " (virtual)" : "").append("\n");
+            for (MetadataOperation m : metadataOperations) {
+                sb.append(m.phase).append("(ops/s): ").append(DF.format(m.opsPerSec))
+                        .append(" p50/p99/p99.9/max(ms): ").append(m.getLatencyPercentilesDisplay());
+                if (m.errors > 0) {
+                    sb.append(" errors: ").append(m.errors);
+                }
+                sb.append("\n");
+            }
+        }
         for (BenchmarkOperation o : operations) {
             sb.append("-------------------------------------------\n");
             sb.append("Order: ").append(o.blockOrder).append("\n");
+            if (o.blockOrder != BlockSequence.SEQUENTIAL) {
+                sb.append("Seed: ").append(config.randomSeed).append("\n");
+            }
             sb.append("IOMode: ").append(o.ioMode).append("\n");
-            sb.append("Thread(s): ").append(o.numThreads).append("\n");
+            sb.append("Thread(s): ").append(o.numThreads)
+                    .append(config.virtualThreads ? " (virtual)" : "").append("\n");
+            if (config.virtualThreads && o.pinnedCount < 0) {
+                sb.append("Pinned(count/ms): unavailable\n");
+            } else if (config.virtualThreads) {
+                sb.append("Pinned(count/ms): ").append(o.pinnedCount).append("/")
+                        .append(DF.format(o.pinnedMs)).append("\n");
+            }
+            sb.append("IODepth: ").append(o.ioDepth).append("\n");
+            if (o.bufferedFallbacks > 0) {
+                sb.append("Direct: fell back to buffered I/O (").append(o.bufferedFallbacks).append(" opens)\n");
+            }
+            if (config.benchmarkType == BenchmarkType.LOG_COMMIT) {
+                sb.append("Commits: ").append(o.commits).append(" (")
+                        .append(DF.format(o.commitsPerSec)).append("/s)\n");
+            } else if (config.benchmarkType == BenchmarkType.GROUP_COMMIT) {
+                sb.append("Commits: ").append(o.commits).append(" (")
+                        .append(DF.format(o.commitsPerSec)).append("/s) records/commit: ")
+                        .append(DF.format(o.recordsPerCommit)).append("\n");
+            } else if (o.ioMode == IOMode.WRITE && o.allocatingWrites + o.overwrites > 0) {
+                sb.append("Allocating(count/ms): ").append(o.allocatingWrites).append("/")
+                        .append(DF.format(o.allocatingLatencyMs)).append("\n");
+                sb.append("Overwrite(count/ms): ").append(o.overwrites).append("/")
+                        .append(DF.format(o.overwriteLatencyMs)).append("\n");
+            }
+            if (config.verifyEnabled) {
+                if (o.ioMode == IOMode.READ) {
+                    sb.append("Verify(ok/errors): ").append(o.verifiedBlocks).append("/")
+                            .append(o.verifyErrors).append("\n");
+                }
+                sb.append("Checksum(ms): ").append(DF.format(o.checksumMs)).append("\n");
+            }
+            if (o.vectorBatch > 1) {
+                sb.append("VectorBatch: ").append(o.vectorBatch).append("\n");
+            }
             sb.append("Blocks(size): ").append(o.numBlocks).append("(").append(o.blockSize).append(")").append("\n");
-            sb.append("Samples: ").append(o.numSamples).append("\n");
+            if (config.workingSetSize > 0) {
+                sb.append("WorkingSet: ").append(Util.formatByteSize(config.workingSetSize)).append("\n");
+            }
+            sb.append("Samples: ").append(o.numSamples);
+            if (o.numSamples < config.numSamples) {
+                sb.append(" of ").append(config.numSamples);
+            }
+            sb.append("\n");
+            if (config.sampleDurationMs > 0) {
+                sb.append("SampleDuration(ms): ").append(config.sampleDurationMs).append("\n");
+            }
+            if (config.getTargetIoRate() > 0) {
+                sb.append("TargetRate(IOPS): ").append(Math.round(config.getTargetIoRate()))
+                        .append(" open loop\n");
+            }
             sb.append("TxSize(KB): ").append(o.txSize).append("\n");
             sb.append("Speed(MB/s): ").append(DF.format(o.bwAvg)).append("\n");
             sb.append("SpeedMin(MB/s): ").append(DF.format(o.bwMin)).append("\n");
             sb.append("SpeedMax(MB/s): ").append(DF.format(o.bwMax)).append("\n");
             sb.append("Latency(ms): ").append(DF.format(o.accAvg)).append("\n");
+            sb.append("Latency p50/p99/p99.9/max(ms): ").append(o.getLatencyPercentilesDisplay()).append("\n");
             sb.append("IOPS: ").append(o.iops).append("\n");
         }
         sb.append("-------------------------------------------\n");
@@ -269,7 +460,9 @@ public class Benchmark implements Serializable {
         EntityManager em = EM.getEntityManager();
         em.getTransaction().begin();
         int deletedOperationsCount = em.createQuery("DELETE FROM BenchmarkOperation").executeUpdate();
+        em.createQuery("DELETE FROM MetadataOperation").executeUpdate();
         int deletedBenchmarksCount = em.createQuery("DELETE FROM Benchmark").executeUpdate();
+        em.createQuery("DELETE FROM BenchmarkSweep").executeUpdate();
         if (App.verbose) {
             App.msg("deletedOperations=" + deletedOperationsCount);
             App.msg("deletedBenchmarks=" + deletedBenchmarksCount);
@@ -293,6 +486,10 @@ public class Benchmark implements Serializable {
                 .setParameter("benchmarkIds", benchmarkIds)
                 .executeUpdate();
         
+        em.createQuery("DELETE FROM MetadataOperation mo WHERE mo.benchmark.id IN :benchmarkIds")
+                .setParameter("benchmarkIds", benchmarkIds)
+                .executeUpdate();
+        
         // delete the parent BenchmarkOperation records
         String deleteBenchmarksJpql = "DELETE FROM Benchmark b WHERE b.id IN :benchmarkIds";
         int deletedBenchmarksCount = em.createQuery(deleteBenchmarksJpql)
@@ -86,6 +86,18 @@ public class BenchmarkCallable implements Callable<Benchmark> {
             App.resetTestData();
         }
 
+        if (App.isSweep() || App.findKnee || App.sloLatencyMs > 0) {
+            SweepRunner sweepRunner = new SweepRunner(listener);
+            BenchmarkSweep sweep = App.sloLatencyMs > 0 ? sweepRunner.findSloMax()
+                    : App.findKnee ? sweepRunner.findKnee() : sweepRunner.run();
+            handlePostSweep(sweep);
+            System.out.println();
+            System.out.println("sweep of " + sweep.getBenchmarks().size() + " benchmarks finished after "
+                    + (System.currentTimeMillis() - start) + "ms.");
+            msg(sweep.toResultString());
+            return null;
+        }
+
         // Orchestration via BenchmarkRunner
         BenchmarkRunner bRunner = new BenchmarkRunner(listener, App.getConfig());
         Benchmark benchmark = bRunner.execute();
@@ -125,4 +137,31 @@ public class BenchmarkCallable implements Callable<Benchmark> {
         
         App.nextSampleNumber += App.numOfSamples;
     }
+
+    private void handlePostSweep(BenchmarkSweep sweep) {
+        if (App.autoSave) {
+            try {
+                EntityManager em = EM.getEntityManager();
+                em.getTransaction().begin();
+                em.persist(sweep);
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Failed to save sweep to DB", e);
+            }
+        }
+
+        if (App.exportPath != null) {
+            try {
+                Exporter.writeSweepToJson(sweep, App.exportPath.getAbsolutePath());
+                String path = App.exportPath.getAbsolutePath();
+                if (sweep.getType() == BenchmarkSweep.SweepType.GRID) {
+                    Exporter.writeSweepMatrix(sweep, Exporter.sweepCsvPath(path, "matrix"));
+                } else {
+                    Exporter.writeSweepCurve(sweep, Exporter.sweepCsvPath(path, "curve"));
+                }
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "export error", ex);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -32,6 +32,41 @@ public class BenchmarkConfig {
     Benchmark.BlockSequence blockOrder;
     public Benchmark.BlockSequence getBlockOrder() { return blockOrder; }
     
+    // content of the write buffers
+    @Column
+    Benchmark.DataPattern dataPattern = Benchmark.DataPattern.RANDOM;
+    public Benchmark.DataPattern getDataPattern() { return dataPattern; }
+    public void setDataPattern(Benchmark.DataPattern pattern) { dataPattern = pattern; }
+    
+    // target ratio of the COMPRESSIBLE pattern, e.g. 2 = 2:1
+    @Column
+    double compressionRatio = 2;
+    public double getCompressionRatio() { return compressionRatio; }
+    public void setCompressionRatio(double ratio) { compressionRatio = ratio; }
+    
+    // seed of the random offset generators, replays the run's offsets exactly
+    @Column
+    long randomSeed = 0;
+    public long getRandomSeed() { return randomSeed; }
+    public void setRandomSeed(long seed) { randomSeed = seed; }
+    
+    // skew of the zipfian order, 0.99 matches YCSB
+    @Column
+    double zipfTheta = 0.99;
+    public double getZipfTheta() { return zipfTheta; }
+    public void setZipfTheta(double theta) { zipfTheta = theta; }
+    
+    // hotspot order directs hotspotIoPct of the io to hotspotDataPct of the blocks
+    @Column
+    int hotspotIoPct = 90;
+    public int getHotspotIoPct() { return hotspotIoPct; }
+    public void setHotspotIoPct(int pct) { hotspotIoPct = pct; }
+    
+    @Column
+    int hotspotDataPct = 10;
+    public int getHotspotDataPct() { return hotspotDataPct; }
+    public void setHotspotDataPct(int pct) { hotspotDataPct = pct; }
+    
     @Column
     int numBlocks = 0;
     public int getNumBlocks() { return numBlocks; }
@@ -40,10 +75,80 @@ public class BenchmarkConfig {
     long blockSize = 0;
     public long getBlockSize() { return blockSize; }
     
+    // bytes of the test file addressed by the block orders, 0 = the blocks of one sample
+    @Column
+    long workingSetSize = 0;
+    public long getWorkingSetSize() { return workingSetSize; }
+    public void setWorkingSetSize(long size) { workingSetSize = size; }
+    
+    /**
+     * @return number of blocks the offset generators address, at least the
+     * blocks of one sample
+     */
+    public long getWorkingSetBlocks() {
+        long blocks = blockSize > 0 ? workingSetSize / blockSize : 0;
+        return Math.max(numBlocks, blocks);
+    }
+    
     @Column
     int numSamples = 0;
     public int getNumSamples() { return numSamples; }
     
+    // wall clock window of each sample, 0 = a sample is numBlocks blocks
+    @Column
+    int sampleDurationMs = 0;
+    public int getSampleDurationMs() { return sampleDurationMs; }
+    public void setSampleDurationMs(int ms) { sampleDurationMs = ms; }
+    
+    // runtime cap of each operation, 0 = run all samples
+    @Column
+    int maxDurationSec = 0;
+    public int getMaxDurationSec() { return maxDurationSec; }
+    public void setMaxDurationSec(int sec) { maxDurationSec = sec; }
+    
+    // open loop rate of all threads in ios per second, 0 = closed loop
+    @Column
+    long targetIops = 0;
+    public long getTargetIops() { return targetIops; }
+    public void setTargetIops(long iops) { targetIops = iops; }
+    
+    // open loop rate of all threads in MB/s, used when targetIops is 0
+    @Column
+    double targetMbSec = 0;
+    public double getTargetMbSec() { return targetMbSec; }
+    public void setTargetMbSec(double mbSec) { targetMbSec = mbSec; }
+    
+    // allocate the working set of the test files before writing them
+    @Column
+    boolean preallocateEnabled = false;
+    public boolean getPreallocateEnabled() { return preallocateEnabled; }
+    public void setPreallocateEnabled(boolean enable) { preallocateEnabled = enable; }
+    
+    // split writes into allocating writes and overwrites, always with preallocation
+    @Column
+    boolean allocationSplitEnabled = false;
+    public boolean getAllocationSplitEnabled() { return allocationSplitEnabled; }
+    public void setAllocationSplitEnabled(boolean enable) { allocationSplitEnabled = enable; }
+    
+    // sequential fills of the working set before the measured samples
+    @Column
+    int preconditionPasses = 0;
+    public int getPreconditionPasses() { return preconditionPasses; }
+    public void setPreconditionPasses(int passes) { preconditionPasses = passes; }
+    
+    // limit of the write rounds run until steady state, 0 = no rounds
+    @Column
+    int steadyStateMaxRounds = 0;
+    public int getSteadyStateMaxRounds() { return steadyStateMaxRounds; }
+    public void setSteadyStateMaxRounds(int rounds) { steadyStateMaxRounds = rounds; }
+    
+    /** @return the target ios per second of all threads, 0 for closed loop */
+    public double getTargetIoRate() {
+        if (targetIops > 0) return targetIops;
+        if (targetMbSec > 0 && blockSize > 0) return targetMbSec * App.MEGABYTE / blockSize;
+        return 0;
+    }
+    
     @Column
     long txSize = 0;
     public long getTxSize() { return txSize; }
@@ -52,6 +157,51 @@ public class BenchmarkConfig {
     int numThreads = 1;
     public int getNumThreads() { return numThreads; }
     
+    // percentage of reads in the MIXED benchmark type
+    @Column
+    int readPct = 70;
+    public int getReadPct() { return readPct; }
+    public void setReadPct(int pct) { readPct = pct; }
+    
+    // records appended per force of the LOG_COMMIT type, its blockSize is the record size
+    @Column
+    int commitEvery = 1;
+    public int getCommitEvery() { return commitEvery; }
+    public void setCommitEvery(int records) { commitEvery = records; }
+    
+    @Column
+    Benchmark.CommitSync commitSync = Benchmark.CommitSync.FDATASYNC;
+    public Benchmark.CommitSync getCommitSync() { return commitSync; }
+    public void setCommitSync(Benchmark.CommitSync sync) { commitSync = sync; }
+    
+    // a GROUP_COMMIT group is forced at this many records or after the wait
+    @Column
+    int groupMaxBatch = 64;
+    public int getGroupMaxBatch() { return groupMaxBatch; }
+    public void setGroupMaxBatch(int records) { groupMaxBatch = records; }
+    
+    @Column
+    int groupMaxWaitUs = 1000;
+    public int getGroupMaxWaitUs() { return groupMaxWaitUs; }
+    public void setGroupMaxWaitUs(int us) { groupMaxWaitUs = us; }
+    
+    // files of the METADATA type, dealt to metadataDirs directories
+    @Column
+    int metadataFiles = 10000;
+    public int getMetadataFiles() { return metadataFiles; }
+    public void setMetadataFiles(int files) { metadataFiles = files; }
+    
+    @Column
+    int metadataDirs = 16;
+    public int getMetadataDirs() { return metadataDirs; }
+    public void setMetadataDirs(int dirs) { metadataDirs = dirs; }
+    
+    // bytes written into each created file, 0 creates empty files
+    @Column
+    int metadataFileBytes = 0;
+    public int getMetadataFileBytes() { return metadataFileBytes; }
+    public void setMetadataFileBytes(int bytes) { metadataFileBytes = bytes; }
+    
     // --- I/O Engine Settings ---
 
     @Column
@@ -60,6 +210,18 @@ public class BenchmarkConfig {
     public IoEngine getIoEngine() { return ioEngine; }
     public void setIoEngine(IoEngine engine) { ioEngine = engine; }
 
+    // outstanding ios per thread, used by the async and io_uring engines
+    @Column
+    int ioDepth = 1;
+    public int getIoDepth() { return ioDepth; }
+    public void setIoDepth(int depth) { ioDepth = depth; }
+
+    // blocks per gathering write / scattering read, 1 = one call per block (modern engine)
+    @Column
+    int vectorBatch = 1;
+    public int getVectorBatch() { return vectorBatch; }
+    public void setVectorBatch(int batch) { vectorBatch = batch; }
+
     @Column
     Boolean directIoEnabled;
     public Boolean getDirectIoEnabled() { return directIoEnabled; }
@@ -86,6 +248,24 @@ public class BenchmarkConfig {
     public String getTestDir() { return testDir; }
     public void setTestDir(String testDir) { this.testDir = testDir; }
 
+    // when false single file samples reuse cached channels and open/close is not timed
+    @Column
+    boolean timeOpenClose = false;
+    public boolean getTimeOpenClose() { return timeOpenClose; }
+    public void setTimeOpenClose(boolean enable) { timeOpenClose = enable; }
+
+    // run each worker on a virtual thread instead of a platform thread pool
+    @Column
+    boolean virtualThreads = false;
+    public boolean getVirtualThreads() { return virtualThreads; }
+    public void setVirtualThreads(boolean enable) { virtualThreads = enable; }
+
+    // stamp written blocks and check every block read back
+    @Column
+    boolean verifyEnabled = false;
+    public boolean getVerifyEnabled() { return verifyEnabled; }
+    public void setVerifyEnabled(boolean enable) { verifyEnabled = enable; }
+
     @Column
     boolean gcRetryEnabled = false;
     public boolean getGcRetryEnabled() { return gcRetryEnabled; }
@@ -99,10 +279,13 @@ public class BenchmarkConfig {
     public BenchmarkConfig() {}
     
     public boolean hasReadOperation() {
-        return benchmarkType == Benchmark.BenchmarkType.READ || benchmarkType == Benchmark.BenchmarkType.READ_WRITE;
+        return benchmarkType == Benchmark.BenchmarkType.READ || benchmarkType == Benchmark.BenchmarkType.READ_WRITE
+                || benchmarkType == Benchmark.BenchmarkType.MIXED;
     }
 
     public boolean hasWriteOperation() {
-        return benchmarkType == Benchmark.BenchmarkType.WRITE || benchmarkType == Benchmark.BenchmarkType.READ_WRITE;
+        return benchmarkType == Benchmark.BenchmarkType.WRITE || benchmarkType == Benchmark.BenchmarkType.READ_WRITE
+                || benchmarkType == Benchmark.BenchmarkType.MIXED || benchmarkType == Benchmark.BenchmarkType.LOG_COMMIT
+                || benchmarkType == Benchmark.BenchmarkType.GROUP_COMMIT;
     }
 }
@@ -20,6 +20,19 @@ public class BenchmarkDriveInfo {
     @Column
     double totalGb;
     public double getTotalGb() { return totalGb; }
+    // block sizes of the device from /sys/block/<dev>/queue, null if unknown
+    @Column
+    Integer logicalBlockSize;
+    public Integer getLogicalBlockSize() { return logicalBlockSize; }
+    @Column
+    Integer physicalBlockSize;
+    public Integer getPhysicalBlockSize() { return physicalBlockSize; }
+    @Column
+    Long optimalIoSize;
+    public Long getOptimalIoSize() { return optimalIoSize; }
+    @Column
+    Boolean rotational;
+    public Boolean getRotational() { return rotational; }
     
     public BenchmarkDriveInfo() {}
 }
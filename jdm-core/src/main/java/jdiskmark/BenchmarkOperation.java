@@ -74,6 +74,64 @@ public class BenchmarkOperation implements Serializable {
     public long getTxSize() { return txSize; }
     @Column
     int numThreads = 1;
+    @Column
+    int ioDepth = 1;
+    public int getIoDepth() { return ioDepth; }
+    @Column
+    int vectorBatch = 1;
+    public int getVectorBatch() { return vectorBatch; }
+    // carrier thread pinning seen while running on virtual threads, -1 if jfr was unavailable
+    @Column
+    long pinnedCount = 0;
+    public long getPinnedCount() { return pinnedCount; }
+    @Column
+    double pinnedMs = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getPinnedMs() { return pinnedMs; }
+    // block verification, blocks read back intact and failures
+    @Column
+    long verifiedBlocks = 0;
+    public long getVerifiedBlocks() { return verifiedBlocks; }
+    @Column
+    long verifyErrors = 0;
+    public long getVerifyErrors() { return verifyErrors; }
+    // writes that allocated blocks and writes over allocated blocks, mean latency of each
+    @Column
+    long allocatingWrites = 0;
+    public long getAllocatingWrites() { return allocatingWrites; }
+    @Column
+    double allocatingLatencyMs = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getAllocatingLatencyMs() { return allocatingLatencyMs; }
+    @Column
+    long overwrites = 0;
+    public long getOverwrites() { return overwrites; }
+    @Column
+    double overwriteLatencyMs = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getOverwriteLatencyMs() { return overwriteLatencyMs; }
+    // forces of the LOG_COMMIT type and their rate, the latency percentiles are per commit
+    @Column
+    long commits = 0;
+    public long getCommits() { return commits; }
+    @Column
+    double commitsPerSec = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getCommitsPerSec() { return commitsPerSec; }
+    // mean records per group of the GROUP_COMMIT type, its latency percentiles are per record
+    @Column
+    double recordsPerCommit = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getRecordsPerCommit() { return recordsPerCommit; }
+    // opens that asked for direct I/O and ran buffered, 0 for a fully direct operation
+    @Column
+    long bufferedFallbacks = 0;
+    public long getBufferedFallbacks() { return bufferedFallbacks; }
+    // time spent stamping or checking blocks, not part of the bandwidth
+    @Column
+    double checksumMs = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getChecksumMs() { return checksumMs; }
     // NEW: whether write-sync was enabled for this run (only meaningful for WRITE; may be null for READ)
     @Column
     Boolean writeSyncEnabled;
@@ -106,6 +164,20 @@ public class BenchmarkOperation implements Serializable {
     @Column
     long iops = 0;
     
+    // per I/O latency percentiles in ms, merged from the worker histograms
+    @Column
+    double latP50 = 0;
+    @Column
+    double latP99 = 0;
+    @Column
+    double latP999 = 0;
+    @Column
+    double latMax = 0;
+    // LatencyHistogram.encode() form of the full distribution
+    @Lob
+    @Column
+    String latHistogram;
+    
     // samples affected by background gc - @Lob maps to CLOB since GcRetriedSamplesConverter
     // converts to String. Data is small (comma-separated ints) but @Lob is used for
     // consistency with the samples field and portability across JPA databases.
@@ -207,6 +279,14 @@ public class BenchmarkOperation implements Serializable {
         }
     }
     
+    public void setCommits(long commits) {
+        this.commits = commits;
+        long diffNanos = Duration.between(startTime, endTime).toNanos();
+        if (diffNanos > 0) {
+            commitsPerSec = commits / (diffNanos / 1_000_000_000.0);
+        }
+    }
+    
     // NEW: getters/setters for writeSyncEnabled and iops (expose iops too if needed)
 
     public Boolean getWriteSyncEnabled() {
@@ -230,6 +310,36 @@ public class BenchmarkOperation implements Serializable {
     public long getIops() { return iops; }
     public void setIops(long iops) { this.iops = iops; }
     
+    // per I/O latency distribution
+    
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getLatencyP50() { return latP50; }
+    
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getLatencyP99() { return latP99; }
+    
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getLatencyP999() { return latP999; }
+    
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getLatencyMax() { return latMax; }
+    
+    public String getLatencyHistogram() { return latHistogram; }
+    
+    public void setLatencyHistogram(LatencyHistogram histogram) {
+        latP50 = LatencyHistogram.nsToMs(histogram.getValueAtPercentile(50));
+        latP99 = LatencyHistogram.nsToMs(histogram.getValueAtPercentile(99));
+        latP999 = LatencyHistogram.nsToMs(histogram.getValueAtPercentile(99.9));
+        latMax = LatencyHistogram.nsToMs(histogram.getMaxNs());
+        latHistogram = histogram.encode();
+    }
+    
+    @JsonIgnore
+    public String getLatencyPercentilesDisplay() {
+        return DF.format(latP50) + "/" + DF.format(latP99) + "/"
+                + DF.format(latP999) + "/" + DF.format(latMax);
+    }
+    
     // utility methods for collection
     
     public static List<BenchmarkOperation> findAll() {
@@ -140,6 +140,23 @@ public enum BenchmarkProfile {
             false,
             SectorAlignment.ALIGN_4K,
             true  // Multi-file is vital for this use case
+    ),
+    
+    // --- 9. Queue Depth Random (QD32 / NVMe rated IOPS) ---
+    HIGH_QUEUE_RANDOM_Q32(
+            "Random 4K (Q32)",
+            BenchmarkType.READ_WRITE,
+            BlockSequence.RANDOM,
+            1,   // single thread keeps 32 ios in flight
+            200, // samples
+            128, // blocks
+            4, // blk size kb
+            IoEngine.ASYNC, // queue depth instead of threads
+            true, // direct io
+            false,// writeSync
+            SectorAlignment.ALIGN_4K,
+            true, // multiFile
+            32   // io depth
     );
     
     // identifiers
@@ -160,6 +177,9 @@ public enum BenchmarkProfile {
     final boolean writeSyncEnable; // Whether to use synchronous write mode ("rwd")    
     final SectorAlignment sectorAlignment;
     final boolean multiFile;    // Whether to use a single test file or multiple
+    final int ioDepth;          // outstanding ios per thread (async engine)
+    final int sampleDurationMs; // time based sample window, 0 = sized by blocks
+    final int maxDurationSec;   // runtime cap per operation, 0 = none
 
     // --- Constructor ---
     
@@ -168,6 +188,27 @@ public enum BenchmarkProfile {
             int numBlocks, int blockSizeKB, 
             IoEngine ioEngine, boolean directEnable, boolean writeSyncEnable,
             SectorAlignment alignment, boolean multiFile) {
+        this(name, benchmarkType, blockSequence, numberThreads, numSamples,
+                numBlocks, blockSizeKB, ioEngine, directEnable, writeSyncEnable,
+                alignment, multiFile, 1);
+    }
+    
+    BenchmarkProfile(String name, BenchmarkType benchmarkType,
+            BlockSequence blockSequence, int numberThreads, int numSamples,
+            int numBlocks, int blockSizeKB, 
+            IoEngine ioEngine, boolean directEnable, boolean writeSyncEnable,
+            SectorAlignment alignment, boolean multiFile, int ioDepth) {
+        this(name, benchmarkType, blockSequence, numberThreads, numSamples,
+                numBlocks, blockSizeKB, ioEngine, directEnable, writeSyncEnable,
+                alignment, multiFile, ioDepth, 0, 0);
+    }
+    
+    BenchmarkProfile(String name, BenchmarkType benchmarkType,
+            BlockSequence blockSequence, int numberThreads, int numSamples,
+            int numBlocks, int blockSizeKB, 
+            IoEngine ioEngine, boolean directEnable, boolean writeSyncEnable,
+            SectorAlignment alignment, boolean multiFile, int ioDepth,
+            int sampleDurationMs, int maxDurationSec) {
         this.symbol = this.name();
         this.name = name;
         this.benchmarkType = benchmarkType;
@@ -181,6 +222,9 @@ public enum BenchmarkProfile {
         this.writeSyncEnable = writeSyncEnable;
         this.sectorAlignment = alignment;
         this.multiFile = multiFile;
+        this.ioDepth = ioDepth;
+        this.sampleDurationMs = sampleDurationMs;
+        this.maxDurationSec = maxDurationSec;
     }
 
     @Override
@@ -196,7 +240,8 @@ public enum BenchmarkProfile {
             MAX_WRITE_STRESS,
             MEDIA_PLAYBACK,
             VIDEO_EXPORTING,
-            PHOTO_LIBRARY
+            PHOTO_LIBRARY,
+            HIGH_QUEUE_RANDOM_Q32
         ).toArray(BenchmarkProfile[]::new);
     }
 
@@ -216,4 +261,8 @@ public enum BenchmarkProfile {
     public boolean isWriteSyncEnable() { return writeSyncEnable; }
     public SectorAlignment getSectorAlignment() { return sectorAlignment; }
     public boolean isMultiFile() { return multiFile; }
+    public int getIoDepth() { return ioDepth; }
+    // duration options
+    public int getSampleDurationMs() { return sampleDurationMs; }
+    public int getMaxDurationSec() { return maxDurationSec; }
 }
\ No newline at end of file
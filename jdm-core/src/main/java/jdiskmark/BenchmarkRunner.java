@@ -2,17 +2,30 @@ package jdiskmark;
 
 import static jdiskmark.GcDetector.MAX_GC_RETRIES;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
+import com.sun.nio.file.ExtendedOpenOption;
 import jdiskmark.App.IoEngine;
 import jdiskmark.Benchmark.IOMode;
 import static jdiskmark.Benchmark.IOMode.READ;
@@ -30,22 +43,41 @@ public class BenchmarkRunner {
     
     @FunctionalInterface
     private interface IOAction {
-        void perform(Sample sample) throws Exception;
+        void perform(Sample sample, LatencyHistogram histogram, BufferPool buffers, IoUring ring,
+                OffsetGenerator offsets, IoPacer pacer) throws Exception;
     }
 
     // Minimum milliseconds between progress updates to avoid excessive UI refreshes
     private static final long UPDATE_INTERVAL = 25;
     
     private static final Logger logger = Logger.getLogger(BenchmarkRunner.class.getName());
+    private static final boolean PAGE_FAULTS_SUPPORTED = System.getProperty("os.name").contains("Linux");
+    // log append alignment when the logical block size of the device is unknown
+    private static final long LOG_DIRECT_ALIGNMENT = 4096;
     
     final BenchmarkListener listener;
     final BenchmarkConfig config;
     final AtomicLong lastUpdateMs = new AtomicLong(0);
     final LongAdder writeUnitsComplete = new LongAdder();
     final LongAdder readUnitsComplete = new LongAdder();
+    final LongAdder samplesComplete = new LongAdder();
     long unitsTotal;
+    long samplesTotal; // progress denominator of time based samples
+    volatile long operationStartNs; // start of the running operation for the duration cap
     long blockSize;
-    byte[] blockArr; // for legacy jdk io
+    private final AtomicLong ioUringFallbacks = new AtomicLong(); // workers of the operation without a ring
+    ChannelCache channelCache; // open channels of the running operation
+    private MemorySegment writeRegion; // content the write buffers rotate through, see newBufferPool
+    BlockVerifier verifier; // null unless verification is enabled
+    AllocationTracker allocations; // null unless the benchmark writes blocks
+    final AtomicLong logTail = new AtomicLong(); // next append offset of the shared log
+    boolean logDirect; // log records are written with direct I/O
+    BlockGeometry geometry; // null if the device block sizes are unknown
+    long directAlignment; // alignment direct I/O requires here, 0 if unknown
+    final AtomicLong bufferedFallbacks = new AtomicLong(); // direct opens that fell back to buffered
+    GroupCommitLog groupLog; // writer of the running group commit operation
+    private FileChannel groupChannel;
+    private BufferPool groupBuffers;
 
     public static int[][] divideIntoRanges(int startIndex, int endIndex, int numThreads) {
         if (numThreads <= 0 || endIndex < startIndex) {
@@ -77,6 +109,12 @@ public class BenchmarkRunner {
     }
 
     public Benchmark execute() throws Exception {
+        if (config.numThreads > config.numSamples) {
+            // each thread runs a range of the samples, threads beyond the samples stay idle
+            config.numThreads = Math.max(1, config.numSamples);
+            App.msg("threads capped at " + config.numThreads
+                    + ", one per sample, raise the sample count for more concurrent requesters");
+        }
         long blocksPerPhase = (long) config.numBlocks * config.numSamples;
 
         long wUnitsTotal = config.hasWriteOperation() ? blocksPerPhase : 0L;
@@ -91,15 +129,22 @@ public class BenchmarkRunner {
 
         // Final total units for the progress bar denominator
         unitsTotal = wUnitsTotal + rUnitsTotal;
+        if (config.benchmarkType == Benchmark.BenchmarkType.METADATA) {
+            // one call per file and phase
+            unitsTotal = (long) config.metadataFiles * MetadataOperation.Phase.values().length;
+        }
+        // time based samples have no block total, progress counts samples
+        // including those of read preparation and both mixed directions
+        int phases = (config.hasWriteOperation() ? 1 : 0) + (config.hasReadOperation() ? 1 : 0);
+        if (config.benchmarkType == Benchmark.BenchmarkType.READ
+                || config.benchmarkType == Benchmark.BenchmarkType.MIXED) {
+            phases++;
+        }
+        samplesTotal = (long) config.numSamples * phases;
         
         blockSize = config.blockSize;
-        
-        if (config.ioEngine == IoEngine.LEGACY) {
-            blockArr = new byte[(int)blockSize];
-            for (int b = 0; b < blockArr.length; b++) {
-                if (b % 2 == 0) blockArr[b] = (byte) 0xFF;
-            }
-        }
+        geometry = BlockGeometry.detect(App.locationDir);
+        checkDirectAlignment();
 
         //TODO: use config if possible
         String driveModel = Util.getDriveModel(App.locationDir);
@@ -114,6 +159,16 @@ public class BenchmarkRunner {
         int startingSample = App.nextSampleNumber;
         int endingSample = App.nextSampleNumber + config.numSamples;
         int[][] tRanges = divideIntoRanges(startingSample, endingSample, config.numThreads);
+        if (config.verifyEnabled) {
+            verifier = new BlockVerifier(config.randomSeed, config.getWorkingSetBlocks(),
+                    startingSample, config.multiFileEnabled ? config.numSamples : 1);
+        }
+        boolean log = config.benchmarkType == Benchmark.BenchmarkType.LOG_COMMIT
+                || config.benchmarkType == Benchmark.BenchmarkType.GROUP_COMMIT;
+        if (config.hasWriteOperation() && !log
+                && (config.preallocateEnabled || config.allocationSplitEnabled)) {
+            allocations = newAllocationTracker(startingSample);
+        }
 
         if (config.gcHintsEnabled && !listener.isCancelled()) {
             GcDetector.triggerAndWait(); // Initial cleanup
@@ -122,11 +177,22 @@ public class BenchmarkRunner {
         benchmark.recordStartTime();
         
         // Execution Loops
-        if (config.hasWriteOperation()) {
+        if (config.benchmarkType == Benchmark.BenchmarkType.METADATA) {
+            new MetadataBenchmark(this).run(benchmark);
+        } else if (config.benchmarkType == Benchmark.BenchmarkType.MIXED) {
+            // the reads of a mixed workload need existing data
+            runReadPreparation(tRanges);
+            prepareFiles(benchmark, tRanges);
+        } else if (log) {
+            prepareLogs(tRanges);
+            runOperation(benchmark, IOMode.WRITE, tRanges);
+        } else if (config.hasWriteOperation()) {
+            prepareFiles(benchmark, tRanges);
             runOperation(benchmark, IOMode.WRITE, tRanges);
         } else if (config.hasReadOperation()) {
             // #132 this is a read without a write so we need to generate files
             runReadPreparation(tRanges);
+            prepareFiles(benchmark, tRanges);
         }
         
         throttledProgressUpdate(true);
@@ -149,7 +215,12 @@ public class BenchmarkRunner {
         }
         
         if (config.hasReadOperation() && !listener.isCancelled()) {
-            runOperation(benchmark, IOMode.READ, tRanges);
+            checkWorkingSetWritten(tRanges);
+            if (config.benchmarkType == Benchmark.BenchmarkType.MIXED) {
+                runOperation(benchmark, new IOMode[] {IOMode.WRITE, IOMode.READ}, tRanges);
+            } else {
+                runOperation(benchmark, IOMode.READ, tRanges);
+            }
         }
 
         benchmark.recordEndTime();
@@ -159,104 +230,682 @@ public class BenchmarkRunner {
         return benchmark;
     }
 
+    /**
+     * @param startingSample first sample of the run
+     * @return the tracker splitting allocating writes from overwrites, null
+     * with a message when the run could leave more extents than the budget
+     */
+    private AllocationTracker newAllocationTracker(int startingSample) {
+        int files = config.multiFileEnabled ? config.numSamples : 1;
+        long writes = config.sampleDurationMs > 0 ? 0 : (long) config.numBlocks * config.numSamples;
+        long extents = AllocationTracker.maxExtents(config.getWorkingSetBlocks(), files, writes);
+        if (extents > AllocationTracker.MAX_EXTENTS) {
+            App.msg("allocating writes are not split from overwrites, the run could write "
+                    + extents + " separate extents, more than the " + AllocationTracker.MAX_EXTENTS + " tracked");
+            return null;
+        }
+        return new AllocationTracker(config.getWorkingSetBlocks(), startingSample, files);
+    }
+
+    /**
+     * Fits direct I/O to the data directory before any file is touched.
+     * Direct transfers need sizes and offsets aligned to the logical block
+     * size of the device and, for the JDK, to the block size of the file
+     * store. Raises the buffer alignment to cover both and the physical
+     * block size, and rejects a block size direct I/O would refuse, which
+     * would otherwise make the samples run buffered. Log types check their
+     * record size when the logs are prepared instead.
+     *
+     * @throws IllegalArgumentException if the block size is misaligned
+     */
+    private void checkDirectAlignment() {
+        if (!Boolean.TRUE.equals(config.directIoEnabled)) return;
+        long storeBlockSize = 0;
+        try {
+            storeBlockSize = Files.getFileStore(App.locationDir.toPath()).getBlockSize();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.log(Level.FINE, "file store block size unavailable", e);
+        }
+        if (geometry != null) {
+            App.msg("device " + geometry);
+        }
+        directAlignment = Math.max(storeBlockSize, geometry != null ? geometry.logicalBlockSize : 0);
+        if (directAlignment == 0) return;
+        long bufferBytes = Math.max(directAlignment, geometry != null ? geometry.physicalBlockSize : 0);
+        App.SectorAlignment alignment = BlockGeometry.alignmentFor(config.sectorAlignment, bufferBytes);
+        if (alignment != config.sectorAlignment) {
+            App.msg("sector alignment " + config.sectorAlignment + " raised to " + alignment
+                    + " for " + bufferBytes + " B blocks");
+            config.sectorAlignment = alignment;
+        }
+        boolean log = config.benchmarkType == Benchmark.BenchmarkType.LOG_COMMIT
+                || config.benchmarkType == Benchmark.BenchmarkType.GROUP_COMMIT;
+        boolean blockIo = config.benchmarkType != Benchmark.BenchmarkType.METADATA
+                && config.ioEngine != IoEngine.MMAP && config.ioEngine != IoEngine.LEGACY;
+        if (!log && blockIo && blockSize % directAlignment != 0) {
+            throw new IllegalArgumentException("block size of " + blockSize + " bytes is not a multiple of the "
+                    + directAlignment + " B direct I/O alignment of " + App.locationDir
+                    + ", direct I/O would fall back to buffered. Use a multiple or disable direct I/O.");
+        }
+    }
+
+    /**
+     * Counts an open that asked for direct I/O and runs buffered, the
+     * first of a benchmark is reported.
+     *
+     * @param reason why direct I/O was refused
+     */
+    void recordBufferedFallback(String reason) {
+        if (bufferedFallbacks.getAndIncrement() == 0) {
+            App.err(reason + ". Falling back to buffered I/O.");
+        }
+    }
+
+    /** @return the window of a time based sample in ns, 0 when samples are sized by blocks */
+    long sampleWindowNs() {
+        return config.sampleDurationMs * 1_000_000L;
+    }
+
+    /** @return true once the running operation has used its duration cap */
+    boolean isOperationExpired() {
+        return config.maxDurationSec > 0
+                && System.nanoTime() - operationStartNs >= config.maxDurationSec * 1_000_000_000L;
+    }
+
+    /**
+     * @return blocks issued per sample, unbounded for time based samples
+     * which end with their window
+     */
+    private int blocksPerSample() {
+        return config.sampleDurationMs > 0 ? Integer.MAX_VALUE : config.numBlocks;
+    }
+
+    ExecutorService newExecutor() {
+        return config.virtualThreads ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(config.numThreads);
+    }
+
+    /**
+     * One pool per worker, created once per operation with a buffer for
+     * every outstanding io or vectored block and filled with the configured
+     * data pattern. Writes rotate through a region shared by all workers.
+     *
+     * @param worker first sample of the worker, seeds its content
+     */
+    private BufferPool newBufferPool(int worker) {
+        int slots = Math.max(1, Math.min(config.numBlocks, Math.max(config.ioDepth, config.vectorBatch)));
+        if (config.benchmarkType == Benchmark.BenchmarkType.MIXED) {
+            slots = Math.max(2, slots); // mixed reads use their own buffer
+        }
+        BufferPool pool = new BufferPool(blockSize, BufferPool.alignmentFor(blockSize, config.sectorAlignment),
+                slots, config.ioEngine == IoEngine.LEGACY);
+        return pool.fill(new DataGenerator(config.dataPattern, config.compressionRatio,
+                OffsetGenerator.mix64(config.randomSeed + worker)), writeRegion());
+    }
+
+    /**
+     * @return the region of the configured pattern, generated by the first
+     * worker that needs it and kept until the runner is dropped
+     */
+    private synchronized MemorySegment writeRegion() {
+        if (writeRegion == null && config.dataPattern != Benchmark.DataPattern.ZERO) {
+            writeRegion = new DataGenerator(config.dataPattern, config.compressionRatio, config.randomSeed)
+                    .newRegion(Arena.ofAuto(), blockSize);
+        }
+        return writeRegion;
+    }
+
+    /**
+     * @return the units addressed by the offset generators, blocks of the
+     * working set or whole batches when the modern engine transfers vectored
+     */
+    static long offsetUnits(BenchmarkConfig config, IoEngine engine) {
+        long blocks = config.getWorkingSetBlocks();
+        int batch = Math.min(config.vectorBatch, config.numBlocks);
+        return (engine == IoEngine.MODERN && batch > 1) ? blocks / batch : blocks;
+    }
+
+    /** @return the files used by the samples of the ranges, one unless multi file */
+    private List<File> testFiles(int[][] ranges) {
+        List<File> files = new ArrayList<>();
+        int first = ranges[0][0];
+        int last = config.multiFileEnabled ? ranges[ranges.length - 1][1] : first + 1;
+        for (int s = first; s < last; s++) {
+            files.add(new Sample(Sample.Type.READ, s).getTestFile(this));
+        }
+        return files;
+    }
+
+    /**
+     * @return true if the reads address a working set beyond the blocks the
+     * samples write, which has to be written before it is read
+     */
+    private boolean readsWorkingSet() {
+        return config.hasReadOperation() && config.workingSetSize > 0;
+    }
+
+    /**
+     * Refuses to read a working set the files do not hold, the reads of
+     * never written blocks would hit holes the file system answers without
+     * touching the device.
+     *
+     * @throws IllegalStateException if a file is shorter than the working set
+     */
+    private void checkWorkingSetWritten(int[][] ranges) {
+        if (!readsWorkingSet()) return;
+        long length = config.getWorkingSetBlocks() * blockSize;
+        for (File file : testFiles(ranges)) {
+            if (file.length() < length) {
+                throw new IllegalStateException("working set of " + Util.formatByteSize(length)
+                        + " was not written, " + file.getName() + " holds " + Util.formatByteSize(file.length()));
+            }
+        }
+    }
+
+    /**
+     * Readies the test files ahead of the measured samples: the optional
+     * preallocation, then the preconditioning. Records which blocks are
+     * allocated when the samples start, all of them after a fallocate or a
+     * fill pass, otherwise those below the previous file length.
+     */
+    private void prepareFiles(Benchmark b, int[][] ranges) throws Exception {
+        List<File> files = testFiles(ranges);
+        long length = config.getWorkingSetBlocks() * blockSize;
+        long[] allocated = new long[files.size()];
+        int fallocated = 0;
+        for (int i = 0; i < files.size(); i++) {
+            File file = files.get(i);
+            allocated[i] = file.length();
+            if (config.preallocateEnabled && !listener.isCancelled()
+                    && Preallocator.preallocate(file, length)) {
+                allocated[i] = length;
+                fallocated++;
+            }
+        }
+        if (config.preallocateEnabled) {
+            App.msg("preallocated " + Util.formatByteSize(length) + " in " + fallocated + " of "
+                    + files.size() + " files with posix_fallocate"
+                    + (fallocated < files.size() ? ", extended the others" : ""));
+        }
+        boolean filled = precondition(b, ranges);
+        if (allocations != null) {
+            for (int i = 0; i < files.size(); i++) {
+                long bytes = filled ? length : allocated[i];
+                allocations.setAllocatedBlocks(i, bytes / blockSize);
+            }
+        }
+    }
+
+    /**
+     * Empties the logs so every commit appends to the file, and allocates
+     * them ahead of the samples when preallocation is enabled so the commits
+     * overwrite allocated extents like a recycled log segment. A group
+     * commit has one log written by its writer for all samples.
+     */
+    private void prepareLogs(int[][] ranges) throws IOException {
+        boolean group = config.benchmarkType == Benchmark.BenchmarkType.GROUP_COMMIT;
+        List<File> files = group ? testFiles(ranges).subList(0, 1) : testFiles(ranges);
+        long length = logLength(config);
+        int fallocated = 0;
+        for (File file : files) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(0);
+            }
+            if (config.preallocateEnabled && Preallocator.preallocate(file, length)) {
+                fallocated++;
+            }
+        }
+        if (config.preallocateEnabled) {
+            App.msg("preallocated " + Util.formatByteSize(length) + " in " + fallocated + " of "
+                    + files.size() + " logs with posix_fallocate");
+        }
+        if (config.preconditionPasses > 0 || config.steadyStateMaxRounds > 0) {
+            App.msg("preconditioning does not apply to log commits, skipped");
+        }
+        // appends land at multiples of the record size, a page multiple is aligned on any device
+        long alignment = directAlignment > 0 ? directAlignment : LOG_DIRECT_ALIGNMENT;
+        logDirect = config.getDirectIoEnabled() && isAligned(blockSize, alignment);
+        if (config.getDirectIoEnabled() && !logDirect) {
+            App.msg("records of " + blockSize + " bytes are not a multiple of " + alignment
+                    + ", the log is written buffered, each commit still forces it");
+        }
+    }
+
+    /**
+     * @return bytes each log holds once the samples appended their records,
+     * one sample per log in multi file mode, every sample in a shared log
+     */
+    static long logLength(BenchmarkConfig config) {
+        boolean group = config.benchmarkType == Benchmark.BenchmarkType.GROUP_COMMIT;
+        return (long) config.numBlocks * config.blockSize
+                * (config.multiFileEnabled && !group ? 1 : config.numSamples);
+    }
+
+    /** @return true if appends of records of this size stay aligned for direct I/O */
+    static boolean isAligned(long recordSize, long alignment) {
+        return recordSize > 0 && recordSize % alignment == 0;
+    }
+
+    /**
+     * Opens the log of a group commit operation and starts its writer with
+     * one producer per worker. The writer writes a group from one aligned
+     * buffer at the log tail and forces it.
+     */
+    private void startGroupLog(int[][] ranges) throws IOException {
+        File file = testFiles(ranges).get(0);
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.WRITE);
+        options.add(StandardOpenOption.CREATE);
+        if (App.writeSyncEnable) {
+            options.add(StandardOpenOption.DSYNC);
+        }
+        if (logDirect) {
+            options.add(ExtendedOpenOption.DIRECT); // non-standard api
+        }
+        try {
+            groupChannel = FileChannel.open(file.toPath(), options);
+        } catch (UnsupportedOperationException | IOException e) {
+            if (!logDirect) throw e;
+            recordBufferedFallback("Direct I/O open failed or unsupported: " + e.getMessage());
+            logDirect = false;
+            options.remove(ExtendedOpenOption.DIRECT);
+            groupChannel = FileChannel.open(file.toPath(), options);
+        }
+        int maxBatch = Math.max(1, config.groupMaxBatch);
+        long alignment = BufferPool.alignmentFor(blockSize, config.sectorAlignment);
+        if (logDirect) {
+            alignment = Math.max(alignment, directAlignment > 0 ? directAlignment : LOG_DIRECT_ALIGNMENT);
+        }
+        DataGenerator content = new DataGenerator(config.dataPattern, config.compressionRatio,
+                OffsetGenerator.mix64(config.randomSeed));
+        groupBuffers = new BufferPool(maxBatch * blockSize, alignment, 1)
+                .fill(content, content.newRegion(Arena.ofAuto(), maxBatch * blockSize));
+        boolean forceMetadata = config.commitSync.forcesMetadata();
+        FileChannel fc = groupChannel;
+        BufferPool buffers = groupBuffers;
+        groupLog = new GroupCommitLog(records -> {
+            buffers.stamp(0);
+            ByteBuffer group = buffers.buffer(0).limit((int) (records * blockSize));
+            long offset = logTail.getAndAdd(records * blockSize);
+            while (group.hasRemaining()) {
+                offset += fc.write(group, offset);
+            }
+            fc.force(forceMetadata);
+        }, ranges.length, maxBatch, config.groupMaxWaitUs * 1000L);
+    }
+
+    /** Commits the records still waiting and closes the log of a group commit operation. */
+    private void stopGroupLog() throws IOException {
+        try {
+            if (groupLog != null) groupLog.close();
+        } finally {
+            if (groupChannel != null) groupChannel.close();
+            if (groupBuffers != null) groupBuffers.close();
+        }
+    }
+
+    /**
+     * Runs the optional fills and steady state rounds ahead of the measured
+     * samples. Reads over a working set get one fill even without
+     * preconditioning so every block they address holds data.
+     *
+     * @return true if the working set was filled
+     */
+    private boolean precondition(Benchmark b, int[][] ranges) throws Exception {
+        boolean readFill = readsWorkingSet() && config.preconditionPasses <= 0;
+        if ((config.preconditionPasses <= 0 && config.steadyStateMaxRounds <= 0 && !readFill)
+                || listener.isCancelled()) {
+            return false;
+        }
+        Preconditioner preconditioner = new Preconditioner(this, testFiles(ranges));
+        if (readFill) {
+            long start = System.nanoTime();
+            preconditioner.fill();
+            App.msg("filled the " + Util.formatByteSize(config.getWorkingSetBlocks() * blockSize)
+                    + " working set for the reads in "
+                    + Sample.DF.format((System.nanoTime() - start) / 1_000_000_000d) + " s");
+        }
+        preconditioner.run(b);
+        if (verifier != null) {
+            verifier.forget(); // preconditioning overwrote the stamped blocks
+        }
+        throttledProgressUpdate(true);
+        return readFill || config.preconditionPasses > 0;
+    }
+
     private void runOperation(Benchmark b, IOMode mode, int[][] ranges) throws Exception {
-        BenchmarkOperation op = createOp(b, mode);
-        ExecutorService executor = Executors.newFixedThreadPool(config.numThreads);
+        runOperation(b, new IOMode[] {mode}, ranges);
+    }
+
+    /**
+     * Runs the samples of one operation per mode. A single mode runs that
+     * direction, WRITE and READ together run the mixed workload where every
+     * sample interleaves both directions and each operation receives the
+     * results of its own direction.
+     */
+    private void runOperation(Benchmark b, IOMode[] modes, int[][] ranges) throws Exception {
+        boolean mixed = modes.length > 1;
+        boolean group = config.benchmarkType == Benchmark.BenchmarkType.GROUP_COMMIT;
+        boolean log = config.benchmarkType == Benchmark.BenchmarkType.LOG_COMMIT || group;
+        Object label = mixed || log ? config.benchmarkType : modes[0];
+        BenchmarkOperation[] ops = new BenchmarkOperation[modes.length];
+        long[] unitsBefore = new long[modes.length];
+        for (int i = 0; i < modes.length; i++) {
+            ops[i] = createOp(b, modes[i]);
+            if (mixed) {
+                int pct = modes[i] == IOMode.READ ? config.readPct : 100 - config.readPct;
+                ops[i].txSize = config.txSize * pct / 100;
+            }
+            unitsBefore[i] = unitsComplete(modes[i]).sum();
+        }
+        long verifiedBefore = verifier != null ? verifier.getVerifiedBlocks() : 0;
+        long errorsBefore = verifier != null ? verifier.getErrors() : 0;
+        long allocatingBefore = allocations != null ? allocations.getAllocatingWrites() : 0;
+        long allocatingNsBefore = allocations != null ? allocations.getAllocatingNs() : 0;
+        long overwritesBefore = allocations != null ? allocations.getOverwrites() : 0;
+        long overwriteNsBefore = allocations != null ? allocations.getOverwriteNs() : 0;
+        long fallbacksBefore = bufferedFallbacks.get();
+        if (log && config.getDirectIoEnabled() && !logDirect) {
+            bufferedFallbacks.incrementAndGet(); // the log is written buffered, see prepareLogs
+        }
+        channelCache = new ChannelCache();
+        operationStartNs = System.nanoTime();
+        ExecutorService executor = newExecutor();
+        PinningDetector pinningDetector = config.virtualThreads ? new PinningDetector() : null;
+        if (pinningDetector != null) pinningDetector.start();
         List<Future<?>> futures = new ArrayList<>();
 
         // use action to avoid adding a field in sample object
-        final IOAction ioAction = switch (config.ioEngine) {
-            case LEGACY -> switch (mode) {
-                case WRITE -> (s) -> s.measureWriteLegacy(blockSize, config.numBlocks, blockArr, this);
-                case READ -> (s) -> s.measureReadLegacy(blockSize, config.numBlocks, blockArr, this);
+        IoEngine engine = config.ioEngine;
+        if (engine == IoEngine.IO_URING && !IoUring.isAvailable()) {
+            App.err("io_uring unavailable: " + IoUring.getUnavailableReason() + ". Falling back to MODERN engine.");
+            engine = IoEngine.MODERN;
+        }
+        if (mixed && engine != IoEngine.MODERN) {
+            App.err("Mixed workloads run on the MODERN engine, " + engine + " is not used.");
+            engine = IoEngine.MODERN;
+        }
+        if (log && engine != IoEngine.MODERN) {
+            App.err("Log commits run on the MODERN engine, " + engine + " is not used.");
+            engine = IoEngine.MODERN;
+        }
+        if (verifier != null && engine != IoEngine.MODERN) {
+            App.err("Verification runs on the MODERN engine, " + engine + " is not used.");
+            engine = IoEngine.MODERN;
+        }
+        final int numBlocks = blocksPerSample();
+        final int commitEvery = Math.max(1, config.commitEvery);
+        final boolean forceMetadata = config.commitSync.forcesMetadata();
+        final IOAction ioAction = mixed ? null
+                : group ? (s, h, p, u, g, r) -> s.measureGroupCommit(blockSize, numBlocks, this, h, r)
+                : log ? (s, h, p, u, g, r) -> s.measureCommit(blockSize, numBlocks, commitEvery, forceMetadata, this, h, p, r)
+                : switch (engine) {
+            case LEGACY -> switch (modes[0]) {
+                case WRITE -> (s, h, p, u, g, r) -> s.measureWriteLegacy(blockSize, numBlocks, p, this, h, g, r);
+                case READ -> (s, h, p, u, g, r) -> s.measureReadLegacy(blockSize, numBlocks, p, this, h, g, r);
+            };
+            case MODERN -> switch (modes[0]) {
+                case WRITE -> (s, h, p, u, g, r) -> s.measureWrite(blockSize, numBlocks, this, h, p, g, r);
+                case READ -> (s, h, p, u, g, r) -> s.measureRead(blockSize, numBlocks, this, h, p, g, r);
+            };
+            case ASYNC -> switch (modes[0]) {
+                case WRITE -> (s, h, p, u, g, r) -> s.measureWriteAsync(blockSize, numBlocks, config.ioDepth, this, h, p, g, r);
+                case READ -> (s, h, p, u, g, r) -> s.measureReadAsync(blockSize, numBlocks, config.ioDepth, this, h, p, g, r);
             };
-            case MODERN -> switch (mode) {
-                case WRITE -> (s) -> s.measureWrite(blockSize, config.numBlocks, this);
-                case READ -> (s) -> s.measureRead(blockSize, config.numBlocks, this);
+            case MMAP -> switch (modes[0]) {
+                case WRITE -> (s, h, p, u, g, r) -> s.measureWriteMmap(blockSize, numBlocks, this, h, p, g, r);
+                case READ -> (s, h, p, u, g, r) -> s.measureReadMmap(blockSize, numBlocks, this, h, p, g, r);
+            };
+            case IO_URING -> switch (modes[0]) {
+                case WRITE -> (s, h, p, u, g, r) -> s.measureWriteIoUring(blockSize, numBlocks, config.ioDepth, this, h, p, u, g, r);
+                case READ -> (s, h, p, u, g, r) -> s.measureReadIoUring(blockSize, numBlocks, config.ioDepth, this, h, p, u, g, r);
             };
         };
+        final boolean ioUring = ioAction != null && !log && engine == IoEngine.IO_URING;
+        ioUringFallbacks.set(0);
+        
+        final long units = offsetUnits(config, engine);
+        
+        // one latency histogram per worker and mode, merged into the operations when done
+        List<LatencyHistogram[]> histograms = new ArrayList<>();
+        long[] recorded = new long[modes.length];
+        if (group) {
+            startGroupLog(ranges);
+        }
         
         for (int[] range : ranges) {
+            LatencyHistogram[] workerHistograms = newHistograms(modes.length);
+            histograms.add(workerHistograms);
             futures.add(executor.submit(() -> {
                 GcDetector gcDetector = config.gcRetryEnabled ? new GcDetector() : null;
+                BufferPool buffers = newBufferPool(range[0]);
+                IoUring ring = ioUring ? newIoUring(buffers, numBlocks) : null;
+                OffsetGenerator offsets = config.blockOrder.newGenerator(config);
+                IoPacer pacer = IoPacer.forRate(config.getTargetIoRate(), ranges.length);
                 if (gcDetector != null) gcDetector.start();
+                // per sample latencies are only kept once the sample is accepted
+                LatencyHistogram[] sampleHistograms = newHistograms(modes.length);
+                Sample[] samples = new Sample[modes.length];
                 try {
-                    for (int s = range[0]; s < range[1] && !listener.isCancelled(); s++) {
-                        Sample.Type type = mode == IOMode.WRITE ? Sample.Type.WRITE : Sample.Type.READ;
-                        Sample sample = new Sample(type, s);
+                    for (int s = range[0]; s < range[1] && !listener.isCancelled()
+                            && !isOperationExpired(); s++) {
+                        for (int i = 0; i < modes.length; i++) {
+                            samples[i] = new Sample(modes[i] == IOMode.WRITE ? Sample.Type.WRITE : Sample.Type.READ, s);
+                        }
                         int retries = 0;
+                        long[] attemptUnits = new long[modes.length];
                         do {
+                            for (int i = 0; i < modes.length; i++) {
+                                attemptUnits[i] = samples[i].progressUnits;
+                            }
                             if (gcDetector != null) gcDetector.reset();
+                            for (LatencyHistogram h : sampleHistograms) h.reset();
+                            // a retried sample replays the same offsets
+                            offsets.start(units, OffsetGenerator.sampleSeed(config.randomSeed, modes[0], s));
+                            pacer.start();
+                            long[] faultsBefore = pageFaults();
                             try {
-                                ioAction.perform(sample);
+                                if (mixed) {
+                                    samples[0].measureMixed(blockSize, numBlocks, config.readPct, this,
+                                            samples[1], sampleHistograms[0], sampleHistograms[1], buffers, offsets, pacer);
+                                } else {
+                                    ioAction.perform(samples[0], sampleHistograms[0], buffers, ring, offsets, pacer);
+                                }
                             } catch (Exception e) {
                                 logger.log(Level.SEVERE, null, e);
                                 throw new RuntimeException(e);
                             }
+                            long[] faultsAfter = pageFaults();
+                            if (faultsBefore != null && faultsAfter != null) {
+                                // faults are not split by direction in a mixed sample
+                                samples[0].minorFaults = faultsAfter[0] - faultsBefore[0];
+                                samples[0].majorFaults = faultsAfter[1] - faultsBefore[1];
+                            }
                             if (gcDetector != null && gcDetector.isGcDetected() && retries < MAX_GC_RETRIES) {
                                 retries++;
-                                synchronized (op) {
-                                    op.gcRetriedSamples.add(s);
+                                for (BenchmarkOperation op : ops) {
+                                    synchronized (op) {
+                                        op.gcRetriedSamples.add(s);
+                                    }
                                 }
                                 logger.log(Level.INFO,
                                         "GC detected during {0} sample {1}, retrying ({2}/{3})",
-                                        new Object[]{mode, s, retries, MAX_GC_RETRIES});
+                                        new Object[]{label, s, retries, MAX_GC_RETRIES});
                                 App.msg("gc detected on sample " + s + " retrying...");
-                                // reset progress by num blocks per sample
-                                long resetUnits = (long)(config.numBlocks);
-                                switch (mode) {
-                                    case WRITE -> writeUnitsComplete.add(-resetUnits);
-                                    case READ -> readUnitsComplete.add(-resetUnits);
+                                // reset progress by the units the attempt reported, its histograms
+                                // count batches or commits rather than blocks or records
+                                for (int i = 0; i < modes.length; i++) {
+                                    unitsComplete(modes[i]).add(attemptUnits[i] - samples[i].progressUnits);
                                 }
                             } else {
                                 // no gc retry enabled || no detection || max retries exceeded
                                 break;
                             }
                         } while (true);
+                        for (int i = 0; i < modes.length; i++) {
+                            workerHistograms[i].add(sampleHistograms[i]);
+                            Sample sample = samples[i];
+                            BenchmarkOperation op = ops[i];
 
-                        //TODO: review for putting into onSampleComplete
-                        App.updateMetrics(sample);
-                        // Update op-level cumulative stats
-                        op.bwMax = sample.cumMax;
-                        op.bwMin = sample.cumMin;
-                        op.bwAvg = sample.cumAvg;
-                        op.accAvg = sample.cumAccTimeMs;
-                        op.add(sample);
-
-                        switch (mode) {
-                            case WRITE -> writeUnitsComplete.increment();
-                            case READ -> readUnitsComplete.increment();
-                        }
+                            //TODO: review for putting into onSampleComplete
+                            App.updateMetrics(sample);
+                            // Update op-level cumulative stats
+                            op.bwMax = sample.cumMax;
+                            op.bwMin = sample.cumMin;
+                            op.bwAvg = sample.cumAvg;
+                            op.accAvg = sample.cumAccTimeMs;
+                            op.add(sample);
+
+                            unitsComplete(modes[i]).increment();
+                            samplesComplete.increment();
 
-                        listener.onSampleComplete(sample);
+                            listener.onSampleComplete(sample);
+                        }
                         throttledProgressUpdate(false);
                     }
                 } finally {
                     if (gcDetector != null) gcDetector.stop();
+                    if (ring != null) ring.close();
+                    buffers.close();
                 }
             }));
         }
         executor.shutdown();
         try {
             for (Future<?> f : futures) f.get(); // Wait and propagate exceptions
+            for (int i = 0; i < modes.length; i++) {
+                LatencyHistogram opHistogram = new LatencyHistogram();
+                for (LatencyHistogram[] h : histograms) {
+                    opHistogram.add(h[i]);
+                }
+                ops[i].setLatencyHistogram(opHistogram);
+                recorded[i] = opHistogram.getTotalCount();
+            }
         } catch (ExecutionException e) {
             throw new Exception("Threaded IO operation failed", e.getCause());
         } finally {
-            op.endTime = LocalDateTime.now();
-            op.setTotalOps(mode == IOMode.WRITE ? writeUnitsComplete.sum() : readUnitsComplete.sum());
-            if (op.ioMode == IOMode.WRITE) App.wIops = op.iops;
-            else App.rIops = op.iops;
+            if (pinningDetector != null) {
+                pinningDetector.stop();
+                boolean available = pinningDetector.isAvailable();
+                for (BenchmarkOperation op : ops) {
+                    op.pinnedCount = available ? pinningDetector.getPinnedCount() : -1;
+                    op.pinnedMs = available ? pinningDetector.getPinnedMs() : -1;
+                }
+                if (pinningDetector.getPinnedCount() > 0) {
+                    App.msg(label + " virtual threads pinned their carrier "
+                            + pinningDetector.getPinnedCount() + " times ("
+                            + Sample.DF.format(pinningDetector.getPinnedMs()) + " ms)");
+                }
+            }
+            channelCache.close();
+            if (group) {
+                stopGroupLog();
+            }
+            if (isOperationExpired()) {
+                App.msg(label + " stopped at its " + config.maxDurationSec + " s duration cap");
+            }
+            for (int i = 0; i < modes.length; i++) {
+                BenchmarkOperation op = ops[i];
+                op.endTime = LocalDateTime.now();
+                op.setTotalOps(unitsComplete(modes[i]).sum() - unitsBefore[i]);
+                op.bufferedFallbacks = bufferedFallbacks.get() - fallbacksBefore;
+                if (group) {
+                    // latencies are per record, the writer counts the groups
+                    op.setCommits(groupLog.getGroups());
+                    op.recordsPerCommit = groupLog.getGroups() > 0
+                            ? (double) groupLog.getRecords() / groupLog.getGroups() : 0;
+                } else if (log) {
+                    op.setCommits(recorded[i]); // one latency per commit
+                }
+                if (verifier != null && op.ioMode == IOMode.READ) {
+                    op.verifiedBlocks = verifier.getVerifiedBlocks() - verifiedBefore;
+                    op.verifyErrors = verifier.getErrors() - errorsBefore;
+                }
+                if (allocations != null && op.ioMode == IOMode.WRITE) {
+                    op.allocatingWrites = allocations.getAllocatingWrites() - allocatingBefore;
+                    op.overwrites = allocations.getOverwrites() - overwritesBefore;
+                    op.allocatingLatencyMs = meanMs(allocations.getAllocatingNs() - allocatingNsBefore,
+                            op.allocatingWrites);
+                    op.overwriteLatencyMs = meanMs(allocations.getOverwriteNs() - overwriteNsBefore,
+                            op.overwrites);
+                }
+                synchronized (op) {
+                    op.numSamples = op.getSamples().size(); // fewer when a duration or cancel stopped it
+                    for (Sample sample : op.getSamples()) {
+                        op.checksumMs += sample.checksumMs;
+                    }
+                }
+                if (op.ioMode == IOMode.WRITE) App.wIops = op.iops;
+                else App.rIops = op.iops;
+            }
         }
     }
+
+    private static double meanMs(long ns, long count) {
+        return count > 0 ? ns / 1_000_000d / count : 0;
+    }
+
+    private static LatencyHistogram[] newHistograms(int count) {
+        LatencyHistogram[] histograms = new LatencyHistogram[count];
+        for (int i = 0; i < count; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    private LongAdder unitsComplete(IOMode mode) {
+        return mode == IOMode.WRITE ? writeUnitsComplete : readUnitsComplete;
+    }
     
+    /**
+     * @param ioDepth the configured queue depth
+     * @param numBlocks blocks of a sample
+     * @param buffers the buffers of the worker
+     * @return the transfers an io_uring sample keeps in flight
+     */
+    static int ioUringDepth(int ioDepth, int numBlocks, BufferPool buffers) {
+        return Math.max(1, Math.min(Math.min(ioDepth, numBlocks), buffers.size()));
+    }
+
+    /**
+     * Sets up the io_uring of a worker and registers its buffers, the ring
+     * serves every sample of the worker in the operation like its buffer
+     * pool. A failed setup is reported once per operation.
+     *
+     * @param buffers the buffers of the worker
+     * @param numBlocks blocks of a sample
+     * @return the ring, null if the setup failed and the samples run on MODERN
+     */
+    private IoUring newIoUring(BufferPool buffers, int numBlocks) {
+        int depth = ioUringDepth(config.ioDepth, numBlocks, buffers);
+        IoUring ring;
+        try {
+            ring = new IoUring(depth);
+        } catch (IOException | RuntimeException e) {
+            if (ioUringFallbacks.getAndIncrement() == 0) {
+                App.err("io_uring setup failed: " + e.getMessage() + ". Falling back to MODERN engine.");
+            }
+            return null;
+        }
+        MemorySegment[] segments = new MemorySegment[depth];
+        for (int slot = 0; slot < depth; slot++) {
+            segments[slot] = buffers.segment(slot);
+        }
+        ring.registerBuffers(segments, blockSize);
+        return ring;
+    }
+
     private void runReadPreparation(int[][] ranges) throws Exception {
-        ExecutorService executor = Executors.newFixedThreadPool(config.numThreads);
+        ExecutorService executor = newExecutor();
         List<Future<?>> futures = new ArrayList<>();
         for (int[] range : ranges) {
             futures.add(executor.submit(() -> {
-                for (int s = range[0]; s < range[1] && !listener.isCancelled(); s++) {
-                    Sample sample = new Sample(Sample.Type.READ, s);
-                    sample.prepareRead(blockSize, config.numBlocks, this);
+                try (BufferPool buffers = newBufferPool(range[0])) {
+                    for (int s = range[0]; s < range[1] && !listener.isCancelled(); s++) {
+                        Sample sample = new Sample(Sample.Type.READ, s);
+                        sample.prepareRead(blockSize, config.numBlocks, this, buffers);
+                        samplesComplete.increment();
+                    }
                 }
             }));
         }
@@ -275,7 +924,9 @@ public class BenchmarkRunner {
         
         // Aggregate from LongAdders (Thread-safe, no sync needed)
         long totalCompleted = writeUnitsComplete.sum() + readUnitsComplete.sum();
-        float percentComplete = (float)totalCompleted / (float) unitsTotal * 100f;
+        float percentComplete = config.sampleDurationMs > 0
+                ? (float) samplesComplete.sum() / (float) samplesTotal * 100f
+                : (float) totalCompleted / (float) unitsTotal * 100f;
         int newProgress = (int)percentComplete;
         if (elapsedTime >= UPDATE_INTERVAL || forceUpdate) {
             if (lastUpdateMs.compareAndSet(lastTime, currentTime) || forceUpdate) {
@@ -297,6 +948,18 @@ public class BenchmarkRunner {
         readUnitsComplete.increment();
         throttledProgressUpdate(false);
     }
+
+    /** @param sample credited with the unit, called on the worker thread */
+    void updateWriteProgress(Sample sample) {
+        sample.progressUnits++;
+        updateWriteProgress();
+    }
+
+    /** @param sample credited with the unit, called on the worker thread */
+    void updateReadProgress(Sample sample) {
+        sample.progressUnits++;
+        updateReadProgress();
+    }
     
     // Helper methods for mapping metadata omitted for brevity...
     private BenchmarkOperation createOp(Benchmark b, IOMode mode) {
@@ -309,6 +972,8 @@ public class BenchmarkRunner {
         op.blockSize = config.blockSize;
         op.txSize = config.txSize;
         op.numThreads = config.numThreads;
+        op.ioDepth = config.ioDepth;
+        op.vectorBatch = config.vectorBatch;
         if (mode == IOMode.WRITE) {
             op.setWriteSyncEnabled(config.writeSyncEnabled);
         }
@@ -316,6 +981,11 @@ public class BenchmarkRunner {
         return op;
     }
     
+    /** @return {minor, major} page faults of the calling worker or null */
+    private static long[] pageFaults() {
+        return PAGE_FAULTS_SUPPORTED ? UtilOs.getPageFaultsLinux() : null;
+    }
+    
     private void mapEnvironment(Benchmark b, String model, String partId, DiskUsageInfo u) {
         b.username = App.username;
         
@@ -330,5 +1000,11 @@ public class BenchmarkRunner {
         b.driveInfo.percentUsed = u.percentUsed;
         b.driveInfo.usedGb = u.usedGb;
         b.driveInfo.totalGb = u.totalGb;
+        if (geometry != null) {
+            b.driveInfo.logicalBlockSize = geometry.logicalBlockSize;
+            b.driveInfo.physicalBlockSize = geometry.physicalBlockSize;
+            b.driveInfo.optimalIoSize = geometry.optimalIoSize;
+            b.driveInfo.rotational = geometry.rotational;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,304 @@
+package jdiskmark;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import jdiskmark.Benchmark.IOMode;
+
+/**
+ * A series of benchmarks run back to back in one process, so they share the
+ * JVM warm up, the database session and the thermal state of the drive. A
+ * GRID sweep holds one benchmark per cell of the block size x thread count
+ * x queue depth grid, a SATURATION sweep the points of the concurrency
+ * ramp and bisection with the knee found, an SLO sweep the open loop rates
+ * tried with the highest rate meeting the latency SLO.
+ */
+@Entity
+@Table(name="BenchmarkSweep")
+public class BenchmarkSweep implements Serializable {
+
+    public enum SweepType {
+        GRID("Grid"),
+        SATURATION("Saturation"),
+        SLO("Latency SLO");
+
+        private final String display;
+        SweepType(String display) { this.display = display; }
+        @Override
+        public String toString() { return display; }
+    }
+
+    // surrogate key, see Benchmark.id
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @JsonProperty("_id")
+    @JsonSerialize(using = Benchmark.UuidToMongoIdSerializer.class)
+    private UUID id;
+    public UUID getId() { return id; }
+
+    @Column
+    SweepType type = SweepType.GRID;
+    public SweepType getType() { return type; }
+
+    // axes of the grid, comma separated values
+    @Column
+    String blockSizesKb;
+    public String getBlockSizesKb() { return blockSizesKb; }
+    @Column
+    String threadCounts;
+    public String getThreadCounts() { return threadCounts; }
+    @Column
+    String ioDepths;
+    public String getIoDepths() { return ioDepths; }
+
+    // saturation knee, the lowest concurrency with nearly the peak iops
+    @Column
+    int kneeThreads = 0;
+    public int getKneeThreads() { return kneeThreads; }
+    @Column
+    int kneeIoDepth = 0;
+    public int getKneeIoDepth() { return kneeIoDepth; }
+    @Column
+    double kneeIops = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getKneeIops() { return kneeIops; }
+    @Column
+    double kneeLatencyMs = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getKneeLatencyMs() { return kneeLatencyMs; }
+    @Column
+    double kneeP99Ms = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getKneeP99Ms() { return kneeP99Ms; }
+
+    // latency slo, the percentile must stay within the limit
+    @Column
+    double sloPercentile = 0;
+    public double getSloPercentile() { return sloPercentile; }
+    @Column
+    double sloLatencyMs = 0;
+    public double getSloLatencyMs() { return sloLatencyMs; }
+    // highest passing rate, 0 if none passed, and what it delivered
+    @Column
+    long sloTargetIops = 0;
+    public long getSloTargetIops() { return sloTargetIops; }
+    @Column
+    double sloIops = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getSloIops() { return sloIops; }
+    @Column
+    double sloMeasuredMs = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getSloMeasuredMs() { return sloMeasuredMs; }
+    @Column
+    boolean sloMet = false;
+    public boolean getSloMet() { return sloMet; }
+
+    // timestamps
+    @Convert(converter = LocalDateTimeAttributeConverter.class)
+    @Column(columnDefinition = "TIMESTAMP")
+    LocalDateTime startTime;
+    public LocalDateTime getStartTime() { return startTime; }
+    @Convert(converter = LocalDateTimeAttributeConverter.class)
+    @Column
+    LocalDateTime endTime;
+    public LocalDateTime getEndTime() { return endTime; }
+
+    // one benchmark per cell in run order
+    @OneToMany(mappedBy = "sweep", cascade = CascadeType.ALL)
+    @OrderBy("startTime")
+    List<Benchmark> benchmarks = new ArrayList<>();
+    public List<Benchmark> getBenchmarks() { return benchmarks; }
+
+    public BenchmarkSweep() {}
+
+    public BenchmarkSweep(int[] blockSizesKb, int[] threadCounts, int[] ioDepths) {
+        this.blockSizesKb = join(blockSizesKb);
+        this.threadCounts = join(threadCounts);
+        this.ioDepths = join(ioDepths);
+    }
+
+    /** Adds the benchmark of a finished cell. */
+    public void add(Benchmark benchmark) {
+        benchmark.sweep = this;
+        benchmarks.add(benchmark);
+    }
+
+    /**
+     * Parses an axis of the grid, either a comma separated list like
+     * 4,16,64 or a doubling range like 1..32.
+     *
+     * @param axis the values
+     * @return the values in the given order
+     * @throws IllegalArgumentException if a value is not a positive integer
+     */
+    public static int[] parseAxis(String axis) {
+        try {
+            String s = axis.trim();
+            int range = s.indexOf("..");
+            if (range >= 0) {
+                int min = Integer.parseInt(s.substring(0, range).trim());
+                int max = Integer.parseInt(s.substring(range + 2).trim());
+                if (min <= 0 || max < min) throw new NumberFormatException("bad range");
+                List<Integer> values = new ArrayList<>();
+                for (long v = min; v <= max; v *= 2) {
+                    values.add((int) v);
+                }
+                return values.stream().mapToInt(Integer::intValue).toArray();
+            }
+            int[] values = Arrays.stream(s.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+            if (values.length == 0 || Arrays.stream(values).anyMatch(v -> v <= 0)) {
+                throw new NumberFormatException("not positive");
+            }
+            return values;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sweep axis: " + axis
+                    + ", expected e.g. 4,16,64 or 1..32", e);
+        }
+    }
+
+    /** Appends the points of a saturation sweep by concurrency, the knee marked. */
+    private void appendKneeCurve(StringBuilder sb) {
+        sb.append("Knee: ").append(kneeThreads).append(" threads x iodepth ").append(kneeIoDepth)
+                .append(", ").append(Benchmark.DFT.format(kneeIops)).append(" IOPS, ")
+                .append(Benchmark.DF.format(kneeLatencyMs)).append(" ms, p99 ")
+                .append(Benchmark.DF.format(kneeP99Ms)).append(" ms\n");
+        sb.append("-------------------------------------------\n");
+        sb.append(String.format("%8s%8s%12s%10s%10s\n", "Threads", "QD", "IOPS", "Lat(ms)", "p99(ms)"));
+        benchmarks.stream()
+                .sorted(Comparator.comparingInt((Benchmark b) -> b.config.numThreads * b.config.ioDepth))
+                .forEach(b -> {
+                    SaturationSearch.Point p = SaturationSearch.point(0, b);
+                    boolean isKnee = b.config.numThreads == kneeThreads && b.config.ioDepth == kneeIoDepth;
+                    sb.append(String.format("%8d%8d%12s%10s%10s%s\n", b.config.numThreads, b.config.ioDepth,
+                            Benchmark.DFT.format(p.iops()), Benchmark.DF.format(p.latencyMs()),
+                            Benchmark.DF.format(p.p99Ms()), isKnee ? "  <- knee" : ""));
+                });
+    }
+
+    /** Appends the rates of an SLO sweep, the closed loop ceiling last. */
+    private void appendSloCurve(StringBuilder sb) {
+        String pct = "p" + Benchmark.DF.format(sloPercentile);
+        sb.append("SLO: ").append(pct).append(" <= ").append(Benchmark.DF.format(sloLatencyMs)).append(" ms\n");
+        sb.append("Config: ").append(blockSizesKb).append(" KB blocks, ").append(threadCounts)
+                .append(" threads, iodepth ").append(ioDepths).append("\n");
+        if (sloMet) {
+            sb.append("MaxIops at SLO: ").append(Benchmark.DFT.format(sloIops))
+                    .append(sloTargetIops > 0 ? " at rate " + sloTargetIops : " closed loop")
+                    .append(", ").append(pct).append(" ").append(Benchmark.DF.format(sloMeasuredMs)).append(" ms\n");
+        } else {
+            sb.append("MaxIops at SLO: none of the rates tried met the SLO\n");
+        }
+        sb.append("-------------------------------------------\n");
+        sb.append(String.format("%12s%12s%10s\n", "Rate", "IOPS", pct + "(ms)"));
+        benchmarks.stream()
+                .sorted(Comparator.comparingLong((Benchmark b) -> b.config.targetIops == 0
+                        ? Long.MAX_VALUE : b.config.targetIops))
+                .forEach(b -> {
+                    SloSearch.Point p = SloSearch.point(b.config.targetIops, sloPercentile, b);
+                    boolean isBest = sloMet && b.config.targetIops == sloTargetIops;
+                    sb.append(String.format("%12s%12s%10s%s\n",
+                            b.config.targetIops == 0 ? "closed" : String.valueOf(b.config.targetIops),
+                            Benchmark.DFT.format(p.iops()), Benchmark.DF.format(p.latencyMs()),
+                            isBest ? "  <- max at SLO" : p.latencyMs() > sloLatencyMs ? "  misses" : ""));
+                });
+    }
+
+    static int[] values(String axis) {
+        return Arrays.stream(axis.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static String join(int[] values) {
+        return Arrays.stream(values).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * @return the operation of the cell, null if the cell did not run that
+     * mode. A single block size matches any io size, e.g. the record size
+     * of a log commit benchmark.
+     */
+    BenchmarkOperation cell(IOMode mode, int blockSizeKb, int threads, int ioDepth) {
+        boolean anySize = values(blockSizesKb).length == 1;
+        for (Benchmark b : benchmarks) {
+            BenchmarkConfig c = b.config;
+            if ((anySize || c.blockSize == (long) blockSizeKb * App.KILOBYTE) && c.numThreads == threads
+                    && c.ioDepth == ioDepth) {
+                return b.getOperation(mode);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Text matrix of the IOPS of every cell, one table per direction and
+     * block size with thread counts down and queue depths across, or the
+     * curve of a saturation or SLO sweep.
+     *
+     * @return the result string for command line output
+     */
+    public String toResultString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n-------------------------------------------\n");
+        sb.append("JDiskMark Sweep Results (v").append(App.VERSION).append(")\n");
+        sb.append("-------------------------------------------\n");
+        sb.append("Type: ").append(type).append("\n");
+        if (type != SweepType.GRID) {
+            if (type == SweepType.SATURATION) {
+                appendKneeCurve(sb);
+            } else {
+                appendSloCurve(sb);
+            }
+            sb.append("-------------------------------------------\n");
+            return sb.toString();
+        }
+        sb.append("BlockSizes(KB): ").append(blockSizesKb).append("\n");
+        sb.append("Threads: ").append(threadCounts).append("\n");
+        sb.append("IODepths: ").append(ioDepths).append("\n");
+        sb.append("Cells: ").append(benchmarks.size()).append("\n");
+        for (IOMode mode : IOMode.values()) {
+            for (int kb : values(blockSizesKb)) {
+                BenchmarkOperation first = cell(mode, kb, values(threadCounts)[0], values(ioDepths)[0]);
+                if (first == null) continue;
+                sb.append("-------------------------------------------\n");
+                sb.append(mode).append(" IOPS, ").append(first.blockSize / App.KILOBYTE > 0
+                        ? (first.blockSize / App.KILOBYTE) + " KB blocks\n"
+                        : first.blockSize + " byte blocks\n");
+                sb.append(String.format("%8s", "T \\ QD"));
+                for (int qd : values(ioDepths)) {
+                    sb.append(String.format("%10d", qd));
+                }
+                sb.append("\n");
+                for (int t : values(threadCounts)) {
+                    sb.append(String.format("%8d", t));
+                    for (int qd : values(ioDepths)) {
+                        BenchmarkOperation op = cell(mode, kb, t, qd);
+                        sb.append(String.format("%10s", op == null ? "-" : String.valueOf(op.iops)));
+                    }
+                    sb.append("\n");
+                }
+            }
+        }
+        sb.append("-------------------------------------------\n");
+        return sb.toString();
+    }
+}
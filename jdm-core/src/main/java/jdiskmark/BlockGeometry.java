@@ -0,0 +1,117 @@
+package jdiskmark;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import jdiskmark.App.SectorAlignment;
+
+/**
+ * The block sizes of the device holding the data directory as reported by
+ * the Linux block layer in /sys/block/&lt;dev&gt;/queue. Direct I/O needs
+ * buffers, offsets and sizes aligned to the logical block size, the
+ * physical block size is the unit the device writes without a read modify
+ * write. An LVM or RAID volume over several devices takes the largest
+ * sizes of its members.
+ */
+public class BlockGeometry {
+
+    final String devices;
+    final int logicalBlockSize;
+    final int physicalBlockSize;
+    final long optimalIoSize; // 0 if the device reports none
+    final boolean rotational;
+
+    BlockGeometry(String devices, int logicalBlockSize, int physicalBlockSize,
+            long optimalIoSize, boolean rotational) {
+        this.devices = devices;
+        this.logicalBlockSize = logicalBlockSize;
+        this.physicalBlockSize = Math.max(logicalBlockSize, physicalBlockSize);
+        this.optimalIoSize = optimalIoSize;
+        this.rotational = rotational;
+    }
+
+    /**
+     * Parses the contents of the queue attribute files of one device.
+     *
+     * @return the geometry, null if the logical block size is missing
+     */
+    static BlockGeometry parse(String device, String logical, String physical,
+            String optimal, String rotational) {
+        long l = parseSize(logical);
+        if (l <= 0) return null;
+        return new BlockGeometry(device, (int) l, (int) Math.max(0, parseSize(physical)),
+                Math.max(0, parseSize(optimal)), "1".equals(rotational == null ? null : rotational.trim()));
+    }
+
+    private static long parseSize(String value) {
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** @return the geometry of a volume over this device and another */
+    BlockGeometry merge(BlockGeometry other) {
+        if (other == null) return this;
+        return new BlockGeometry(devices + ":" + other.devices,
+                Math.max(logicalBlockSize, other.logicalBlockSize),
+                Math.max(physicalBlockSize, other.physicalBlockSize),
+                Math.max(optimalIoSize, other.optimalIoSize),
+                rotational || other.rotational);
+    }
+
+    /**
+     * Detects the geometry of the device of a directory, Linux only.
+     *
+     * @param dir the data directory
+     * @return the geometry, null if it could not be read
+     */
+    public static BlockGeometry detect(File dir) {
+        if (!System.getProperty("os.name").contains("Linux")) return null;
+        String partition = UtilOs.getPartitionFromFilePathLinux(Path.of(dir.getAbsolutePath()));
+        if (partition == null || !partition.startsWith("/dev/")) return null;
+        List<String> names = UtilOs.getDeviceNamesFromPartitionLinux(partition).stream()
+                .map(String::trim).filter(n -> !n.isEmpty()).toList();
+        if (names.isEmpty()) {
+            // a file system on the whole device has no parent device
+            names = List.of(partition.substring("/dev/".length()));
+        }
+        BlockGeometry geometry = null;
+        for (String name : names) {
+            BlockGeometry g = UtilOs.getBlockGeometryLinux(name);
+            if (g == null) continue;
+            geometry = geometry == null ? g : geometry.merge(g);
+        }
+        return geometry;
+    }
+
+    /**
+     * @param configured the configured buffer alignment
+     * @param bytes the alignment needed, e.g. the physical block size
+     * @return the configured alignment if it covers the bytes, otherwise
+     * the smallest alignment that does
+     */
+    public static SectorAlignment alignmentFor(SectorAlignment configured, long bytes) {
+        if (configured.bytes >= bytes) return configured;
+        SectorAlignment best = configured;
+        for (SectorAlignment a : SectorAlignment.values()) {
+            if (a.bytes > best.bytes) best = a;
+            if (a.bytes >= bytes) return a;
+        }
+        return best; // larger than any alignment, use the largest
+    }
+
+    public int getLogicalBlockSize() { return logicalBlockSize; }
+    public int getPhysicalBlockSize() { return physicalBlockSize; }
+    public long getOptimalIoSize() { return optimalIoSize; }
+    public boolean isRotational() { return rotational; }
+
+    @Override
+    public String toString() {
+        return devices + " logical/physical " + logicalBlockSize + "/" + physicalBlockSize + " B"
+                + (optimalIoSize > 0 ? ", optimal io " + optimalIoSize + " B" : "")
+                + (rotational ? ", rotational" : ", non-rotational");
+    }
+}
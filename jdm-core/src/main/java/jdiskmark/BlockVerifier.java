@@ -0,0 +1,181 @@
+package jdiskmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * End to end check of the data read back. Every written block starts with
+ * a header naming the run, the sample and the block and a CRC32C over the
+ * rest of the block. Reads of blocks written in this run must return that
+ * header and checksum, so torn, misdirected, corrupted or stale blocks
+ * (left by an earlier run or never persisted) are counted as errors.
+ * Blocks the run has not written are skipped. CRC32C is computed by the
+ * JDK intrinsic, the time spent is tracked so it can be kept out of the
+ * bandwidth.
+ */
+public class BlockVerifier {
+
+    public static final int HEADER_BYTES = 32;
+    // header layout, the checksum covers everything after its own field
+    private static final int CRC = 0;
+    private static final int SAMPLE = 4;
+    private static final int RUN = 8;
+    private static final int BLOCK = 16;
+    private static final int SEQUENCE = 24;
+    // errors reported individually before only counting
+    private static final int MAX_REPORTED = 10;
+    private static final ThreadLocal<CRC32C> CHECKSUM = ThreadLocal.withInitial(CRC32C::new);
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+    // cleared once CRC32C rejects a view of a shared arena, direct blocks are copied from then on
+    private static volatile boolean inPlace = true;
+
+    private final long runId;
+    private final long workingSetBlocks;
+    private final int firstSample;
+    private final boolean multiFile;
+    private final AtomicLongArray written; // one bit per block of the run
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder unwritten = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder checksumNs = new LongAdder();
+
+    /**
+     * @param runId identifies the blocks of this run, e.g. the run seed
+     * @param workingSetBlocks blocks addressed in each test file
+     * @param firstSample first sample number of the run
+     * @param files number of test files, the samples in multi file mode
+     */
+    public BlockVerifier(long runId, long workingSetBlocks, int firstSample, int files) {
+        this.runId = runId;
+        this.workingSetBlocks = workingSetBlocks;
+        this.firstSample = firstSample;
+        this.multiFile = files > 1;
+        long bits = workingSetBlocks * Math.max(1, files);
+        if (bits / Long.SIZE >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many blocks to verify: " + bits);
+        }
+        written = new AtomicLongArray((int) ((bits + Long.SIZE - 1) / Long.SIZE));
+    }
+
+    private long bit(int sampleNum, long blockIndex) {
+        return multiFile ? (long) (sampleNum - firstSample) * workingSetBlocks + blockIndex : blockIndex;
+    }
+
+    /**
+     * Checksum of the block after the checksum field, with the CRC32C of
+     * the calling worker. Direct buffers are checksummed in place unless
+     * the JDK rejects views of the closeable shared arenas the buffer pools
+     * use, as JDK 21 does, then they are copied through a heap chunk.
+     */
+    static int crc(ByteBuffer block) {
+        CRC32C crc = CHECKSUM.get();
+        crc.reset();
+        if (block.hasArray()) {
+            crc.update(block.array(), block.arrayOffset() + SAMPLE, block.limit() - SAMPLE);
+        } else if (!inPlace || !updateInPlace(crc, block)) {
+            byte[] scratch = SCRATCH.get();
+            for (int off = SAMPLE; off < block.limit(); off += scratch.length) {
+                int n = Math.min(scratch.length, block.limit() - off);
+                block.get(off, scratch, 0, n);
+                crc.update(scratch, 0, n);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    /** @return false if the JDK rejected the buffer, the checksum is reset */
+    private static boolean updateInPlace(CRC32C crc, ByteBuffer block) {
+        try {
+            crc.update(block.slice(SAMPLE, block.limit() - SAMPLE));
+            return true;
+        } catch (UnsupportedOperationException e) {
+            inPlace = false;
+            crc.reset();
+            return false;
+        }
+    }
+
+    /** @return true while direct blocks are checksummed without a copy */
+    static boolean checksumsInPlace() {
+        return inPlace;
+    }
+
+    /**
+     * Writes the header and checksum into a buffer about to be written.
+     *
+     * @param block the buffer, position 0 and limit at the block size
+     * @param sampleNum the sample writing the block
+     * @param blockIndex the block index within the file
+     * @param sequence distinguishes writes of the same block
+     * @return nanoseconds spent
+     */
+    public long stamp(ByteBuffer block, int sampleNum, long blockIndex, long sequence) {
+        long start = System.nanoTime();
+        block.putInt(SAMPLE, sampleNum)
+                .putLong(RUN, runId)
+                .putLong(BLOCK, blockIndex)
+                .putLong(SEQUENCE, sequence);
+        block.putInt(CRC, crc(block));
+        long bit = bit(sampleNum, blockIndex);
+        long mask = 1L << bit;
+        int word = (int) (bit >>> 6);
+        if ((written.get(word) & mask) == 0) {
+            written.getAndUpdate(word, w -> w | mask);
+        }
+        long ns = System.nanoTime() - start;
+        checksumNs.add(ns);
+        return ns;
+    }
+
+    /**
+     * Checks a block read back, blocks not written in this run are skipped.
+     *
+     * @param block the buffer holding the block, position 0
+     * @param sampleNum the sample reading the block
+     * @param blockIndex the block index within the file
+     * @return nanoseconds spent
+     */
+    public long verify(ByteBuffer block, int sampleNum, long blockIndex) {
+        long start = System.nanoTime();
+        long bit = bit(sampleNum, blockIndex);
+        if ((written.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+            unwritten.increment();
+        } else {
+            String problem = null;
+            if (block.getLong(RUN) != runId) {
+                problem = "stale or unwritten data, run " + Long.toHexString(block.getLong(RUN));
+            } else if (block.getLong(BLOCK) != blockIndex) {
+                problem = "misdirected, header names block " + block.getLong(BLOCK);
+            } else if (multiFile && block.getInt(SAMPLE) != sampleNum) {
+                problem = "misdirected, header names sample " + block.getInt(SAMPLE);
+            } else if (block.getInt(CRC) != crc(block)) {
+                problem = "checksum mismatch";
+            }
+            if (problem == null) {
+                verified.increment();
+            } else {
+                errors.increment();
+                if (errors.sum() <= MAX_REPORTED) {
+                    App.err("verify failed for sample " + sampleNum + " block " + blockIndex + ": " + problem);
+                }
+            }
+        }
+        long ns = System.nanoTime() - start;
+        checksumNs.add(ns);
+        return ns;
+    }
+
+    /** Drops the record of written blocks, e.g. after other data overwrote them. */
+    public void forget() {
+        for (int i = 0; i < written.length(); i++) {
+            written.set(i, 0);
+        }
+    }
+
+    public long getVerifiedBlocks() { return verified.sum(); }
+    public long getUnwrittenBlocks() { return unwritten.sum(); }
+    public long getErrors() { return errors.sum(); }
+    public long getChecksumNs() { return checksumNs.sum(); }
+}
@@ -0,0 +1,151 @@
+package jdiskmark;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import jdiskmark.App.SectorAlignment;
+
+/**
+ * Aligned I/O buffers owned by one benchmark worker for the length of an
+ * operation. The segments and their ByteBuffer views are created once, so
+ * the measured loops neither allocate nor call into the native allocator.
+ * Writes copy their content out of a shared region into the worker's own
+ * buffers, which keeps alignment, registered buffers and stamps private to
+ * the worker.
+ */
+public class BufferPool implements AutoCloseable {
+
+    // shared so asynchronous channel threads may fill the buffers
+    private final Arena arena = Arena.ofShared();
+    private final long blockSize;
+    private final MemorySegment[] segments;
+    private final ByteBuffer[] views;
+    private DataGenerator content; // stamps written buffers, see fill
+    private MemorySegment region; // content writes rotate through, null to keep the fill
+    private long[] nextBlock; // region block each buffer copies before its next write
+
+    /**
+     * @param blockSize size of each buffer in bytes
+     * @param byteAlignment alignment of each buffer
+     * @param count number of buffers, e.g. the queue depth
+     */
+    public BufferPool(long blockSize, long byteAlignment, int count) {
+        this(blockSize, byteAlignment, count, false);
+    }
+
+    /**
+     * @param blockSize size of each buffer in bytes
+     * @param byteAlignment alignment of each buffer, ignored for heap buffers
+     * @param count number of buffers, e.g. the queue depth
+     * @param heap back the buffers with byte arrays for the legacy engine
+     */
+    public BufferPool(long blockSize, long byteAlignment, int count, boolean heap) {
+        this.blockSize = blockSize;
+        segments = new MemorySegment[count];
+        views = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = heap ? MemorySegment.ofArray(new byte[(int) blockSize])
+                    : arena.allocate(blockSize, byteAlignment);
+            views[i] = segments[i].asByteBuffer();
+        }
+    }
+
+    /**
+     * @param blockSize the block size in bytes
+     * @param alignment the configured sector alignment
+     * @return the byte alignment for io buffers, the default layout
+     * alignment if no sector alignment is selected
+     */
+    public static long alignmentFor(long blockSize, SectorAlignment alignment) {
+        long byteAlignment = alignment.bytes;
+        if (byteAlignment <= 0) {
+            MemoryLayout layout = MemoryLayout.sequenceLayout(blockSize, ValueLayout.JAVA_BYTE);
+            byteAlignment = layout.byteAlignment();
+        }
+        return byteAlignment;
+    }
+
+    public int size() { return segments.length; }
+    public long getBlockSize() { return blockSize; }
+
+    public MemorySegment segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * @param index the buffer index of a heap pool
+     * @return the array backing the buffer
+     */
+    public byte[] array(int index) {
+        return (byte[]) segments[index].heapBase().orElseThrow(
+                () -> new IllegalStateException("buffer pool is not heap backed"));
+    }
+
+    /**
+     * Fills every buffer with the generator's pattern, called before the
+     * measured loops.
+     *
+     * @param content the generator, kept to stamp buffers before writes
+     * @return this pool
+     */
+    public BufferPool fill(DataGenerator content) {
+        this.content = content;
+        for (MemorySegment segment : segments) {
+            content.fill(segment);
+        }
+        return this;
+    }
+
+    /**
+     * Fills every buffer and rotates the content of successive writes
+     * through the region, each buffer starting at its own block.
+     *
+     * @param content the generator, kept to stamp buffers before writes
+     * @param region from {@link DataGenerator#newRegion}, null to keep the fill
+     * @return this pool
+     */
+    public BufferPool fill(DataGenerator content, MemorySegment region) {
+        fill(content);
+        if (region != null && region.byteSize() >= blockSize) {
+            this.region = region;
+            long blocks = region.byteSize() / blockSize;
+            long start = Math.floorMod(content.getSeed(), blocks);
+            nextBlock = new long[segments.length];
+            for (int i = 0; i < segments.length; i++) {
+                nextBlock[i] = (start + i) % blocks;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Prepares a buffer for the next write, copying the next block of the
+     * region, see {@link #fill(DataGenerator, MemorySegment)}, then applying
+     * {@link DataGenerator#stamp}.
+     *
+     * @param index the buffer index
+     */
+    public void stamp(int index) {
+        if (region != null) {
+            long block = nextBlock[index];
+            MemorySegment.copy(region, block * blockSize, segments[index], 0, blockSize);
+            nextBlock[index] = (block + segments.length) % (region.byteSize() / blockSize);
+        }
+        if (content != null) content.stamp(segments[index]);
+    }
+
+    /**
+     * @param index the buffer index
+     * @return the cached view of the buffer, cleared for the next transfer
+     */
+    public ByteBuffer buffer(int index) {
+        return views[index].clear();
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,54 @@
+package jdiskmark;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps FileChannels open for the length of an operation so single file
+ * samples do not pay the open/close cost. Channels are keyed by path, open
+ * options and worker thread, one channel per worker keeps the channel
+ * position used by vectored transfers private to that worker.
+ */
+public class ChannelCache implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(ChannelCache.class.getName());
+
+    private record Key(Path path, Set<OpenOption> options, long threadId) {}
+
+    private final ConcurrentHashMap<Key, FileChannel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * @param path the file to open
+     * @param options the open options
+     * @return the cached channel for the calling worker, opened on first use
+     * @throws IOException if the channel cannot be opened
+     */
+    public FileChannel open(Path path, Set<OpenOption> options) throws IOException {
+        Key key = new Key(path, Set.copyOf(options), Thread.currentThread().threadId());
+        FileChannel fc = channels.get(key);
+        if (fc == null || !fc.isOpen()) {
+            // only the owning worker uses this key so no other thread races the put
+            fc = FileChannel.open(path, options);
+            channels.put(key, fc);
+        }
+        return fc;
+    }
+
+    @Override
+    public void close() {
+        for (FileChannel fc : channels.values()) {
+            try {
+                fc.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close cached channel", e);
+            }
+        }
+        channels.clear();
+    }
+}
@@ -0,0 +1,113 @@
+package jdiskmark;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.SplittableRandom;
+import jdiskmark.Benchmark.DataPattern;
+
+/**
+ * Generates the content of write buffers. A region of several MiB is filled
+ * once per operation and writes rotate through it, so generation stays out
+ * of the measured loops and a compression record spanning many blocks holds
+ * distinct content. The UNIQUE pattern also stamps a fresh id into every
+ * 4 KiB of each written block so no two written blocks deduplicate.
+ */
+public class DataGenerator {
+
+    // compressible content alternates random and zero runs within each chunk
+    static final int COMPRESS_CHUNK = 512;
+    // granularity of the unique stamp, the smallest common dedupe record
+    static final int UNIQUE_STRIDE = 4096;
+    // content writes rotate through, at least the largest ZFS record
+    static final long REGION_BYTES = 16L << 20;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+
+    private final DataPattern pattern;
+    private final double compressionRatio;
+    private final long seed;
+    // successive fills differ so the slots of a pool hold distinct blocks
+    private final SplittableRandom random;
+    private long stamps;
+
+    /**
+     * @param pattern the buffer content
+     * @param compressionRatio target ratio of the COMPRESSIBLE pattern, at least 1
+     * @param seed seed of the random content, distinct per worker
+     */
+    public DataGenerator(DataPattern pattern, double compressionRatio, long seed) {
+        if (pattern == DataPattern.COMPRESSIBLE && !(compressionRatio >= 1)) {
+            throw new IllegalArgumentException("compression ratio must be at least 1: " + compressionRatio);
+        }
+        this.pattern = pattern;
+        this.compressionRatio = compressionRatio;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+    }
+
+    public DataPattern getPattern() {
+        return pattern;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /** @param block the buffer to fill with the pattern */
+    public void fill(MemorySegment block) {
+        switch (pattern) {
+            case ZERO -> block.fill((byte) 0);
+            case RANDOM, UNIQUE -> fillRandom(block, 0, block.byteSize());
+            case COMPRESSIBLE -> {
+                long randomBytes = Math.round(COMPRESS_CHUNK / compressionRatio);
+                for (long off = 0; off < block.byteSize(); off += COMPRESS_CHUNK) {
+                    long len = Math.min(COMPRESS_CHUNK, block.byteSize() - off);
+                    long r = Math.min(randomBytes, len);
+                    fillRandom(block, off, r);
+                    block.asSlice(off + r, len - r).fill((byte) 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the region the write buffers of a pool rotate through, see
+     * {@link BufferPool#fill(DataGenerator, MemorySegment)}.
+     *
+     * @param arena owns the region
+     * @param blockSize the largest buffer copied out of the region
+     * @return the filled region, null for ZERO which has nothing to rotate
+     */
+    public MemorySegment newRegion(Arena arena, long blockSize) {
+        if (pattern == DataPattern.ZERO) return null;
+        MemorySegment region = arena.allocate(Math.max(REGION_BYTES, 2 * blockSize), UNIQUE_STRIDE);
+        fill(region);
+        return region;
+    }
+
+    private void fillRandom(MemorySegment block, long off, long len) {
+        long end = off + len;
+        long i = off;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            block.set(LONG, i, random.nextLong());
+        }
+        for (; i < end; i++) {
+            block.set(ValueLayout.JAVA_BYTE, i, (byte) random.nextInt());
+        }
+    }
+
+    /**
+     * Makes the block differ from every block written before it by this
+     * generator, a no-op unless the pattern is UNIQUE.
+     *
+     * @param block a buffer about to be written
+     */
+    public void stamp(MemorySegment block) {
+        if (pattern != DataPattern.UNIQUE) return;
+        long id = OffsetGenerator.mix64(seed + ++stamps);
+        for (long off = 0; off + Long.BYTES <= block.byteSize(); off += UNIQUE_STRIDE) {
+            block.set(LONG, off, id + off);
+        }
+    }
+}
@@ -12,7 +12,9 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Locale;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -123,6 +125,8 @@ public class Exporter {
                 .addColumn("lt")      // Latency Trend
                 .addColumn("mn")      // Bandwidth Min
                 .addColumn("mx")      // Bandwidth Max
+                .addColumn("minflt")  // Minor Page Faults
+                .addColumn("majflt")  // Major Page Faults
                 .build().withHeader();
 
         // 3. Write metadata header followed by the CSV data
@@ -132,18 +136,94 @@ public class Exporter {
             writer.write("# ---------------------------\n");
             writer.write("# Date: " + benchmark.getStartTimeString() + "\n");
             writer.write("# Model: " + benchmark.driveInfo.driveModel + "\n");
+            if (benchmark.driveInfo.logicalBlockSize != null) {
+                writer.write("# BlockSize(logical/physical): " + benchmark.driveInfo.logicalBlockSize + "/"
+                        + benchmark.driveInfo.physicalBlockSize + "\n");
+                writer.write("# OptimalIoSize: " + benchmark.driveInfo.optimalIoSize + "\n");
+                writer.write("# Rotational: " + benchmark.driveInfo.rotational + "\n");
+            }
             writer.write("# Profile: " + benchmark.config.profile + "\n");
             writer.write("# Type: " + benchmark.config.benchmarkType + "\n");
+            if (benchmark.config.benchmarkType == Benchmark.BenchmarkType.MIXED) {
+                writer.write("# ReadPct: " + benchmark.config.readPct + "\n");
+            }
+            if (benchmark.config.benchmarkType == Benchmark.BenchmarkType.LOG_COMMIT) {
+                writer.write("# CommitSync: " + benchmark.config.commitSync.name() + "\n");
+                writer.write("# CommitEvery: " + benchmark.config.commitEvery + "\n");
+            }
+            if (benchmark.config.benchmarkType == Benchmark.BenchmarkType.GROUP_COMMIT) {
+                writer.write("# CommitSync: " + benchmark.config.commitSync.name() + "\n");
+                writer.write("# GroupMaxBatch: " + benchmark.config.groupMaxBatch + "\n");
+                writer.write("# GroupMaxWaitUs: " + benchmark.config.groupMaxWaitUs + "\n");
+            }
             writer.write("# Threads: " + benchmark.config.numThreads + "\n");
+            writer.write("# VirtualThreads: " + benchmark.config.virtualThreads + "\n");
+            writer.write("# Verify: " + benchmark.config.verifyEnabled + "\n");
+            writer.write("# IODepth: " + benchmark.config.ioDepth + "\n");
+            writer.write("# VectorBatch: " + benchmark.config.vectorBatch + "\n");
+            writer.write("# TimeOpenClose: " + benchmark.config.timeOpenClose + "\n");
             writer.write("# Order: " + benchmark.config.blockOrder + "\n");
+            writer.write("# Seed: " + benchmark.config.randomSeed + "\n");
+            switch (benchmark.config.blockOrder) {
+                case ZIPFIAN -> writer.write("# ZipfTheta: " + benchmark.config.zipfTheta + "\n");
+                case HOTSPOT -> writer.write("# Hotspot: " + benchmark.config.hotspotIoPct + "% io to "
+                        + benchmark.config.hotspotDataPct + "% blocks\n");
+                default -> { }
+            }
+            writer.write("# DataPattern: " + benchmark.config.dataPattern + "\n");
+            if (benchmark.config.dataPattern == Benchmark.DataPattern.COMPRESSIBLE) {
+                writer.write("# CompressionRatio: " + benchmark.config.compressionRatio + "\n");
+            }
             writer.write("# Blocks: " + benchmark.config.numBlocks + "\n");
+            writer.write("# WorkingSet: " + benchmark.config.workingSetSize + "\n");
             writer.write("# BlockSize: " + benchmark.config.blockSize + "\n");
             writer.write("# Samples: " + benchmark.config.numSamples + "\n");
+            writer.write("# SampleDurationMs: " + benchmark.config.sampleDurationMs + "\n");
+            writer.write("# MaxDurationSec: " + benchmark.config.maxDurationSec + "\n");
+            writer.write("# TargetIops: " + benchmark.config.targetIops + "\n");
+            writer.write("# TargetMbSec: " + benchmark.config.targetMbSec + "\n");
+            writer.write("# Preallocate: " + benchmark.config.preallocateEnabled + "\n");
+            writer.write("# PreconditionPasses: " + benchmark.config.preconditionPasses + "\n");
+            writer.write("# SteadyState: " + benchmark.getSteadyState().name() + " rounds "
+                    + benchmark.getSteadyStateRounds() + " iops "
+                    + Math.round(benchmark.getSteadyStateIops()) + "\n");
             
             // Operation Results Summary
+            for (var m : benchmark.getMetadataOperations()) {
+                writer.write(String.format("# %s Result: %.2f ops/s, errors %d, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms\n",
+                        m.getPhase(), m.getOpsPerSec(), m.getErrors(), m.getLatencyP50(), m.getLatencyP99(),
+                        m.getLatencyP999(), m.getLatencyMax()));
+            }
             for (var op : benchmark.getOperations()) {
                 writer.write(String.format("# %s Result: bw %.2f MB/s, lat %.2f ms, iops %s\n", 
                         op.getIoMode(), op.getBandwidth(), op.getLatency(), op.getIops()));
+                writer.write(String.format("# %s Latency: p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms\n",
+                        op.getIoMode(), op.getLatencyP50(), op.getLatencyP99(),
+                        op.getLatencyP999(), op.getLatencyMax()));
+                if (benchmark.config.benchmarkType == Benchmark.BenchmarkType.LOG_COMMIT) {
+                    writer.write(String.format("# %s Commits: %d, %.2f commits/s\n",
+                            op.getIoMode(), op.getCommits(), op.getCommitsPerSec()));
+                } else if (benchmark.config.benchmarkType == Benchmark.BenchmarkType.GROUP_COMMIT) {
+                    writer.write(String.format("# %s Commits: %d, %.2f commits/s, %.2f records/commit\n",
+                            op.getIoMode(), op.getCommits(), op.getCommitsPerSec(), op.getRecordsPerCommit()));
+                } else if (op.getIoMode() == Benchmark.IOMode.WRITE
+                        && op.getAllocatingWrites() + op.getOverwrites() > 0) {
+                    writer.write(String.format("# %s Allocation: allocating %d (%.3f ms), overwrites %d (%.3f ms)\n",
+                            op.getIoMode(), op.getAllocatingWrites(), op.getAllocatingLatencyMs(),
+                            op.getOverwrites(), op.getOverwriteLatencyMs()));
+                }
+                if (op.getNumSamples() < benchmark.config.numSamples) {
+                    writer.write(String.format("# %s Samples: %d of %d\n",
+                            op.getIoMode(), op.getNumSamples(), benchmark.config.numSamples));
+                }
+                if (op.getBufferedFallbacks() > 0) {
+                    writer.write(String.format("# %s BufferedFallbacks: %d\n",
+                            op.getIoMode(), op.getBufferedFallbacks()));
+                }
+                if (benchmark.config.verifyEnabled) {
+                    writer.write(String.format("# %s Verify: ok %d, errors %d, checksum %.2f ms\n",
+                            op.getIoMode(), op.getVerifiedBlocks(), op.getVerifyErrors(), op.getChecksumMs()));
+                }
             }
             writer.write("# ---------------------------\n\n");
             
@@ -152,6 +232,130 @@ public class Exporter {
         }
     }
     
+    /**
+     * Serializes a sweep with the benchmarks of its cells to a JSON file.
+     * @param sweep The sweep to serialize.
+     * @param filePath The path to the output JSON file.
+     * @throws IOException If an error occurs during file writing.
+     */
+    public static void writeSweepToJson(BenchmarkSweep sweep, String filePath) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        mapper.writeValue(new File(filePath), sweep);
+        App.msg("Successfully exported: " + filePath);
+    }
+    
+    /**
+     * @param exportPath the path of the JSON export
+     * @param suffix names the table
+     * @return the path of the table next to it, e.g. run-matrix.csv for run.json
+     */
+    public static String sweepCsvPath(String exportPath, String suffix) {
+        int dot = exportPath.lastIndexOf('.');
+        int sep = exportPath.lastIndexOf(File.separatorChar);
+        String base = dot > sep ? exportPath.substring(0, dot) : exportPath;
+        return base + "-" + suffix + ".csv";
+    }
+    
+    /**
+     * Writes the throughput / latency curve of a saturation or SLO sweep as
+     * CSV, one row per benchmark with the knee or the max rate at SLO flagged.
+     * @param sweep The sweep to export.
+     * @param filePath The path to the output CSV file.
+     * @throws IOException If an error occurs during file writing.
+     */
+    public static void writeSweepCurve(BenchmarkSweep sweep, String filePath) throws IOException {
+        try (java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.FileWriter(filePath, StandardCharsets.UTF_8))) {
+            writer.write("# JDiskMark " + App.VERSION + " " + sweep.getType() + " Curve\n");
+            writer.write("# BlockSizeKb: " + sweep.getBlockSizesKb() + "\n");
+            if (sweep.getType() == BenchmarkSweep.SweepType.SLO) {
+                writeSloCurve(sweep, writer);
+                return;
+            }
+            writer.write("threads,ioDepth,iops,latencyMs,p99Ms,knee\n");
+            var benchmarks = sweep.getBenchmarks().stream()
+                    .sorted(Comparator.comparingInt(
+                            (Benchmark b) -> b.getConfig().getNumThreads() * b.getConfig().getIoDepth()))
+                    .toList();
+            for (Benchmark b : benchmarks) {
+                SaturationSearch.Point p = SaturationSearch.point(0, b);
+                int threads = b.getConfig().getNumThreads();
+                int ioDepth = b.getConfig().getIoDepth();
+                boolean knee = threads == sweep.getKneeThreads() && ioDepth == sweep.getKneeIoDepth();
+                writer.write(String.format(Locale.ROOT, "%d,%d,%.0f,%.3f,%.3f,%b\n",
+                        threads, ioDepth, p.iops(), p.latencyMs(), p.p99Ms(), knee));
+            }
+        }
+        App.msg("Successfully exported: " + filePath);
+    }
+    
+    /**
+     * Writes the sweep as heatmap ready CSV. Every row holds one metric of one
+     * direction, block size and thread count, the columns are the queue
+     * depths, so each block of rows is a threads x iodepth matrix.
+     * @param sweep The sweep to export.
+     * @param filePath The path to the output CSV file.
+     * @throws IOException If an error occurs during file writing.
+     */
+    public static void writeSweepMatrix(BenchmarkSweep sweep, String filePath) throws IOException {
+        int[] blockSizes = BenchmarkSweep.values(sweep.getBlockSizesKb());
+        int[] threads = BenchmarkSweep.values(sweep.getThreadCounts());
+        int[] ioDepths = BenchmarkSweep.values(sweep.getIoDepths());
+        try (java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.FileWriter(filePath, StandardCharsets.UTF_8))) {
+            writer.write("# JDiskMark " + App.VERSION + " Sweep Matrix\n");
+            writer.write("# BlockSizesKb: " + sweep.getBlockSizesKb() + "\n");
+            writer.write("# Threads: " + sweep.getThreadCounts() + "\n");
+            writer.write("# IODepths: " + sweep.getIoDepths() + "\n");
+            writer.write("ioMode,metric,blockSizeKb,threads");
+            for (int qd : ioDepths) {
+                writer.write(",qd" + qd);
+            }
+            writer.write("\n");
+            for (Benchmark.IOMode mode : Benchmark.IOMode.values()) {
+                for (String metric : new String[] {"iops", "bwMbSec", "p99Ms"}) {
+                    for (int kb : blockSizes) {
+                        for (int t : threads) {
+                            StringBuilder row = new StringBuilder();
+                            boolean any = false;
+                            for (int qd : ioDepths) {
+                                BenchmarkOperation op = sweep.cell(mode, kb, t, qd);
+                                row.append(',');
+                                if (op == null) continue;
+                                any = true;
+                                row.append(switch (metric) {
+                                    case "iops" -> String.valueOf(op.getIops());
+                                    case "bwMbSec" -> String.format(Locale.ROOT, "%.2f", op.getBandwidth());
+                                    default -> String.format(Locale.ROOT, "%.3f", op.getLatencyP99());
+                                });
+                            }
+                            if (any) {
+                                writer.write(mode.name() + "," + metric + "," + kb + "," + t + row + "\n");
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        App.msg("Successfully exported: " + filePath);
+    }
+    
+    private static void writeSloCurve(BenchmarkSweep sweep, java.io.BufferedWriter writer) throws IOException {
+        writer.write("# Threads: " + sweep.getThreadCounts() + "\n");
+        writer.write("# IODepth: " + sweep.getIoDepths() + "\n");
+        writer.write(String.format(Locale.ROOT, "# SLO: p%s <= %.3f ms\n",
+                Benchmark.DF.format(sweep.getSloPercentile()), sweep.getSloLatencyMs()));
+        writer.write("targetIops,iops,latencyMs,meetsSlo,maxAtSlo\n");
+        for (Benchmark b : sweep.getBenchmarks()) {
+            long rate = b.getConfig().getTargetIops();
+            SloSearch.Point p = SloSearch.point(rate, sweep.getSloPercentile(), b);
+            boolean max = sweep.getSloMet() && rate == sweep.getSloTargetIops();
+            writer.write(String.format(Locale.ROOT, "%d,%.0f,%.3f,%b,%b\n",
+                    rate, p.iops(), p.latencyMs(), p.latencyMs() <= sweep.getSloLatencyMs(), max));
+        }
+    }
+    
     /**
      * Serializes a Benchmark object to a JSON String.
      * @param benchmark The Benchmark object to serialize.
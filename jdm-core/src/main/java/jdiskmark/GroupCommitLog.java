@@ -0,0 +1,154 @@
+package jdiskmark;
+
+import java.io.IOException;
+
+/**
+ * The single writer of a group commit log. Producers append a record and
+ * wait until it is durable, the writer collects the waiting records into a
+ * group and makes the group durable with one write and one force. A group
+ * is committed once it holds maxBatch records, once every producer waits in
+ * it or maxWait after its oldest record arrived, whichever comes first.
+ * Records arriving while a group is committed join the next group.
+ */
+public class GroupCommitLog implements AutoCloseable {
+
+    /** Writes and forces a group of records, called by the writer only. */
+    @FunctionalInterface
+    public interface Sink {
+        void commit(int records) throws IOException;
+    }
+
+    private final Sink sink;
+    private final int producers;
+    private final int maxBatch;
+    private final long maxWaitNs;
+    private final Thread writer;
+
+    // guarded by this
+    private final long[] arrivals; // arrival of each waiting record, a ring
+    private long appended; // records appended so far
+    private long taken; // records handed to the sink
+    private long durable; // records whose group was forced
+    private long groups;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * @param sink writes and forces the groups
+     * @param producers threads appending, each waits for its record so at
+     * most this many records wait at a time
+     * @param maxBatch most records in one group
+     * @param maxWaitNs longest a group is held open for more records, 0
+     * commits whatever is waiting
+     */
+    public GroupCommitLog(Sink sink, int producers, int maxBatch, long maxWaitNs) {
+        this.sink = sink;
+        this.producers = Math.max(1, producers);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxWaitNs = Math.max(0, maxWaitNs);
+        arrivals = new long[this.producers];
+        writer = Thread.ofPlatform().name("group-commit-writer").daemon().start(this::writeGroups);
+    }
+
+    /**
+     * Appends a record and waits until the group holding it is durable.
+     *
+     * @throws IOException if the writer failed to commit a group
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public synchronized void append() throws IOException, InterruptedException {
+        if (failure != null) throw failure;
+        if (closed) throw new IllegalStateException("group commit log is closed");
+        long record = appended++;
+        arrivals[(int) (record % producers)] = System.nanoTime();
+        notifyAll();
+        while (durable <= record && failure == null) {
+            wait();
+        }
+        if (durable <= record) throw failure;
+    }
+
+    /** @return groups committed */
+    public synchronized long getGroups() {
+        return groups;
+    }
+
+    /** @return records committed */
+    public synchronized long getRecords() {
+        return durable;
+    }
+
+    /**
+     * @return the number of waiting records to commit as the next group
+     * once it is due, 0 if the group is still open
+     */
+    private int due(long now) {
+        long waiting = appended - taken;
+        if (waiting == 0) return 0;
+        boolean full = waiting >= maxBatch || waiting >= producers;
+        long oldest = arrivals[(int) (taken % producers)];
+        if (full || closed || now - oldest >= maxWaitNs) {
+            return (int) Math.min(waiting, maxBatch);
+        }
+        return 0;
+    }
+
+    private void writeGroups() {
+        try {
+            while (true) {
+                int records;
+                synchronized (this) {
+                    while ((records = due(System.nanoTime())) == 0) {
+                        if (closed) return;
+                        if (appended == taken) {
+                            wait();
+                        } else {
+                            long oldest = arrivals[(int) (taken % producers)];
+                            long remainingNs = oldest + maxWaitNs - System.nanoTime();
+                            if (remainingNs > 0) {
+                                wait(remainingNs / 1_000_000, (int) (remainingNs % 1_000_000));
+                            }
+                        }
+                    }
+                    taken += records;
+                }
+                sink.commit(records);
+                synchronized (this) {
+                    durable += records;
+                    groups++;
+                    notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+                notifyAll();
+            }
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                failure = new IOException("group commit writer interrupted", e);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Commits the records still waiting and stops the writer.
+     *
+     * @throws IllegalStateException if interrupted while the writer
+     * finishes, the interrupt status is kept
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while the group commit writer finishes", e);
+        }
+    }
+}
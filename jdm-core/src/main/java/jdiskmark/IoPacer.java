@@ -0,0 +1,82 @@
+package jdiskmark;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Schedules the intended start of every io of one worker for open loop
+ * load. Starts are spaced by a fixed interval from the first io of a sample
+ * regardless of when earlier ios complete. Latency measured from the
+ * intended start includes the time an io waited behind a slow one, which a
+ * closed loop measurement omits (coordinated omission).
+ */
+public class IoPacer {
+
+    // remaining wait below which the pacer spins instead of parking
+    static final long SPIN_NS = 50_000;
+
+    private final long intervalNs;
+    private long nextStartNs;
+    private boolean started;
+
+    /**
+     * @param intervalNs time between intended starts, 0 issues each io as
+     * soon as the previous one completes
+     */
+    public IoPacer(long intervalNs) {
+        this.intervalNs = Math.max(0, intervalNs);
+    }
+
+    /**
+     * @param iosPerSec target rate of all workers, 0 for closed loop
+     * @param workers number of workers sharing the rate
+     * @return a pacer for one worker
+     */
+    public static IoPacer forRate(double iosPerSec, int workers) {
+        if (iosPerSec <= 0) return new IoPacer(0);
+        return new IoPacer(Math.max(1, Math.round(workers * 1_000_000_000d / iosPerSec)));
+    }
+
+    public boolean isOpenLoop() {
+        return intervalNs > 0;
+    }
+
+    public long getIntervalNs() {
+        return intervalNs;
+    }
+
+    /** Restarts the schedule at the next io, called at the start of a sample. */
+    public void start() {
+        started = false;
+    }
+
+    /** @return see {@link #next(int)} */
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * Waits for the intended start of the next io.
+     *
+     * @param ios ios issued together at this start, e.g. a vectored batch
+     * @return the intended start in nanoTime, the current time in closed loop
+     */
+    public long next(int ios) {
+        long now = System.nanoTime();
+        if (intervalNs == 0) return now;
+        if (!started) {
+            started = true;
+            nextStartNs = now;
+        }
+        long intended = nextStartNs;
+        nextStartNs += intervalNs * ios;
+        long wait;
+        while ((wait = intended - System.nanoTime()) > 0) {
+            if (wait > SPIN_NS) {
+                LockSupport.parkNanos(wait - SPIN_NS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return intended;
+    }
+}
@@ -0,0 +1,409 @@
+package jdiskmark;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Minimal Linux io_uring binding on the FFM API.
+ *
+ * The rings are created with raw io_uring_setup/enter/register syscalls so
+ * liburing is not required. Reads and writes are queued into the mmapped
+ * submission ring and handed to the kernel in batches by a single
+ * io_uring_enter; completions are polled straight from the completion ring
+ * without a syscall. One instance belongs to one worker thread.
+ */
+public final class IoUring implements AutoCloseable {
+
+    // syscall numbers are shared by x86_64 and aarch64
+    static final long SYS_IO_URING_SETUP = 425;
+    static final long SYS_IO_URING_ENTER = 426;
+    static final long SYS_IO_URING_REGISTER = 427;
+
+    static final byte IORING_OP_READ_FIXED = 4;
+    static final byte IORING_OP_WRITE_FIXED = 5;
+    static final byte IORING_OP_READ = 22;
+    static final byte IORING_OP_WRITE = 23;
+    static final int IORING_ENTER_GETEVENTS = 1;
+    static final int IORING_REGISTER_BUFFERS = 0;
+    static final long IORING_OFF_SQ_RING = 0L;
+    static final long IORING_OFF_CQ_RING = 0x8000000L;
+    static final long IORING_OFF_SQES = 0x10000000L;
+
+    // struct sizes from linux/io_uring.h
+    static final int PARAMS_SIZE = 120;
+    static final int SQE_SIZE = 64;
+    static final int CQE_SIZE = 16;
+    static final int IOVEC_SIZE = 16;
+
+    // open(2) flags, O_DIRECT differs between architectures
+    static final int O_RDONLY = 0x0;
+    static final int O_WRONLY = 0x1;
+    static final int O_CREAT = 0x40;
+    static final int O_DSYNC = 0x1000;
+    static final int O_DIRECT = "aarch64".equals(System.getProperty("os.arch")) ? 0x10000 : 0x4000;
+    static final int FILE_MODE = 0644;
+
+    static final int PROT_READ_WRITE = 0x3;
+    static final int MAP_SHARED_POPULATE = 0x1 | 0x8000;
+    static final long MAP_FAILED = -1L;
+
+    static final int EINTR = 4;
+    static final int EAGAIN = 11;
+    static final int EBUSY = 16;
+
+    private static final Logger logger = Logger.getLogger(IoUring.class.getName());
+
+    private static Boolean available = null;
+    private static String unavailableReason = null;
+
+    // native handles are resolved lazily so non linux platforms never link them
+    private static final class Native {
+        static final Linker LINKER = Linker.nativeLinker();
+        static final StructLayout CAPTURE_LAYOUT = Linker.Option.captureStateLayout();
+        static final long ERRNO_OFFSET = CAPTURE_LAYOUT.byteOffset(
+                MemoryLayout.PathElement.groupElement("errno"));
+        static final MethodHandle SYSCALL = downcall("syscall",
+                FunctionDescriptor.of(JAVA_LONG, JAVA_LONG, JAVA_LONG, JAVA_LONG,
+                        JAVA_LONG, JAVA_LONG, JAVA_LONG, JAVA_LONG),
+                Linker.Option.firstVariadicArg(1), Linker.Option.captureCallState("errno"));
+        static final MethodHandle OPEN = downcall("open",
+                FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT),
+                Linker.Option.firstVariadicArg(2), Linker.Option.captureCallState("errno"));
+        static final MethodHandle CLOSE = downcall("close",
+                FunctionDescriptor.of(JAVA_INT, JAVA_INT), Linker.Option.captureCallState("errno"));
+        static final MethodHandle MMAP = downcall("mmap",
+                FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_LONG, JAVA_INT, JAVA_INT, JAVA_INT, JAVA_LONG),
+                Linker.Option.captureCallState("errno"));
+        static final MethodHandle MUNMAP = downcall("munmap",
+                FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_LONG), Linker.Option.captureCallState("errno"));
+
+        static MethodHandle downcall(String name, FunctionDescriptor fd, Linker.Option... options) {
+            MemorySegment symbol = LINKER.defaultLookup().find(name)
+                    .orElseThrow(() -> new UnsupportedOperationException("native symbol not found: " + name));
+            return LINKER.downcallHandle(symbol, fd, options);
+        }
+    }
+
+    private final Arena arena = Arena.ofConfined();
+    private final MemorySegment callState = arena.allocate(Native.CAPTURE_LAYOUT);
+    private int ringFd = -1;
+    private MemorySegment sqRing = MemorySegment.NULL;
+    private MemorySegment cqRing = MemorySegment.NULL;
+    private MemorySegment sqes = MemorySegment.NULL;
+    private long sqHeadOff, sqTailOff, cqHeadOff, cqTailOff, cqesOff;
+    private int sqMask, cqMask, sqEntries;
+    private int sqTail = 0; // local tail, published to the kernel on submit
+    private boolean fixedBuffers = false;
+
+    // last completion returned by reapCompletion()
+    long completedUserData;
+    int completedResult;
+
+    /**
+     * Checks once per process whether a ring can be created.
+     *
+     * @return true if io_uring is usable on this system
+     */
+    public static synchronized boolean isAvailable() {
+        if (available == null) {
+            if (!System.getProperty("os.name").contains("Linux")) {
+                unavailableReason = "io_uring requires Linux";
+                available = false;
+            } else {
+                try {
+                    IoUring probe = new IoUring(2);
+                    probe.close();
+                    available = true;
+                } catch (IOException | RuntimeException | LinkageError e) {
+                    unavailableReason = e.getMessage();
+                    available = false;
+                }
+            }
+        }
+        return available;
+    }
+
+    public static synchronized String getUnavailableReason() {
+        return unavailableReason;
+    }
+
+    /**
+     * @param entries submission queue size, rounded up to a power of two by the kernel
+     * @throws IOException if io_uring_setup or the ring mappings fail
+     */
+    public IoUring(int entries) throws IOException {
+        try {
+            MemorySegment params = arena.allocate(PARAMS_SIZE, 8);
+            long fd = syscall(SYS_IO_URING_SETUP, entries, params.address(), 0, 0, 0, 0);
+            if (fd < 0) {
+                throw new IOException("io_uring_setup failed, errno=" + errno());
+            }
+            ringFd = (int) fd;
+            sqEntries = params.get(JAVA_INT, 0);
+            int cqEntries = params.get(JAVA_INT, 4);
+            // struct io_sqring_offsets starts at 40, io_cqring_offsets at 80
+            sqHeadOff = params.get(JAVA_INT, 40);
+            sqTailOff = params.get(JAVA_INT, 44);
+            long sqMaskOff = params.get(JAVA_INT, 48);
+            long sqArrayOff = params.get(JAVA_INT, 64);
+            cqHeadOff = params.get(JAVA_INT, 80);
+            cqTailOff = params.get(JAVA_INT, 84);
+            long cqMaskOff = params.get(JAVA_INT, 88);
+            cqesOff = params.get(JAVA_INT, 100);
+
+            sqRing = mmap(sqArrayOff + (long) sqEntries * Integer.BYTES, IORING_OFF_SQ_RING);
+            cqRing = mmap(cqesOff + (long) cqEntries * CQE_SIZE, IORING_OFF_CQ_RING);
+            sqes = mmap((long) sqEntries * SQE_SIZE, IORING_OFF_SQES);
+            sqMask = sqRing.get(JAVA_INT, sqMaskOff);
+            cqMask = cqRing.get(JAVA_INT, cqMaskOff);
+            sqTail = sqRing.get(JAVA_INT, sqTailOff);
+            // ring slot i always uses sqe i
+            for (int i = 0; i < sqEntries; i++) {
+                sqRing.set(JAVA_INT, sqArrayOff + (long) i * Integer.BYTES, i);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Registers the buffers as fixed buffers so the kernel maps them once
+     * instead of on every I/O. When registration is refused (e.g. a low
+     * RLIMIT_MEMLOCK) the ring keeps using regular read/write operations.
+     *
+     * @param buffers aligned buffers, the array index becomes the buffer index
+     * @param length bytes used from each buffer
+     * @return true if the buffers were registered
+     */
+    public boolean registerBuffers(MemorySegment[] buffers, long length) {
+        MemorySegment iovecs = arena.allocate((long) IOVEC_SIZE * buffers.length, 8);
+        for (int i = 0; i < buffers.length; i++) {
+            iovecs.set(JAVA_LONG, (long) i * IOVEC_SIZE, buffers[i].address());
+            iovecs.set(JAVA_LONG, (long) i * IOVEC_SIZE + 8, length);
+        }
+        long ret = syscall(SYS_IO_URING_REGISTER, ringFd, IORING_REGISTER_BUFFERS,
+                iovecs.address(), buffers.length, 0, 0);
+        fixedBuffers = ret >= 0;
+        return fixedBuffers;
+    }
+
+    /**
+     * Queues a positional read or write into the next submission entry
+     * without entering the kernel.
+     *
+     * @return false if the submission ring is full
+     */
+    public boolean queue(boolean write, int fd, MemorySegment buffer, int bufferIndex,
+            long length, long fileOffset, long userData) {
+        int head = sqRing.get(JAVA_INT, sqHeadOff);
+        VarHandle.acquireFence();
+        if (sqTail - head >= sqEntries) {
+            return false;
+        }
+        encodeSqe(sqes, sqeOffset(sqTail, sqMask), opcode(write, fixedBuffers), fd, fileOffset,
+                buffer.address(), length, userData, fixedBuffers ? bufferIndex : -1);
+        sqTail++;
+        return true;
+    }
+
+    /** @return byte offset of the entry of a ring position in a ring of mask + 1 entries */
+    static long sqeOffset(int position, int mask) {
+        return (long) (position & mask) * SQE_SIZE;
+    }
+
+    /** @return byte offset in the completion ring mapping of the entry of a ring position */
+    static long cqeOffset(long cqesOff, int position, int mask) {
+        return cqesOff + (long) (position & mask) * CQE_SIZE;
+    }
+
+    static byte opcode(boolean write, boolean fixed) {
+        return fixed
+                ? (write ? IORING_OP_WRITE_FIXED : IORING_OP_READ_FIXED)
+                : (write ? IORING_OP_WRITE : IORING_OP_READ);
+    }
+
+    /**
+     * Writes a struct io_uring_sqe, every field not set here is zeroed.
+     *
+     * @param bufferIndex registered buffer index, -1 for a regular read or write
+     */
+    static void encodeSqe(MemorySegment sqes, long base, byte opcode, int fd, long fileOffset,
+            long address, long length, long userData, int bufferIndex) {
+        for (long off = 0; off < SQE_SIZE; off += Long.BYTES) {
+            sqes.set(JAVA_LONG, base + off, 0L);
+        }
+        sqes.set(JAVA_BYTE, base, opcode);
+        sqes.set(JAVA_INT, base + 4, fd);
+        sqes.set(JAVA_LONG, base + 8, fileOffset);
+        sqes.set(JAVA_LONG, base + 16, address);
+        sqes.set(JAVA_INT, base + 24, (int) length);
+        sqes.set(JAVA_LONG, base + 32, userData);
+        if (bufferIndex >= 0) {
+            sqes.set(JAVA_SHORT, base + 40, (short) bufferIndex);
+        }
+    }
+
+    /**
+     * Publishes all queued entries and submits them with a single
+     * io_uring_enter, optionally waiting for completions.
+     *
+     * @param waitFor minimum completions to wait for, 0 to only submit
+     * @return number of entries consumed by the kernel
+     * @throws IOException if io_uring_enter fails
+     */
+    public int submit(int waitFor) throws IOException {
+        VarHandle.releaseFence();
+        sqRing.set(JAVA_INT, sqTailOff, sqTail);
+        int head = sqRing.get(JAVA_INT, sqHeadOff);
+        VarHandle.acquireFence();
+        int toSubmit = sqTail - head;
+        if (toSubmit == 0 && waitFor == 0) {
+            return 0;
+        }
+        int flags = waitFor > 0 ? IORING_ENTER_GETEVENTS : 0;
+        while (true) {
+            long ret = syscall(SYS_IO_URING_ENTER, ringFd, toSubmit, waitFor, flags, 0, 0);
+            if (ret >= 0) {
+                return (int) ret;
+            }
+            int err = errno();
+            if (err == EINTR) {
+                continue;
+            }
+            if (err == EAGAIN || err == EBUSY) {
+                return 0; // completions have to be reaped before more can be submitted
+            }
+            throw new IOException("io_uring_enter failed, errno=" + err);
+        }
+    }
+
+    /**
+     * Polls the completion ring without a syscall. The reaped entry is
+     * exposed through {@link #completedUserData} and {@link #completedResult}.
+     *
+     * @return true if a completion was reaped
+     */
+    public boolean reapCompletion() {
+        int head = cqRing.get(JAVA_INT, cqHeadOff);
+        int tail = cqRing.get(JAVA_INT, cqTailOff);
+        VarHandle.acquireFence();
+        if (head == tail) {
+            return false;
+        }
+        long base = cqeOffset(cqesOff, head, cqMask);
+        completedUserData = cqRing.get(JAVA_LONG, base);
+        completedResult = cqRing.get(JAVA_INT, base + 8);
+        VarHandle.releaseFence();
+        cqRing.set(JAVA_INT, cqHeadOff, head + 1);
+        return true;
+    }
+
+    public boolean hasFixedBuffers() {
+        return fixedBuffers;
+    }
+
+    @Override
+    public void close() {
+        munmap(sqes);
+        munmap(cqRing);
+        munmap(sqRing);
+        sqes = cqRing = sqRing = MemorySegment.NULL;
+        if (ringFd >= 0) {
+            closeFile(ringFd);
+            ringFd = -1;
+        }
+        arena.close();
+    }
+
+    /**
+     * @param path file to open
+     * @param flags open(2) flags such as {@link #O_WRONLY} | {@link #O_DIRECT}
+     * @return the file descriptor, or the negated errno on failure
+     */
+    public static int openFile(Path path, int flags) {
+        try (Arena tmp = Arena.ofConfined()) {
+            byte[] name = path.toString().getBytes(StandardCharsets.UTF_8);
+            MemorySegment cPath = tmp.allocate(name.length + 1L, 1);
+            MemorySegment.copy(name, 0, cPath, JAVA_BYTE, 0, name.length);
+            MemorySegment state = tmp.allocate(Native.CAPTURE_LAYOUT);
+            int fd = (int) Native.OPEN.invokeExact(state, cPath, flags, FILE_MODE);
+            return fd >= 0 ? fd : -state.get(JAVA_INT, Native.ERRNO_OFFSET);
+        } catch (Throwable t) {
+            throw new IllegalStateException("open downcall failed", t);
+        }
+    }
+
+    public static void closeFile(int fd) {
+        try (Arena tmp = Arena.ofConfined()) {
+            MemorySegment state = tmp.allocate(Native.CAPTURE_LAYOUT);
+            int ret = (int) Native.CLOSE.invokeExact(state, fd);
+            if (ret != 0) {
+                // the descriptor is released even on failure, a write may have been lost
+                logger.log(Level.WARNING, "close of fd {0} failed, errno={1}",
+                        new Object[]{fd, state.get(JAVA_INT, Native.ERRNO_OFFSET)});
+            }
+        } catch (Throwable t) {
+            throw new IllegalStateException("close downcall failed", t);
+        }
+    }
+
+    private long syscall(long number, long a1, long a2, long a3, long a4, long a5, long a6) {
+        try {
+            return (long) Native.SYSCALL.invokeExact(callState, number, a1, a2, a3, a4, a5, a6);
+        } catch (Throwable t) {
+            throw new IllegalStateException("syscall downcall failed", t);
+        }
+    }
+
+    private int errno() {
+        return callState.get(JAVA_INT, Native.ERRNO_OFFSET);
+    }
+
+    private MemorySegment mmap(long size, long offset) throws IOException {
+        MemorySegment addr;
+        try {
+            addr = (MemorySegment) Native.MMAP.invokeExact(callState, MemorySegment.NULL, size,
+                    PROT_READ_WRITE, MAP_SHARED_POPULATE, ringFd, offset);
+        } catch (Throwable t) {
+            throw new IllegalStateException("mmap downcall failed", t);
+        }
+        if (addr.address() == MAP_FAILED) {
+            throw new IOException("io_uring mmap failed, errno=" + errno());
+        }
+        return addr.reinterpret(size);
+    }
+
+    private static void munmap(MemorySegment region) {
+        if (region.address() == 0) {
+            return;
+        }
+        try (Arena tmp = Arena.ofConfined()) {
+            MemorySegment state = tmp.allocate(Native.CAPTURE_LAYOUT);
+            int ret = (int) Native.MUNMAP.invokeExact(state, region, region.byteSize());
+            if (ret != 0) {
+                logger.log(Level.WARNING, "io_uring munmap failed, errno={0}",
+                        state.get(JAVA_INT, Native.ERRNO_OFFSET));
+            }
+        } catch (Throwable t) {
+            throw new IllegalStateException("munmap downcall failed", t);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package jdiskmark;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Log-bucketed histogram of per I/O latencies in nanoseconds.
+ *
+ * Every power of two range is split into linear sub-buckets so the relative
+ * error stays below ~3% while the bucket array keeps a fixed size. Recording
+ * does not allocate and is not thread safe: use one histogram per worker
+ * thread and merge them with {@link #add(LatencyHistogram)} when the
+ * operation completes.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+    // highest tracked latency is 2^40 ns (~18 min), larger values share the last bucket
+    static final int MAX_VALUE_BITS = 40;
+    static final int BUCKET_COUNT = indexFor((1L << MAX_VALUE_BITS) - 1) + 1;
+
+    final long[] counts = new long[BUCKET_COUNT];
+    long totalCount = 0;
+    long totalNs = 0;
+    long minNs = Long.MAX_VALUE;
+    long maxNs = 0;
+
+    static int indexFor(long valueNs) {
+        if (valueNs < SUB_BUCKET_COUNT) {
+            return (int) Math.max(0, valueNs);
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(valueNs);
+        int shift = msb - SUB_BUCKET_BITS + 1;
+        return shift * SUB_BUCKET_HALF + (int) (valueNs >>> shift);
+    }
+
+    /**
+     * @param index the bucket index
+     * @return the highest latency in nanoseconds that maps to the bucket
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void record(long latencyNs) {
+        if (latencyNs < 0) latencyNs = 0;
+        int index = Math.min(indexFor(latencyNs), BUCKET_COUNT - 1);
+        counts[index]++;
+        totalCount++;
+        totalNs += latencyNs;
+        if (latencyNs < minNs) minNs = latencyNs;
+        if (latencyNs > maxNs) maxNs = latencyNs;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalNs += other.totalNs;
+        minNs = Math.min(minNs, other.minNs);
+        maxNs = Math.max(maxNs, other.maxNs);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalNs = 0;
+        minNs = Long.MAX_VALUE;
+        maxNs = 0;
+    }
+
+    public long getTotalCount() { return totalCount; }
+    public long getMaxNs() { return maxNs; }
+    public long getMinNs() { return totalCount == 0 ? 0 : minNs; }
+    public double getMeanNs() { return totalCount == 0 ? 0 : (double) totalNs / totalCount; }
+
+    /**
+     * @param percentile value between 0 and 100, e.g. 99.9
+     * @return the latency in nanoseconds at or below which the given
+     * percentage of recorded I/Os completed, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100d * totalCount);
+        rank = Math.max(1, Math.min(totalCount, rank));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Math.min(highestValueAt(i), maxNs);
+            }
+        }
+        return maxNs;
+    }
+
+    public static double nsToMs(long ns) {
+        return ns / 1_000_000d;
+    }
+
+    /**
+     * Compact encoding used for persistence and export: a base64 string of
+     * var ints holding min, max and total followed by (index delta, count)
+     * pairs for the non empty buckets.
+     *
+     * @return the encoded histogram
+     */
+    public String encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarLong(out, getMinNs());
+        writeVarLong(out, maxNs);
+        writeVarLong(out, totalNs);
+        int lastIndex = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] != 0) {
+                writeVarLong(out, i - lastIndex);
+                writeVarLong(out, counts[i]);
+                lastIndex = i;
+            }
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    public static LatencyHistogram decode(String encoded) {
+        LatencyHistogram h = new LatencyHistogram();
+        if (encoded == null || encoded.isBlank()) {
+            return h;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        long min = readVarLong(in);
+        h.maxNs = readVarLong(in);
+        h.totalNs = readVarLong(in);
+        int index = 0;
+        while (in.hasRemaining()) {
+            index += (int) readVarLong(in);
+            long count = readVarLong(in);
+            h.counts[index] = count;
+            h.totalCount += count;
+        }
+        h.minNs = h.totalCount == 0 ? Long.MAX_VALUE : min;
+        return h;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
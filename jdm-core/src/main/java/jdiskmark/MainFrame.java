@@ -156,6 +156,12 @@ public final class MainFrame extends javax.swing.JFrame {
                 directIoCbMenuItem.setEnabled(false);
                 sectorAlignmentMenu.setEnabled(false);
             }
+            default -> {
+                // engines without a menu entry are selected by profile or cli
+                ioEnginebuttonGroup.clearSelection();
+                directIoCbMenuItem.setEnabled(true);
+                sectorAlignmentMenu.setEnabled(true);
+            }
         }
         writeSyncCheckBoxMenuItem.setSelected(App.writeSyncEnable);
         directIoCbMenuItem.setSelected(App.directEnable);
@@ -0,0 +1,159 @@
+package jdiskmark;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import jdiskmark.MetadataOperation.Phase;
+
+/**
+ * Runs the mdtest style metadata phases of a METADATA benchmark: the files
+ * are created across a fan-out of directories under the data directory,
+ * then every file is stat'ed, renamed within its directory and deleted.
+ * The threads split the files, each phase starts once the previous one
+ * finished on all threads and records one MetadataOperation.
+ */
+public class MetadataBenchmark {
+
+    static final String ROOT_DIR = "mdtest";
+
+    private final BenchmarkRunner runner;
+    private final BenchmarkConfig config;
+    private final Path root;
+
+    MetadataBenchmark(BenchmarkRunner runner) {
+        this.runner = runner;
+        this.config = runner.config;
+        this.root = Path.of(config.testDir, ROOT_DIR);
+    }
+
+    /**
+     * @param file the file number
+     * @param dirs the number of directories
+     * @return the directory of a file, files are dealt to the directories in turn
+     */
+    static String dirName(int file, int dirs) {
+        return "d" + (file % Math.max(1, dirs));
+    }
+
+    /** @return the name of a file, before or after the rename phase */
+    static String fileName(int file, boolean renamed) {
+        return "f" + file + (renamed ? ".r" : "");
+    }
+
+    private Path path(int file, boolean renamed) {
+        return root.resolve(dirName(file, config.metadataDirs)).resolve(fileName(file, renamed));
+    }
+
+    /**
+     * Runs the phases, the directory tree is removed afterwards even when a
+     * phase fails or the run is cancelled.
+     *
+     * @param benchmark receives one operation per completed phase
+     * @throws Exception if a phase fails for another reason than a failed call
+     */
+    public void run(Benchmark benchmark) throws Exception {
+        removeTree();
+        int dirs = Math.max(1, config.metadataDirs);
+        for (int d = 0; d < dirs; d++) {
+            Files.createDirectories(root.resolve(dirName(d, dirs)));
+        }
+        int[][] ranges = BenchmarkRunner.divideIntoRanges(0, config.metadataFiles, config.numThreads);
+        try {
+            for (Phase phase : Phase.values()) {
+                if (runner.listener.isCancelled()) break;
+                benchmark.getMetadataOperations().add(runPhase(benchmark, phase, ranges));
+            }
+        } finally {
+            removeTree();
+        }
+    }
+
+    private MetadataOperation runPhase(Benchmark benchmark, Phase phase, int[][] ranges) throws Exception {
+        MetadataOperation op = new MetadataOperation(benchmark, phase);
+        op.numFiles = config.metadataFiles;
+        op.numDirs = config.metadataDirs;
+        op.numThreads = config.numThreads;
+        op.fileBytes = config.metadataFileBytes;
+        LongAdder errors = new LongAdder();
+        List<LatencyHistogram> histograms = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = runner.newExecutor();
+        for (int[] range : ranges) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            futures.add(executor.submit(() -> {
+                ByteBuffer content = ByteBuffer.allocate(config.metadataFileBytes);
+                new DataGenerator(config.dataPattern, config.compressionRatio,
+                        OffsetGenerator.mix64(config.randomSeed + range[0])).fill(MemorySegment.ofBuffer(content));
+                for (int f = range[0]; f < range[1] && !runner.listener.isCancelled(); f++) {
+                    long start = System.nanoTime();
+                    try {
+                        call(phase, f, content);
+                        histogram.record(System.nanoTime() - start);
+                    } catch (IOException e) {
+                        errors.increment();
+                    }
+                    runner.updateWriteProgress();
+                }
+            }));
+        }
+        executor.shutdown();
+        try {
+            for (Future<?> f : futures) f.get(); // Wait and propagate exceptions
+        } catch (ExecutionException e) {
+            throw new Exception("Metadata " + phase + " phase failed", e.getCause());
+        }
+        LatencyHistogram merged = new LatencyHistogram();
+        for (LatencyHistogram h : histograms) {
+            merged.add(h);
+        }
+        op.finish(merged, errors.sum());
+        if (op.errors > 0) {
+            App.err(phase + " failed for " + op.errors + " of " + config.metadataFiles + " files");
+        }
+        return op;
+    }
+
+    /** Issues the call of a phase for one file. */
+    private void call(Phase phase, int file, ByteBuffer content) throws IOException {
+        switch (phase) {
+            case CREATE -> {
+                if (content.capacity() == 0) {
+                    Files.createFile(path(file, false));
+                } else {
+                    try (FileChannel fc = FileChannel.open(path(file, false),
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                        fc.write(content.clear());
+                    }
+                }
+            }
+            case STAT -> Files.readAttributes(path(file, false), BasicFileAttributes.class);
+            case RENAME -> Files.move(path(file, false), path(file, true), StandardCopyOption.ATOMIC_MOVE);
+            case DELETE -> Files.delete(path(file, true));
+        }
+    }
+
+    /** Deletes the directory tree of the benchmark and files left by an earlier phase or run. */
+    private void removeTree() throws IOException {
+        if (!Files.exists(root)) return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package jdiskmark;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.text.DecimalFormat;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * One phase of a metadata benchmark, the counterpart of a
+ * BenchmarkOperation for file system metadata calls. Every file of the
+ * benchmark gets one call of the phase.
+ */
+@Entity
+@Table(name="MetadataOperation")
+public class MetadataOperation implements Serializable {
+
+    static final DecimalFormat DF = new DecimalFormat("###.##");
+
+    public enum Phase {
+        CREATE("Create"),
+        STAT("Stat"),
+        RENAME("Rename"),
+        DELETE("Delete");
+
+        private final String display;
+        Phase(String display) { this.display = display; }
+        @Override
+        public String toString() { return display; }
+    }
+
+    // surrogate key
+    @Column
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "benchmark_id")
+    @JsonIgnore
+    private Benchmark benchmark;
+
+    // parameters
+    @Column
+    Phase phase;
+    public Phase getPhase() { return phase; }
+    @Column
+    int numFiles = 0;
+    public int getNumFiles() { return numFiles; }
+    @Column
+    int numDirs = 0;
+    public int getNumDirs() { return numDirs; }
+    @Column
+    int numThreads = 1;
+    public int getNumThreads() { return numThreads; }
+    // bytes written into each created file
+    @Column
+    int fileBytes = 0;
+    public int getFileBytes() { return fileBytes; }
+
+    // timestamps
+    @Convert(converter = LocalDateTimeAttributeConverter.class)
+    @Column(name = "startTime", columnDefinition = "TIMESTAMP")
+    LocalDateTime startTime;
+    @Convert(converter = LocalDateTimeAttributeConverter.class)
+    @Column
+    LocalDateTime endTime = null;
+
+    // results, calls that failed are counted apart and not in the latencies
+    @Column
+    long ops = 0;
+    public long getOps() { return ops; }
+    @Column
+    long errors = 0;
+    public long getErrors() { return errors; }
+    @Column
+    double opsPerSec = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getOpsPerSec() { return opsPerSec; }
+
+    // per call latency percentiles in ms
+    @Column
+    double latP50 = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getLatencyP50() { return latP50; }
+    @Column
+    double latP99 = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getLatencyP99() { return latP99; }
+    @Column
+    double latP999 = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getLatencyP999() { return latP999; }
+    @Column
+    double latMax = 0;
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getLatencyMax() { return latMax; }
+    // LatencyHistogram.encode() form of the full distribution
+    @Lob
+    @Column
+    String latHistogram;
+    public String getLatencyHistogram() { return latHistogram; }
+
+    public MetadataOperation() {}
+
+    MetadataOperation(Benchmark benchmark, Phase phase) {
+        this.benchmark = benchmark;
+        this.phase = phase;
+        startTime = LocalDateTime.now();
+    }
+
+    public Benchmark getBenchmark() { return benchmark; }
+    public void setBenchmark(Benchmark benchmark) { this.benchmark = benchmark; }
+
+    /**
+     * Records the end of the phase and its results.
+     *
+     * @param histogram the merged latencies of the successful calls
+     * @param errors the calls that failed
+     */
+    void finish(LatencyHistogram histogram, long errors) {
+        endTime = LocalDateTime.now();
+        ops = histogram.getTotalCount();
+        this.errors = errors;
+        long diffNanos = Duration.between(startTime, endTime).toNanos();
+        if (diffNanos > 0) {
+            opsPerSec = ops / (diffNanos / 1_000_000_000.0);
+        }
+        latP50 = LatencyHistogram.nsToMs(histogram.getValueAtPercentile(50));
+        latP99 = LatencyHistogram.nsToMs(histogram.getValueAtPercentile(99));
+        latP999 = LatencyHistogram.nsToMs(histogram.getValueAtPercentile(99.9));
+        latMax = LatencyHistogram.nsToMs(histogram.getMaxNs());
+        latHistogram = histogram.encode();
+    }
+
+    @JsonIgnore
+    public String getLatencyPercentilesDisplay() {
+        return DF.format(latP50) + "/" + DF.format(latP99) + "/"
+                + DF.format(latP999) + "/" + DF.format(latMax);
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataOp(" + phase + "): " + ops + " ops " + DF.format(opsPerSec) + "/s";
+    }
+}
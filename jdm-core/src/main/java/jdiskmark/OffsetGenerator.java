@@ -0,0 +1,297 @@
+package jdiskmark;
+
+import jdiskmark.Benchmark.IOMode;
+
+/**
+ * Produces the block index of every io in a sample. One generator is owned
+ * by each benchmark worker and restarted per sample with a seed derived
+ * from the run seed, so a run replays the same offsets regardless of how
+ * samples are scheduled across threads. Generators keep their random state
+ * in fields and do not allocate once started.
+ */
+public abstract class OffsetGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    protected final long runSeed;
+    protected long numBlocks;
+    private long state;
+
+    protected OffsetGenerator(long runSeed) {
+        this.runSeed = runSeed;
+    }
+
+    /**
+     * Prepares the generator for a sample.
+     *
+     * @param numBlocks number of blocks addressable by the sample
+     * @param seed the sample seed, see {@link #sampleSeed}
+     */
+    public void start(long numBlocks, long seed) {
+        this.numBlocks = Math.max(1, numBlocks);
+        state = seed;
+    }
+
+    /**
+     * @param ordinal position of the io within the sample
+     * @return the block index of the io, between 0 and numBlocks - 1
+     */
+    public abstract long next(long ordinal);
+
+    /**
+     * @param runSeed the seed recorded in the benchmark config
+     * @param mode the operation of the sample
+     * @param sampleNum the sample number
+     * @return a seed unique to the sample and operation
+     */
+    public static long sampleSeed(long runSeed, IOMode mode, int sampleNum) {
+        return mix64(runSeed + GOLDEN_GAMMA * (((long) sampleNum << 1) | mode.ordinal()));
+    }
+
+    /** SplitMix64 finalizer. */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    protected final long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    /** @return uniform value between 0 inclusive and bound exclusive */
+    protected final long nextLong(long bound) {
+        return Math.unsignedMultiplyHigh(nextLong(), bound);
+    }
+
+    /**
+     * Draws from the sample's stream, so choices made with it replay with
+     * the offsets.
+     *
+     * @param pct percentage between 0 and 100
+     * @return true with a probability of pct percent
+     */
+    public final boolean nextChance(int pct) {
+        return nextLong(100) < pct;
+    }
+
+    /** @return uniform value between 0 inclusive and 1 exclusive */
+    protected final double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /** Blocks in file order. */
+    public static final class Sequential extends OffsetGenerator {
+        public Sequential() {
+            super(0);
+        }
+
+        @Override
+        public long next(long ordinal) {
+            return ordinal % numBlocks;
+        }
+    }
+
+    /** Every block equally likely, blocks may repeat within a sample. */
+    public static final class Uniform extends OffsetGenerator {
+        public Uniform(long runSeed) {
+            super(runSeed);
+        }
+
+        @Override
+        public long next(long ordinal) {
+            return nextLong(numBlocks);
+        }
+    }
+
+    /**
+     * Every block exactly once per sample in an order that changes with the
+     * sample seed. The order is computed per io by a bijection, so no index
+     * array is held regardless of the block count.
+     */
+    public static final class Shuffled extends OffsetGenerator {
+
+        private final Permutation permutation = new Permutation();
+
+        public Shuffled(long runSeed) {
+            super(runSeed);
+        }
+
+        @Override
+        public void start(long numBlocks, long seed) {
+            super.start(numBlocks, seed);
+            permutation.start(this.numBlocks, seed);
+        }
+
+        @Override
+        public long next(long ordinal) {
+            return permutation.apply(ordinal % numBlocks);
+        }
+    }
+
+    /**
+     * Keyed bijection of 0 to n - 1: a four round Feistel network over the
+     * smallest even bit width covering n, cycle walking values that fall
+     * outside the range. The domain is at most 4n so a value is walked less
+     * than four times on average.
+     */
+    static final class Permutation {
+
+        private static final int ROUNDS = 4;
+
+        private final long[] keys = new long[ROUNDS];
+        private long n;
+        private int halfBits;
+        private long halfMask;
+
+        void start(long n, long seed) {
+            this.n = n;
+            int bits = n <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(n - 1);
+            halfBits = (bits + 1) / 2;
+            halfMask = (1L << halfBits) - 1;
+            for (int r = 0; r < ROUNDS; r++) {
+                keys[r] = mix64(seed + GOLDEN_GAMMA * (r + 1));
+            }
+        }
+
+        /** @return the image of x, x must be between 0 and n - 1 */
+        long apply(long x) {
+            if (n <= 1) return 0;
+            do {
+                x = encrypt(x);
+            } while (Long.compareUnsigned(x, n) >= 0);
+            return x;
+        }
+
+        private long encrypt(long x) {
+            long left = (x >>> halfBits) & halfMask;
+            long right = x & halfMask;
+            for (int r = 0; r < ROUNDS; r++) {
+                long f = mix64(right ^ keys[r]) & halfMask;
+                long t = right;
+                right = left ^ f;
+                left = t;
+            }
+            return (left << halfBits) | right;
+        }
+    }
+
+    /**
+     * Zipf distributed popularity using the rejection free method of Gray et
+     * al., "Quickly Generating Billion-Record Synthetic Databases". Ranks are
+     * scattered over the file by a permutation keyed with the run seed, so
+     * the hot blocks are distinct, not clustered at the start of the file,
+     * and stay the same blocks in every sample of the run.
+     */
+    public static final class Zipfian extends OffsetGenerator {
+
+        // zeta is summed exactly up to this many terms then integrated
+        static final long ZETA_EXACT_TERMS = 1_000_000;
+
+        private final double theta;
+        private final double alpha;
+        private final double zeta2;
+        private final Permutation ranks = new Permutation();
+        private long zetaBlocks = -1;
+        private double zetaN;
+        private double eta;
+
+        /**
+         * @param runSeed the run seed
+         * @param theta skew between 0 and 1 exclusive, 0.99 matches YCSB
+         */
+        public Zipfian(long runSeed, double theta) {
+            super(runSeed);
+            if (!(theta > 0 && theta < 1)) {
+                throw new IllegalArgumentException("zipf theta must be between 0 and 1 exclusive: " + theta);
+            }
+            this.theta = theta;
+            alpha = 1d / (1d - theta);
+            zeta2 = zeta(2, theta);
+        }
+
+        @Override
+        public void start(long numBlocks, long seed) {
+            super.start(numBlocks, seed);
+            ranks.start(this.numBlocks, runSeed);
+            if (zetaBlocks != this.numBlocks) {
+                // the same block count is used by every sample of an operation
+                zetaBlocks = this.numBlocks;
+                zetaN = zeta(zetaBlocks, theta);
+                eta = (1 - Math.pow(2d / zetaBlocks, 1 - theta)) / (1 - zeta2 / zetaN);
+            }
+        }
+
+        static double zeta(long n, double theta) {
+            long exact = Math.min(n, ZETA_EXACT_TERMS);
+            double sum = 0;
+            for (long i = 1; i <= exact; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            if (n > exact) {
+                // midpoint integral of x^-theta over the remaining terms
+                double e = 1 - theta;
+                sum += (Math.pow(n + 0.5, e) - Math.pow(exact + 0.5, e)) / e;
+            }
+            return sum;
+        }
+
+        /** @return the popularity rank of the next io, 0 is the most popular */
+        long nextRank() {
+            if (numBlocks == 1) return 0;
+            double u = nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1) return 0;
+            if (uz < 1 + Math.pow(0.5, theta)) return 1;
+            long rank = (long) (numBlocks * Math.pow(eta * u - eta + 1, alpha));
+            return Math.min(rank, numBlocks - 1);
+        }
+
+        @Override
+        public long next(long ordinal) {
+            return ranks.apply(nextRank());
+        }
+    }
+
+    /**
+     * A fixed share of the io goes to a hot region at the start of the file,
+     * the rest is spread uniformly over the remaining blocks.
+     */
+    public static final class Hotspot extends OffsetGenerator {
+
+        private final int ioPct;
+        private final int dataPct;
+        private long hotBlocks;
+
+        /**
+         * @param runSeed the run seed
+         * @param ioPct percentage of io directed at the hot region
+         * @param dataPct percentage of blocks in the hot region
+         */
+        public Hotspot(long runSeed, int ioPct, int dataPct) {
+            super(runSeed);
+            if (ioPct < 0 || ioPct > 100 || dataPct <= 0 || dataPct > 100) {
+                throw new IllegalArgumentException("hotspot percentages out of range: "
+                        + ioPct + "% of io to " + dataPct + "% of blocks");
+            }
+            this.ioPct = ioPct;
+            this.dataPct = dataPct;
+        }
+
+        @Override
+        public void start(long numBlocks, long seed) {
+            super.start(numBlocks, seed);
+            hotBlocks = Math.max(1, this.numBlocks * dataPct / 100);
+        }
+
+        @Override
+        public long next(long ordinal) {
+            long coldBlocks = numBlocks - hotBlocks;
+            if (coldBlocks == 0 || nextLong(100) < ioPct) {
+                return nextLong(hotBlocks);
+            }
+            return hotBlocks + nextLong(coldBlocks);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package jdiskmark;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Detects carrier thread pinning while virtual thread workers run an
+ * operation. Pinned parks are reported by the JFR jdk.VirtualThreadPinned
+ * event which is streamed in process, so no external recording is needed.
+ */
+public class PinningDetector {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Logger logger = Logger.getLogger(PinningDetector.class.getName());
+
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder pinnedNs = new LongAdder();
+    private RecordingStream stream;
+    private boolean available; // the stream started, else nothing was counted
+
+    /** Start streaming pinning events, every pinned park is counted. */
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withoutStackTrace();
+            stream.onEvent(PINNED_EVENT, event -> {
+                pinnedCount.increment();
+                pinnedNs.add(event.getDuration().toNanos());
+            });
+            stream.startAsync();
+            available = true;
+        } catch (RuntimeException | LinkageError e) {
+            // jfr can be missing from custom runtimes or disabled
+            logger.log(Level.WARNING, "Pinning detection unavailable: {0}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    /** Stop streaming after all pending events have been consumed. */
+    public void stop() {
+        if (stream != null) {
+            stream.stop();
+            stream.close();
+            stream = null;
+        }
+    }
+
+    /** @return false if jfr could not stream, the counts are then meaningless */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    public double getPinnedMs() {
+        return pinnedNs.sum() / 1_000_000d;
+    }
+}
@@ -0,0 +1,69 @@
+package jdiskmark;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Allocates the extents of a test file before it is written, the way
+ * databases size their files, so measured writes overwrite allocated blocks
+ * instead of paying for block allocation and metadata journaling. Uses
+ * posix_fallocate on Linux and falls back to extending the file length,
+ * which leaves a sparse file on most file systems.
+ */
+public class Preallocator {
+
+    // native handle is resolved lazily so non linux platforms never link it
+    private static final class Native {
+        static final MethodHandle POSIX_FALLOCATE = Linker.nativeLinker().downcallHandle(
+                Linker.nativeLinker().defaultLookup().find("posix_fallocate")
+                        .orElseThrow(() -> new UnsupportedOperationException("posix_fallocate not found")),
+                FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, JAVA_LONG));
+    }
+
+    /**
+     * @param file the file to allocate, created if missing
+     * @param length bytes to allocate from the start of the file
+     * @return true if the blocks were allocated, false if the file was only
+     * extended to the length
+     * @throws IOException if the file can be neither allocated nor extended
+     */
+    public static boolean preallocate(File file, long length) throws IOException {
+        if (System.getProperty("os.name").contains("Linux")) {
+            try {
+                int err = fallocate(file, length);
+                if (err == 0) return true;
+                App.msg("posix_fallocate failed for " + file.getName() + ": errno=" + err
+                        + ", extending the file instead");
+            } catch (RuntimeException | LinkageError e) {
+                App.msg("posix_fallocate unavailable: " + e.getMessage() + ", extending the file instead");
+            }
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() < length) {
+                raf.setLength(length);
+            }
+        }
+        return false;
+    }
+
+    /** @return 0 on success or the error number */
+    private static int fallocate(File file, long length) {
+        int fd = IoUring.openFile(file.toPath(), IoUring.O_WRONLY | IoUring.O_CREAT);
+        if (fd < 0) return -fd;
+        try {
+            // posix_fallocate returns the error instead of setting errno
+            return (int) Native.POSIX_FALLOCATE.invokeExact(fd, 0L, length);
+        } catch (Throwable t) {
+            throw new IllegalStateException("posix_fallocate downcall failed", t);
+        } finally {
+            IoUring.closeFile(fd);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package jdiskmark;
+
+import com.sun.nio.file.ExtendedOpenOption;
+import java.io.File;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jdiskmark.Benchmark.DataPattern;
+import jdiskmark.Benchmark.IOMode;
+import jdiskmark.Benchmark.SteadyState;
+
+/**
+ * Brings the test files and the drive under them to a repeatable state
+ * before the measured samples start. The working set is first written
+ * sequentially, then rounds of the configured block order are written until
+ * the round IOPS reach steady state or the round limit is used, the
+ * preconditioning flow of the SNIA solid state performance test spec.
+ */
+public class Preconditioner {
+
+    private static final Logger logger = Logger.getLogger(Preconditioner.class.getName());
+
+    private final BenchmarkRunner runner;
+    private final BenchmarkConfig config;
+    private final List<File> files;
+    private final SteadyStateDetector detector = new SteadyStateDetector();
+    private MemorySegment region; // random content the writes rotate through, see newBuffers
+
+    /**
+     * @param runner the runner of the benchmark
+     * @param files the test files of the measured operations
+     */
+    public Preconditioner(BenchmarkRunner runner, List<File> files) {
+        this.runner = runner;
+        this.config = runner.config;
+        this.files = files;
+    }
+
+    /**
+     * Runs the sequential fills then the rounds and records the verdict.
+     *
+     * @param benchmark receives the steady state verdict
+     * @throws Exception if a file cannot be written
+     */
+    public void run(Benchmark benchmark) throws Exception {
+        for (int pass = 1; pass <= config.preconditionPasses && !runner.listener.isCancelled(); pass++) {
+            long start = System.nanoTime();
+            fill();
+            App.msg("precondition fill " + pass + "/" + config.preconditionPasses + " took "
+                    + Sample.DF.format((System.nanoTime() - start) / 1_000_000_000d) + " s");
+        }
+        SteadyState verdict = SteadyState.NOT_CHECKED;
+        for (int round = 0; round < config.steadyStateMaxRounds && !runner.listener.isCancelled(); round++) {
+            double iops = round(round);
+            detector.add(iops);
+            App.msg("precondition round " + (round + 1) + ": " + Math.round(iops) + " iops");
+            verdict = detector.isSteady() ? SteadyState.REACHED : SteadyState.NOT_REACHED;
+            if (verdict == SteadyState.REACHED) break;
+        }
+        benchmark.steadyState = verdict;
+        benchmark.steadyStateRounds = detector.getRounds();
+        benchmark.steadyStateIops = detector.getAverage();
+        if (verdict != SteadyState.NOT_CHECKED) {
+            App.msg("steady state " + verdict + " after " + detector.getRounds() + " rounds");
+        }
+    }
+
+    /** Writes every file sequentially over the working set. */
+    void fill() throws IOException {
+        long length = config.getWorkingSetBlocks() * runner.blockSize;
+        try (BufferPool buffers = newBuffers(config.randomSeed)) {
+            for (File file : files) {
+                try (FileChannel fc = open(file)) {
+                    for (long pos = 0; pos < length && !runner.listener.isCancelled(); pos += runner.blockSize) {
+                        buffers.stamp(0);
+                        fc.write(buffers.buffer(0), pos);
+                    }
+                    fc.force(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks of one measured operation in the configured block
+     * order over the working set, spread across the configured threads.
+     *
+     * @param round the round number, seeds the offsets of the round
+     * @return the IOPS of the round including the final flush
+     */
+    private double round(int round) throws Exception {
+        long ios = (long) config.numBlocks * config.numSamples;
+        int threads = Math.max(1, config.numThreads);
+        long units = config.getWorkingSetBlocks();
+        LongAdder done = new LongAdder();
+        ExecutorService executor = runner.newExecutor();
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            // negative sample numbers keep round offsets apart from the measured ones
+            long seed = OffsetGenerator.sampleSeed(config.randomSeed, IOMode.WRITE, -1 - (round * threads + t));
+            long count = ios / threads + (t < ios % threads ? 1 : 0);
+            futures.add(executor.submit(() -> {
+                OffsetGenerator offsets = config.blockOrder.newGenerator(config);
+                offsets.start(units, seed);
+                List<FileChannel> channels = new ArrayList<>();
+                try (BufferPool buffers = newBuffers(seed)) {
+                    for (File file : files) {
+                        channels.add(open(file));
+                    }
+                    for (long i = 0; i < count && !runner.listener.isCancelled(); i++) {
+                        FileChannel fc = channels.get((int) (i % channels.size()));
+                        buffers.stamp(0);
+                        fc.write(buffers.buffer(0), offsets.next(i) * runner.blockSize);
+                        done.increment();
+                    }
+                    for (FileChannel fc : channels) {
+                        fc.force(false);
+                    }
+                } finally {
+                    for (FileChannel fc : channels) {
+                        fc.close();
+                    }
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        try {
+            for (Future<?> f : futures) f.get(); // Wait and propagate exceptions
+        } catch (ExecutionException e) {
+            throw new Exception("precondition round failed", e.getCause());
+        }
+        return done.sum() / ((System.nanoTime() - start) / 1_000_000_000d);
+    }
+
+    /**
+     * @param seed picks where the writes start in the region
+     * @return a single buffer whose writes rotate through a random region,
+     * so compressing and deduplicating drives see real data
+     */
+    private BufferPool newBuffers(long seed) {
+        DataGenerator content = new DataGenerator(DataPattern.RANDOM, 1, OffsetGenerator.mix64(seed));
+        synchronized (this) {
+            if (region == null) region = content.newRegion(Arena.ofAuto(), runner.blockSize);
+        }
+        return new BufferPool(runner.blockSize, BufferPool.alignmentFor(runner.blockSize, config.sectorAlignment), 1)
+                .fill(content, region);
+    }
+
+    private FileChannel open(File file) throws IOException {
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.WRITE);
+        options.add(StandardOpenOption.CREATE);
+        if (Boolean.TRUE.equals(config.writeSyncEnabled)) {
+            options.add(StandardOpenOption.DSYNC);
+        }
+        if (Boolean.TRUE.equals(config.directIoEnabled)) {
+            try {
+                options.add(ExtendedOpenOption.DIRECT); // non-standard api
+                return FileChannel.open(file.toPath(), options);
+            } catch (UnsupportedOperationException | IOException e) {
+                logger.log(Level.FINE, "direct io unavailable for preconditioning", e);
+                runner.recordBufferedFallback("Direct I/O unavailable for preconditioning: " + e.getMessage());
+                options.remove(ExtendedOpenOption.DIRECT);
+            }
+        }
+        return FileChannel.open(file.toPath(), options);
+    }
+}
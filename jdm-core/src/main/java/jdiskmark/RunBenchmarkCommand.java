@@ -11,6 +11,8 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import jdiskmark.Benchmark.BenchmarkType;
 import jdiskmark.Benchmark.BlockSequence;
+import jdiskmark.Benchmark.CommitSync;
+import jdiskmark.Benchmark.DataPattern;
 import jdiskmark.App.IoEngine;
 import picocli.CommandLine;
 import picocli.CommandLine.Spec;
@@ -57,11 +59,69 @@ public class RunBenchmarkCommand implements Callable<Integer> {
         }
     }
 
+    @Option(names = {"-r", "--read-pct"},
+            description = "Percentage of reads in the MIXED type, the rest are writes. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "70")
+    int readPct;
+
+    @Option(names = {"--record-bytes"},
+            description = "Record size in bytes of the LOG_COMMIT and GROUP_COMMIT types, e.g. 512 to 16384. 0 uses the block size. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    int logRecordBytes;
+
+    @Option(names = {"--commit-every"},
+            description = "Records appended per commit of the LOG_COMMIT type, each commit forces the log. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "1")
+    int commitEvery;
+
+    @Option(names = {"--commit-sync"},
+            completionCandidates = CommitSyncCandidates.class,
+            description = "Force of a LOG_COMMIT or GROUP_COMMIT commit: ${COMPLETION-CANDIDATES}. FDATASYNC forces the data, "
+                    + "FSYNC also the file metadata. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "FDATASYNC")
+    CommitSync commitSync;
+
+    @Option(names = {"--group-max-batch"},
+            description = "Most records committed by one write and force of the GROUP_COMMIT type. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "64")
+    int groupMaxBatch;
+
+    @Option(names = {"--group-max-wait-us"},
+            description = "Microseconds a GROUP_COMMIT group waits for more records after its first, 0 commits "
+                    + "what is waiting. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "1000")
+    int groupMaxWaitUs;
+
+    @Option(names = {"--md-files"},
+            description = "Files created, stat'ed, renamed and deleted by the METADATA type. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "10000")
+    int metadataFiles;
+
+    @Option(names = {"--md-dirs"},
+            description = "Directories the METADATA files are spread over. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "16")
+    int metadataDirs;
+
+    @Option(names = {"--md-file-bytes"},
+            description = "Bytes written into each file created by the METADATA type, 0 creates empty files. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    int metadataFileBytes;
+
+    static class CommitSyncCandidates extends ArrayList<String> {
+        CommitSyncCandidates() {
+            super(Arrays.stream(CommitSync.values()).map(Enum::name).collect(Collectors.toList()));
+        }
+    }
+
     @Option(names = {"-T", "--threads"}, 
             description = "Number of threads to use for testing. (Profile default used if not specified)",
             defaultValue = "1")
     int numOfThreads;
 
+    @Option(names = {"--virtual-threads"},
+            description = "Run each thread's samples on a virtual thread, allows thousands of concurrent requesters given as many samples.")
+    boolean virtualThreads = false;
+
     @Option(names = {"-o", "--order"}, 
             completionCandidates = OrderCandidates.class,
             description = "Block order: ${COMPLETION-CANDIDATES}. (Profile default used if not specified)",
@@ -74,11 +134,54 @@ public class RunBenchmarkCommand implements Callable<Integer> {
         }
     }
 
+    @Option(names = {"--seed"},
+            description = "Seed of the random block orders, replays the offsets of a recorded run. (Random seed if not specified)")
+    Long randomSeed;
+
+    @Option(names = {"--zipf-theta"},
+            description = "Skew of the ZIPFIAN order, between 0 and 1 exclusive. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0.99")
+    double zipfTheta;
+
+    @Option(names = {"--hotspot-io-pct"},
+            description = "Percentage of I/O sent to the hot blocks in HOTSPOT order. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "90")
+    int hotspotIoPct;
+
+    @Option(names = {"--hotspot-data-pct"},
+            description = "Percentage of blocks that are hot in HOTSPOT order. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "10")
+    int hotspotDataPct;
+
+    @Option(names = {"--data"},
+            completionCandidates = DataCandidates.class,
+            description = "Content of written blocks: ${COMPLETION-CANDIDATES}. RANDOM is incompressible, "
+                    + "UNIQUE also defeats deduplication. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "RANDOM")
+    DataPattern dataPattern;
+
+    static class DataCandidates extends ArrayList<String> {
+        DataCandidates() {
+            super(Arrays.stream(DataPattern.values()).map(Enum::name).collect(Collectors.toList()));
+        }
+    }
+
+    @Option(names = {"--compress-ratio"},
+            description = "Target compression ratio of COMPRESSIBLE data, e.g. 2 for 2:1. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "2")
+    double compressionRatio;
+
     @Option(names = {"-b", "--blocks"},
             description = "Number of blocks/chunks per sample. (Profile default used if not specified)",
             defaultValue = "32")
     int numOfBlocks;
 
+    @Option(names = {"-W", "--working-set"},
+            description = "Bytes of the test file spread over by the block order, e.g. 64G or 2T. "
+                    + "Reads write it sequentially first. 0 addresses only the blocks of one sample. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    String workingSet;
+
     @Option(names = {"-z", "--block-size"},
             description = "Size of a block/chunk in Kilobytes (KB). (Profile default used if not specified)",
             defaultValue = "512")
@@ -89,6 +192,47 @@ public class RunBenchmarkCommand implements Callable<Integer> {
             defaultValue = "200")
     int numOfSamples;
 
+    @Option(names = {"-D", "--sample-ms"},
+            description = "Run each sample for this many milliseconds instead of a fixed block count. 0 sizes samples by blocks. (Profile default used if not specified)",
+            defaultValue = "0")
+    int sampleDurationMs;
+
+    @Option(names = {"-M", "--max-seconds"},
+            description = "Stop each operation after this many seconds even if samples remain. 0 runs all samples. (Profile default used if not specified)",
+            defaultValue = "0")
+    int maxDurationSec;
+
+    @Option(names = {"--rate-iops"},
+            description = "Issue I/O on a fixed schedule at this many IOPS across all threads, latency "
+                    + "is measured from the scheduled start. 0 issues I/O back to back. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    long targetIops;
+
+    @Option(names = {"--rate-mbs"},
+            description = "Like --rate-iops with the rate given in MB/s, ignored when --rate-iops is set. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    double targetMbSec;
+
+    @Option(names = {"--preallocate"},
+            description = "Allocate the working set of the test files with posix_fallocate before writing, "
+                    + "extending the files where it is unavailable.")
+    boolean preallocateEnabled = false;
+
+    @Option(names = {"--split-allocation"},
+            description = "Report writes that allocate blocks apart from overwrites, implied by --preallocate.")
+    boolean allocationSplitEnabled = false;
+
+    @Option(names = {"--precondition"},
+            description = "Sequentially fill the working set this many times (1 or 2) before measuring. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    int preconditionPasses;
+
+    @Option(names = {"--steady-state-rounds"},
+            description = "After preconditioning, write rounds in the block order until the IOPS reach SNIA "
+                    + "steady state, at most this many. 0 skips the rounds. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    int steadyStateMaxRounds;
+
     // --- Profile IO Strategy ---
 
     @Option(names = {"-i", "--io-engine"},
@@ -103,6 +247,16 @@ public class RunBenchmarkCommand implements Callable<Integer> {
         }
     }
 
+    @Option(names = {"-q", "--iodepth"},
+            description = "Outstanding I/Os per thread, used by the ASYNC and IO_URING engines. (Profile default used if not specified)",
+            defaultValue = "1")
+    int ioDepth;
+
+    @Option(names = {"-B", "--vector-batch"},
+            description = "Blocks per gathering write / scattering read, used by the MODERN engine. 1 disables vectored I/O.",
+            defaultValue = "1")
+    int vectorBatch;
+
     @Option(names = {"-d", "--direct"},
             description = "Enable Direct I/O (bypass OS cache). Only works with MODERN engine.")
     boolean directEnable = false;
@@ -113,7 +267,8 @@ public class RunBenchmarkCommand implements Callable<Integer> {
 
     @Option(names = {"-a", "--alignment"},
             completionCandidates = AlignmentCandidates.class,
-            description = "Sector alignment: ${COMPLETION-CANDIDATES}. (Profile default used if not specified)",
+            description = "Sector alignment: ${COMPLETION-CANDIDATES}. Direct I/O raises it to the detected "
+                    + "physical block size. (Profile default used if not specified)",
             defaultValue = "NONE")
     App.SectorAlignment sectorAlignment;
 
@@ -123,6 +278,56 @@ public class RunBenchmarkCommand implements Callable<Integer> {
         }
     }
 
+    @Option(names = {"--time-open-close"},
+            description = "Include file open/close in each sample's time. By default single-file samples reuse an open channel.")
+    boolean timeOpenClose = false;
+
+    @Option(names = {"--verify"},
+            description = "Stamp every written block with a header and CRC32C and check every block read back. "
+                    + "Runs on the MODERN engine, checksum time is excluded from bandwidth.")
+    boolean verifyEnabled = false;
+
+    // --- Parameter sweep ---
+
+    @Option(names = {"--sweep-block-kb"},
+            description = "Sweep block sizes in KB, a list like 4,64,1024 or a doubling range like 4..1024. "
+                    + "Runs one benchmark per cell of the block size x threads x iodepth grid.")
+    String sweepBlockSizes;
+
+    @Option(names = {"--sweep-threads"},
+            description = "Sweep thread counts, a list or a doubling range like 1..32.")
+    String sweepThreads;
+
+    @Option(names = {"--sweep-iodepth"},
+            description = "Sweep queue depths of the ASYNC and IO_URING engines, a list or a doubling range like 1..64.")
+    String sweepIoDepths;
+
+    @Option(names = {"--find-knee"},
+            description = "Find the saturation knee: double the threads, or the iodepth of the ASYNC and IO_URING "
+                    + "engines, until IOPS stop improving, then bisect for the lowest concurrency within 90%% of the peak.")
+    boolean findKnee = false;
+
+    @Option(names = {"--knee-max"},
+            description = "Highest threads or iodepth tried by --find-knee, threads at most the sample count. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "256")
+    int kneeMaxConcurrency;
+
+    @Option(names = {"--slo-ms"},
+            description = "Search the highest IOPS that keeps the --slo-percentile latency within this many ms: "
+                    + "a closed loop run, then a bisection of the open loop rate. 0 disables the search. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    double sloLatencyMs;
+
+    @Option(names = {"--slo-percentile"},
+            description = "Latency percentile of the SLO: 50, 99, 99.9 or 100 for the maximum. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "99")
+    double sloPercentile;
+
+    @Option(names = {"--slo-iterations"},
+            description = "Most open loop rates tried by the SLO search. (Default: ${DEFAULT-VALUE})",
+            defaultValue = "8")
+    int sloIterations;
+
     @Option(names = {"-m", "--multi-file"},
             description = "Create a new file for every sample instead of using one large file.")
     boolean multiFile = false;
@@ -161,16 +366,53 @@ public class RunBenchmarkCommand implements Callable<Integer> {
         // Workload Definition
         if (pr.hasMatchedOption("--type"))         App.benchmarkType = benchmarkType;
         if (pr.hasMatchedOption("--threads"))      App.numOfThreads = numOfThreads;
+        if (pr.hasMatchedOption("--read-pct"))     App.readPct = readPct;
+        if (pr.hasMatchedOption("--record-bytes")) App.logRecordBytes = logRecordBytes;
+        if (pr.hasMatchedOption("--commit-every")) App.commitEvery = commitEvery;
+        if (pr.hasMatchedOption("--commit-sync"))  App.commitSync = commitSync;
+        if (pr.hasMatchedOption("--group-max-batch")) App.groupMaxBatch = groupMaxBatch;
+        if (pr.hasMatchedOption("--group-max-wait-us")) App.groupMaxWaitUs = groupMaxWaitUs;
+        if (pr.hasMatchedOption("--md-files"))     App.metadataFiles = metadataFiles;
+        if (pr.hasMatchedOption("--md-dirs"))      App.metadataDirs = metadataDirs;
+        if (pr.hasMatchedOption("--md-file-bytes")) App.metadataFileBytes = metadataFileBytes;
+        if (pr.hasMatchedOption("--virtual-threads")) App.virtualThreads = virtualThreads;
         if (pr.hasMatchedOption("--order"))        App.blockSequence = blockSequence;
+        if (pr.hasMatchedOption("--zipf-theta"))   App.zipfTheta = zipfTheta;
+        if (pr.hasMatchedOption("--hotspot-io-pct")) App.hotspotIoPct = hotspotIoPct;
+        if (pr.hasMatchedOption("--hotspot-data-pct")) App.hotspotDataPct = hotspotDataPct;
+        if (pr.hasMatchedOption("--data"))         App.dataPattern = dataPattern;
+        if (pr.hasMatchedOption("--compress-ratio")) App.compressionRatio = compressionRatio;
         if (pr.hasMatchedOption("--blocks"))       App.numOfBlocks = numOfBlocks;
         if (pr.hasMatchedOption("--block-size"))   App.blockSizeKb = blockSizeKb;
+        if (pr.hasMatchedOption("--working-set"))  App.workingSetSize = Util.parseByteSize(workingSet);
         if (pr.hasMatchedOption("--samples"))      App.numOfSamples = numOfSamples;
+        if (pr.hasMatchedOption("--sample-ms"))    App.sampleDurationMs = sampleDurationMs;
+        if (pr.hasMatchedOption("--max-seconds"))  App.maxDurationSec = maxDurationSec;
+        if (pr.hasMatchedOption("--rate-iops"))    App.targetIops = targetIops;
+        if (pr.hasMatchedOption("--rate-mbs"))     App.targetMbSec = targetMbSec;
+        if (pr.hasMatchedOption("--preallocate"))  App.preallocateEnabled = preallocateEnabled;
+        if (pr.hasMatchedOption("--split-allocation")) App.allocationSplitEnabled = allocationSplitEnabled;
+        if (pr.hasMatchedOption("--precondition")) App.preconditionPasses = preconditionPasses;
+        if (pr.hasMatchedOption("--steady-state-rounds")) App.steadyStateMaxRounds = steadyStateMaxRounds;
         // IO Strategy
         if (pr.hasMatchedOption("--io-engine"))    App.ioEngine = ioEngine;
+        if (pr.hasMatchedOption("--iodepth"))      App.ioDepth = ioDepth;
+        if (pr.hasMatchedOption("--vector-batch")) App.vectorBatch = vectorBatch;
         if (pr.hasMatchedOption("--direct"))       App.directEnable = directEnable;
+        if (pr.hasMatchedOption("--time-open-close")) App.timeOpenClose = timeOpenClose;
         if (pr.hasMatchedOption("--write-sync"))   App.writeSyncEnable = writeSyncEnable;
         if (pr.hasMatchedOption("--alignment"))    App.sectorAlignment = sectorAlignment;
         if (pr.hasMatchedOption("--multi-file"))   App.multiFile = multiFile;
+        if (pr.hasMatchedOption("--verify"))       App.verifyEnabled = verifyEnabled;
+        // sweeps are per run, unset axes keep the single value
+        App.sweepBlockSizesKb = sweepBlockSizes != null ? BenchmarkSweep.parseAxis(sweepBlockSizes) : null;
+        App.sweepThreads = sweepThreads != null ? BenchmarkSweep.parseAxis(sweepThreads) : null;
+        App.sweepIoDepths = sweepIoDepths != null ? BenchmarkSweep.parseAxis(sweepIoDepths) : null;
+        App.findKnee = findKnee;
+        App.kneeMaxConcurrency = kneeMaxConcurrency;
+        App.sloLatencyMs = sloLatencyMs;
+        App.sloPercentile = sloPercentile;
+        App.sloIterations = sloIterations;
     }
     
     @Override
@@ -191,6 +433,7 @@ public class RunBenchmarkCommand implements Callable<Integer> {
             App.autoSave = save;
             App.exportPath = exportPath;
             GcDetector.gcRetryEnabled = gcRetryEnabled;
+            App.randomSeed = randomSeed; // per run, not persisted
 
             // Initialization and Start
             if (App.verbose) {
@@ -3,7 +3,6 @@ package jdiskmark;
 // constants
 import com.fasterxml.jackson.annotation.JsonAlias;
 import static jdiskmark.App.MEGABYTE;
-import static jdiskmark.Benchmark.BlockSequence.RANDOM;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -13,15 +12,18 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.lang.foreign.Arena;
-import java.lang.foreign.MemoryLayout;
 import java.lang.foreign.MemorySegment;
-import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
 import java.nio.channels.FileChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,6 +44,11 @@ public class Sample {
     double cumMin = 0;
     double accessTimeMs;
     double cumAccTimeMs;
+    long minorFaults = 0;  // page faults of the worker thread during the sample
+    long majorFaults = 0;
+    long progressUnits = 0; // units reported to the runner, rolled back on a gc retry
+    double checksumMs = 0; // block verification time, excluded from the bandwidth
+    private long checksumNs = 0;
         
     // needed for jackson
     public Sample() {}
@@ -102,6 +109,21 @@ public class Sample {
     public double getCumAccTimeMs() { return cumAccTimeMs; }
     public void setCumAccTimeMs(double cumAccTime) { cumAccTimeMs = cumAccTime; }
 
+    // page fault statistics
+    
+    @JsonProperty("minflt")
+    public long getMinorFaults() { return minorFaults; }
+    public void setMinorFaults(long faults) { minorFaults = faults; }
+    
+    @JsonProperty("majflt")
+    public long getMajorFaults() { return majorFaults; }
+    public void setMajorFaults(long faults) { majorFaults = faults; }
+
+    @JsonProperty("ck") // checksum time
+    @JsonSerialize(using = RoundingSerializer.class)
+    public double getChecksumMs() { return checksumMs; }
+    public void setChecksumMs(double ms) { checksumMs = ms; }
+
     // display methods
     @JsonIgnore
     public String getBwMbSecDisplay() {
@@ -129,7 +151,9 @@ public class Sample {
     }
     
     // pre jdk 25 io api
-    public void measureWriteLegacy(long blockSize, int numOfBlocks, byte[] blockArr, BenchmarkRunner bRunner) {
+    public void measureWriteLegacy(long blockSize, int numOfBlocks, BufferPool buffers,
+            BenchmarkRunner bRunner, LatencyHistogram histogram, OffsetGenerator offsets, IoPacer pacer) {
+        byte[] blockArr = buffers.array(0);
         File testFile = getTestFile(bRunner);
         long startTime = System.nanoTime();
         long totalBytesWrittenInSample = 0;
@@ -137,15 +161,17 @@ public class Sample {
         try {
             try (RandomAccessFile rAccFile = new RandomAccessFile(testFile, mode)) {
                 for (int b = 0; b < numOfBlocks; b++) {
-                    if (App.blockSequence == Benchmark.BlockSequence.RANDOM) {
-                        int rLoc = Util.randInt(0, numOfBlocks - 1);
-                        rAccFile.seek(rLoc * blockSize);
-                    } else {
-                        rAccFile.seek(b * blockSize);
-                    }
+                    if (isDone(bRunner, startTime)) break;
+                    long blockIndex = offsets.next(b);
+                    rAccFile.seek(blockIndex * blockSize);
+                    buffers.stamp(0);
+                    long ioStart = pacer.next();
                     rAccFile.write(blockArr, 0, (int)blockSize);
+                    long latencyNs = System.nanoTime() - ioStart;
+                    histogram.record(latencyNs);
+                    recordAllocation(bRunner, blockIndex, 1, latencyNs);
                     totalBytesWrittenInSample += blockSize;
-                    bRunner.updateWriteProgress();
+                    bRunner.updateWriteProgress(this);
                 }
             }
         } catch (IOException ex) {
@@ -153,29 +179,26 @@ public class Sample {
         }
         long endTime = System.nanoTime();
         long elapsedTimeNs = endTime - startTime;
-        accessTimeMs = (elapsedTimeNs / 1_000_000f) / numOfBlocks;
-        double sec = (double) elapsedTimeNs / 1_000_000_000d;
-        double mbWritten = (double) totalBytesWrittenInSample / (double) MEGABYTE;
-        bwMbSec = mbWritten / sec;
+        setResult(elapsedTimeNs, totalBytesWrittenInSample, blockSize);
     }
     
     // pre jdk 25 io api
-    public void measureReadLegacy(long blockSize, int numOfBlocks, byte[] blockArr, BenchmarkRunner bRunner) {
+    public void measureReadLegacy(long blockSize, int numOfBlocks, BufferPool buffers,
+            BenchmarkRunner bRunner, LatencyHistogram histogram, OffsetGenerator offsets, IoPacer pacer) {
+        byte[] blockArr = buffers.array(0);
         File testFile = getTestFile(bRunner);
         long startTime = System.nanoTime();
         long totalBytesReadInMark = 0;
         try {
             try (RandomAccessFile rAccFile = new RandomAccessFile(testFile, "r")) {
                 for (int b = 0; b < numOfBlocks; b++) {
-                    if (App.blockSequence == Benchmark.BlockSequence.RANDOM) {
-                        int rLoc = Util.randInt(0, numOfBlocks - 1);
-                        rAccFile.seek(rLoc * blockSize);
-                    } else {
-                        rAccFile.seek(b * blockSize);
-                    }
+                    if (isDone(bRunner, startTime)) break;
+                    rAccFile.seek(offsets.next(b) * blockSize);
+                    long ioStart = pacer.next();
                     rAccFile.readFully(blockArr, 0, (int)blockSize);
+                    histogram.record(System.nanoTime() - ioStart);
                     totalBytesReadInMark += blockSize;
-                    bRunner.updateReadProgress();
+                    bRunner.updateReadProgress(this);
                 }
             }
         } catch (IOException ex) {
@@ -183,21 +206,14 @@ public class Sample {
         }
         long endTime = System.nanoTime();
         long elapsedTimeNs = endTime - startTime;
-        accessTimeMs = (elapsedTimeNs / 1_000_000f) / (float) numOfBlocks;
-        double sec = (double) elapsedTimeNs / 1_000_000_000d;
-        double mbRead = (double) totalBytesReadInMark / (double) MEGABYTE;
-        bwMbSec = mbRead / sec;
+        setResult(elapsedTimeNs, totalBytesReadInMark, blockSize);
     }
     
-    public void measureWrite(long blockSize, int numOfBlocks, BenchmarkRunner bRunner) {
+    public void measureWrite(long blockSize, int numOfBlocks, BenchmarkRunner bRunner,
+            LatencyHistogram histogram, BufferPool buffers, OffsetGenerator offsets, IoPacer pacer) {
         long totalBytesWritten = 0;
-        long byteAlignment = bRunner.config.sectorAlignment.bytes;
-        if (byteAlignment <= 0) {
-            // if not selected use default layout alignment
-            MemoryLayout layout = MemoryLayout.sequenceLayout(blockSize, ValueLayout.JAVA_BYTE);
-            byteAlignment = layout.byteAlignment();
-        }
         File testFile = getTestFile(bRunner);
+        ChannelCache cache = getChannelCache(bRunner);
         long startTime = System.nanoTime();
         
         Set<OpenOption> options = new HashSet<>();
@@ -209,56 +225,46 @@ public class Sample {
         if (App.directEnable) {
             options.add(ExtendedOpenOption.DIRECT); // non-standard api
         }
-        FileChannel initialFc = null;
-        try {
-            initialFc = FileChannel.open(testFile.toPath(), options);
-        } catch (UnsupportedOperationException | IOException e) {
-            // If direct I/O was requested, try falling back to buffered I/O
-            if (App.directEnable && options.contains(ExtendedOpenOption.DIRECT)) {
-                App.err("Direct I/O open failed or unsupported: " + e.getMessage() + ". Falling back to buffered I/O.");
-                options.remove(ExtendedOpenOption.DIRECT);
-                try {
-                    initialFc = FileChannel.open(testFile.toPath(), options);
-                } catch (IOException ex) {
-                    Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, "Failed to open FileChannel on fallback", ex);
-                    App.err("Failed to open FileChannel, aborting measurement");
-                    return;
-                }
-            } else {
-                // If it wasn't a Direct I/O issue, it's a fatal IO error (e.g., disk full, permissions)
-                Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, "Fatal error opening FileChannel", e);
-                return;
-            }
+        FileChannel initialFc = openChannelWithFallback(testFile, options, cache, bRunner);
+        if (initialFc == null) {
+            return;
+        }
+        if (!bRunner.config.timeOpenClose) {
+            startTime = System.nanoTime();
         }
         
-        try (FileChannel fc = initialFc; Arena arena = Arena.ofConfined()) {
-            MemorySegment segment = arena.allocate(blockSize, byteAlignment);
-            for (int b = 0; b < numOfBlocks; b++) {
-                if (bRunner.listener.isCancelled()) break;
-                long blockIndex = (bRunner.config.blockOrder == RANDOM) ?
-                        Util.randInt(0, numOfBlocks - 1) : b;
-                long byteOffset = blockIndex * blockSize;
+        int batch = Math.min(Math.min(bRunner.config.vectorBatch, numOfBlocks), buffers.size());
+        FileChannel fc = initialFc;
+        try {
+            if (batch > 1) {
+                totalBytesWritten = transferVectored(fc, Type.WRITE, buffers, blockSize,
+                        numOfBlocks, batch, bRunner, histogram, offsets, pacer);
+            } else {
+                for (int b = 0; b < numOfBlocks; b++) {
+                    if (isDone(bRunner, startTime)) break;
+                    long blockIndex = offsets.next(b);
+                    long byteOffset = blockIndex * blockSize;
 
-                int written = fc.write(segment.asByteBuffer(), byteOffset);
-                totalBytesWritten += written;
-                bRunner.updateWriteProgress();
+                    buffers.stamp(0);
+                    stampBlock(bRunner, buffers.buffer(0), blockIndex, b);
+                    long ioStart = pacer.next();
+                    int written = fc.write(buffers.buffer(0), byteOffset);
+                    long latencyNs = System.nanoTime() - ioStart;
+                    histogram.record(latencyNs);
+                    recordAllocation(bRunner, blockIndex, 1, latencyNs);
+                    totalBytesWritten += written;
+                    bRunner.updateWriteProgress(this);
+                }
             }
         } catch (IOException e) {
             Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, e);
         }
-        long elapsedTimeNs = System.nanoTime() - startTime;
-        accessTimeMs = (elapsedTimeNs / 1_000_000f) / (float) numOfBlocks;
-        double sec = (double) elapsedTimeNs / 1_000_000_000d;
-        bwMbSec = (double) totalBytesWritten / (double) MEGABYTE / sec;
-    }
-    
-public void prepareRead(long blockSize, int numOfBlocks, BenchmarkRunner bRunner) {
-    long byteAlignment = bRunner.config.sectorAlignment.bytes;
-    if (byteAlignment <= 0) {
-        MemoryLayout layout = MemoryLayout.sequenceLayout(blockSize, ValueLayout.JAVA_BYTE);
-        byteAlignment = layout.byteAlignment();
+        long elapsedTimeNs = closeChannel(fc, cache, bRunner) - startTime;
+        setResult(elapsedTimeNs, totalBytesWritten, blockSize);
     }
     
+public void prepareRead(long blockSize, int numOfBlocks, BenchmarkRunner bRunner,
+        BufferPool buffers) {
     File testFile = getTestFile(bRunner);
     Set<OpenOption> options = new HashSet<>();
     options.add(StandardOpenOption.WRITE);
@@ -267,22 +273,22 @@ public void prepareRead(long blockSize, int numOfBlocks, BenchmarkRunner bRunner
 
     // Use a single try-with-resources and let the Exception bubble up
     // to the BenchmarkRunner's try-catch block.
-    try (FileChannel fc = FileChannel.open(testFile.toPath(), options); 
-         Arena arena = Arena.ofConfined()) {
+    try (FileChannel fc = FileChannel.open(testFile.toPath(), options)) {
         
-        MemorySegment segment = arena.allocate(blockSize, byteAlignment);
         long totalBytesWritten = 0;
         
         for (int b = 0; b < numOfBlocks; b++) {
             if (bRunner.listener.isCancelled()) break;
             
             long byteOffset = (long) b * blockSize;
-            int written = fc.write(segment.asByteBuffer(), byteOffset);
+            buffers.stamp(0);
+            stampBlock(bRunner, buffers.buffer(0), b, b);
+            int written = fc.write(buffers.buffer(0), byteOffset);
             totalBytesWritten += written;
             // For read-only benchmarks, we reuse the "write" progress counters to
             // track preparation of data to be read. In execute(), wUnitsTotal is
             // set from rUnitsTotal so this correctly reflects read preparation.
-            bRunner.updateWriteProgress();
+            bRunner.updateWriteProgress(this);
         }
 
         if (App.verbose) {
@@ -297,61 +303,764 @@ public void prepareRead(long blockSize, int numOfBlocks, BenchmarkRunner bRunner
     }
 }
     
-    public void measureRead(long blockSize, int numOfBlocks, BenchmarkRunner bRunner) {
+    public void measureRead(long blockSize, int numOfBlocks, BenchmarkRunner bRunner,
+            LatencyHistogram histogram, BufferPool buffers, OffsetGenerator offsets, IoPacer pacer) {
         long totalBytesRead = 0;
         File testFile = getTestFile(bRunner);
+        ChannelCache cache = getChannelCache(bRunner);
         long startTime = System.nanoTime();
-        long byteAlignment = bRunner.config.sectorAlignment.bytes;
-        if (byteAlignment <= 0) {
-            // if not selected use default layout alignment
-            MemoryLayout layout = MemoryLayout.sequenceLayout(blockSize, ValueLayout.JAVA_BYTE);
-            byteAlignment = layout.byteAlignment();
+        
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.READ);
+        if (App.directEnable) {
+            options.add(ExtendedOpenOption.DIRECT); // non-standard api
         }
         
+        FileChannel initialFc = openChannelWithFallback(testFile, options, cache, bRunner);
+        if (initialFc == null) {
+            return;
+        }
+        if (!bRunner.config.timeOpenClose) {
+            startTime = System.nanoTime();
+        }
+        
+        int batch = Math.min(Math.min(bRunner.config.vectorBatch, numOfBlocks), buffers.size());
+        FileChannel fc = initialFc;
+        try {
+            if (batch > 1) {
+                totalBytesRead = transferVectored(fc, Type.READ, buffers, blockSize,
+                        numOfBlocks, batch, bRunner, histogram, offsets, pacer);
+            } else {
+                for (int b = 0; b < numOfBlocks; b++) {
+                    if (isDone(bRunner, startTime)) break;
+                    long blockIndex = offsets.next(b);
+                    long byteOffset = blockIndex * blockSize;
+                    long ioStart = pacer.next();
+                    int read = fc.read(buffers.buffer(0), byteOffset);
+                    histogram.record(System.nanoTime() - ioStart);
+                    verifyBlock(bRunner, buffers.buffer(0), blockIndex);
+                    totalBytesRead += read;
+                    bRunner.updateReadProgress(this);
+                }
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        long elapsedTimeNs = closeChannel(fc, cache, bRunner) - startTime;
+        setResult(elapsedTimeNs, totalBytesRead, blockSize);
+    }
+    
+    /**
+     * Interleaves reads and writes on one channel, each io is a read with a
+     * probability of readPct percent. This sample receives the write results
+     * and readSample the read results, both over the time of the whole
+     * sample so each shows its direction's share under the mix.
+     */
+    public void measureMixed(long blockSize, int numOfBlocks, int readPct, BenchmarkRunner bRunner,
+            Sample readSample, LatencyHistogram writeHistogram, LatencyHistogram readHistogram,
+            BufferPool buffers, OffsetGenerator offsets, IoPacer pacer) {
+        File testFile = getTestFile(bRunner);
+        ChannelCache cache = getChannelCache(bRunner);
+        long startTime = System.nanoTime();
+        
         Set<OpenOption> options = new HashSet<>();
         options.add(StandardOpenOption.READ);
+        options.add(StandardOpenOption.WRITE);
+        options.add(StandardOpenOption.CREATE);
+        if (App.writeSyncEnable) {
+            options.add(StandardOpenOption.DSYNC);
+        }
         if (App.directEnable) {
             options.add(ExtendedOpenOption.DIRECT); // non-standard api
         }
+        FileChannel fc = openChannelWithFallback(testFile, options, cache, bRunner);
+        if (fc == null) {
+            return;
+        }
+        if (!bRunner.config.timeOpenClose) {
+            startTime = System.nanoTime();
+        }
+        
+        long totalBytesWritten = 0;
+        long totalBytesRead = 0;
+        // other threads may be writing the block a read returns unless the files are private
+        boolean verifyReads = bRunner.config.numThreads == 1 || App.multiFile;
+        try {
+            for (int b = 0; b < numOfBlocks; b++) {
+                if (isDone(bRunner, startTime)) break;
+                boolean read = offsets.nextChance(readPct);
+                long blockIndex = offsets.next(b);
+                long byteOffset = blockIndex * blockSize;
+                
+                if (!read) {
+                    buffers.stamp(0);
+                    stampBlock(bRunner, buffers.buffer(0), blockIndex, b);
+                }
+                long ioStart = pacer.next();
+                if (read) {
+                    // reads land in their own slot so the write content is kept
+                    int n = fc.read(buffers.buffer(buffers.size() - 1), byteOffset);
+                    readHistogram.record(System.nanoTime() - ioStart);
+                    if (verifyReads) {
+                        readSample.verifyBlock(bRunner, buffers.buffer(buffers.size() - 1), blockIndex);
+                    }
+                    totalBytesRead += Math.max(n, 0);
+                    bRunner.updateReadProgress(readSample);
+                } else {
+                    int n = fc.write(buffers.buffer(0), byteOffset);
+                    long latencyNs = System.nanoTime() - ioStart;
+                    writeHistogram.record(latencyNs);
+                    recordAllocation(bRunner, blockIndex, 1, latencyNs);
+                    totalBytesWritten += n;
+                    bRunner.updateWriteProgress(this);
+                }
+            }
+        } catch (IOException e) {
+            Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, e);
+        }
+        long elapsedTimeNs = closeChannel(fc, cache, bRunner) - startTime
+                - checksumNs - readSample.checksumNs;
+        setMixedResult(elapsedTimeNs, totalBytesWritten, writeHistogram);
+        readSample.setMixedResult(elapsedTimeNs, totalBytesRead, readHistogram);
+    }
+    
+    /**
+     * Appends records to a log and forces it every commitEvery records, the
+     * commit of a database write ahead log. In single file mode the threads
+     * append to one log at the tail reserved from the runner, so a force
+     * may also carry records of other threads. Latency is recorded per
+     * commit, from the intended start of its first record to the return of
+     * the force.
+     */
+    public void measureCommit(long recordSize, int numOfRecords, int commitEvery, boolean forceMetadata,
+            BenchmarkRunner bRunner, LatencyHistogram histogram, BufferPool buffers, IoPacer pacer) {
+        File testFile = getTestFile(bRunner);
+        ChannelCache cache = getChannelCache(bRunner);
+        long startTime = System.nanoTime();
+        
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.WRITE);
+        options.add(StandardOpenOption.CREATE);
+        if (App.writeSyncEnable) {
+            options.add(StandardOpenOption.DSYNC);
+        }
+        if (bRunner.logDirect) {
+            options.add(ExtendedOpenOption.DIRECT); // non-standard api
+        }
+        FileChannel fc = openChannelWithFallback(testFile, options, cache, bRunner);
+        if (fc == null) {
+            return;
+        }
+        if (!bRunner.config.timeOpenClose) {
+            startTime = System.nanoTime();
+        }
         
-        FileChannel initialFc = null;
+        long totalBytesWritten = 0;
+        long commitStart = 0;
+        int pending = 0;
+        try {
+            for (int r = 0; r < numOfRecords; r++) {
+                if (isDone(bRunner, startTime)) break;
+                if (pending == 0) {
+                    commitStart = pacer.next(commitEvery);
+                }
+                long byteOffset = recordOffset(App.multiFile, r, recordSize, bRunner.logTail);
+                buffers.stamp(0);
+                totalBytesWritten += fc.write(buffers.buffer(0), byteOffset);
+                bRunner.updateWriteProgress(this);
+                if (++pending == commitEvery) {
+                    fc.force(forceMetadata);
+                    histogram.record(System.nanoTime() - commitStart);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                // the records left at the end of a sample commit as a smaller group
+                fc.force(forceMetadata);
+                histogram.record(System.nanoTime() - commitStart);
+            }
+        } catch (IOException e) {
+            Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, e);
+        }
+        long elapsedTimeNs = closeChannel(fc, cache, bRunner) - startTime;
+        setMixedResult(elapsedTimeNs, totalBytesWritten, histogram);
+    }
+    
+    /**
+     * @param ownLog true if the sample appends to its own log, multi file mode
+     * @param record the record of the sample
+     * @param recordSize bytes of a record
+     * @param tail next append offset of the shared log
+     * @return the offset of the record, reserved at the shared tail unless
+     * the log is the sample's own
+     */
+    static long recordOffset(boolean ownLog, int record, long recordSize, AtomicLong tail) {
+        return ownLog ? record * recordSize : tail.getAndAdd(recordSize);
+    }
+    
+    /**
+     * Appends records to the group commit log of the runner as one of its
+     * producers, each append returns once the group holding the record was
+     * forced by the writer. Latency is recorded per record, from its
+     * intended start to the return of the append, so it includes the wait
+     * for the group to fill as well as the write and force.
+     */
+    public void measureGroupCommit(long recordSize, int numOfRecords, BenchmarkRunner bRunner,
+            LatencyHistogram histogram, IoPacer pacer) {
+        long startTime = System.nanoTime();
+        long totalBytesWritten = 0;
         try {
-            initialFc = FileChannel.open(testFile.toPath(), options);
+            for (int r = 0; r < numOfRecords; r++) {
+                if (isDone(bRunner, startTime)) break;
+                long recordStart = pacer.next();
+                bRunner.groupLog.append();
+                histogram.record(System.nanoTime() - recordStart);
+                totalBytesWritten += recordSize;
+                bRunner.updateWriteProgress(this);
+            }
+        } catch (IOException e) {
+            Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        setMixedResult(System.nanoTime() - startTime, totalBytesWritten, histogram);
+    }
+    
+    /**
+     * Sets bandwidth and the mean access time per block from the bytes
+     * actually moved, which differ from the block count in time based and
+     * cancelled samples.
+     */
+    private void setResult(long elapsedTimeNs, long totalBytes, long blockSize) {
+        elapsedTimeNs -= checksumNs;
+        checksumMs = checksumNs / 1_000_000d;
+        long blocks = Math.max(1, totalBytes / blockSize);
+        accessTimeMs = (elapsedTimeNs / 1_000_000d) / blocks;
+        double sec = (double) elapsedTimeNs / 1_000_000_000d;
+        bwMbSec = (double) totalBytes / (double) MEGABYTE / sec;
+    }
+    
+    /**
+     * Stamps a block about to be written when verification is enabled.
+     *
+     * @param ordinal position of the io in the sample, makes the write's
+     * sequence unique
+     */
+    private void stampBlock(BenchmarkRunner bRunner, ByteBuffer block, long blockIndex, long ordinal) {
+        if (bRunner.verifier != null) {
+            checksumNs += bRunner.verifier.stamp(block, sampleNum, blockIndex, ((long) sampleNum << 32) | ordinal);
+        }
+    }
+
+    /** Counts a completed write as allocating or overwriting. */
+    private void recordAllocation(BenchmarkRunner bRunner, long blockIndex, int blocks, long latencyNs) {
+        if (bRunner.allocations != null) {
+            bRunner.allocations.record(sampleNum, blockIndex, blocks, latencyNs);
+        }
+    }
+
+    /** Checks a block read back when verification is enabled. */
+    private void verifyBlock(BenchmarkRunner bRunner, ByteBuffer block, long blockIndex) {
+        if (bRunner.verifier != null) {
+            checksumNs += bRunner.verifier.verify(block, sampleNum, blockIndex);
+        }
+    }
+    
+    /**
+     * @param startTime start of the sample window in nanoTime
+     * @return true once the sample should issue no further io: the run was
+     * cancelled, a time based sample used its window or the operation hit
+     * its duration cap
+     */
+    private static boolean isDone(BenchmarkRunner bRunner, long startTime) {
+        long windowNs = bRunner.sampleWindowNs();
+        return bRunner.listener.isCancelled()
+                || (windowNs > 0 && System.nanoTime() - startTime >= windowNs)
+                || bRunner.isOperationExpired();
+    }
+    
+    /**
+     * Sets bandwidth and the access time as the mean latency recorded in
+     * the histogram, per io of one direction of a mixed sample, per commit
+     * of a log sample or per record of a group commit sample.
+     */
+    private void setMixedResult(long elapsedTimeNs, long bytes, LatencyHistogram histogram) {
+        checksumMs = checksumNs / 1_000_000d;
+        accessTimeMs = histogram.getMeanNs() / 1_000_000d;
+        double sec = (double) elapsedTimeNs / 1_000_000_000d;
+        bwMbSec = (double) bytes / (double) MEGABYTE / sec;
+    }
+    
+    /**
+     * Channels stay cached for the operation only in single file mode and
+     * when open/close is excluded from timing.
+     */
+    private ChannelCache getChannelCache(BenchmarkRunner bRunner) {
+        return (App.multiFile || bRunner.config.timeOpenClose) ? null : bRunner.channelCache;
+    }
+    
+    private static FileChannel openChannel(File testFile, Set<OpenOption> options,
+            ChannelCache cache) throws IOException {
+        return cache != null ? cache.open(testFile.toPath(), options)
+                : FileChannel.open(testFile.toPath(), options);
+    }
+    
+    /**
+     * Opens the sample channel, falling back to buffered I/O if direct I/O
+     * was requested but refused. The fallback is counted on the runner so
+     * the result shows the operation was not fully direct.
+     *
+     * @return the channel or null if it could not be opened
+     */
+    private static FileChannel openChannelWithFallback(File testFile, Set<OpenOption> options,
+            ChannelCache cache, BenchmarkRunner bRunner) {
+        try {
+            return openChannel(testFile, options, cache);
         } catch (UnsupportedOperationException | IOException e) {
             // If direct I/O was requested, try falling back to buffered I/O
             if (App.directEnable && options.contains(ExtendedOpenOption.DIRECT)) {
-                App.err("Direct I/O open failed or unsupported: " + e.getMessage() + ". Falling back to buffered I/O.");
+                bRunner.recordBufferedFallback("Direct I/O open failed or unsupported: " + e.getMessage());
                 options.remove(ExtendedOpenOption.DIRECT);
                 try {
-                    initialFc = FileChannel.open(testFile.toPath(), options);
+                    return openChannel(testFile, options, cache);
                 } catch (IOException ex) {
                     Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, "Failed to open FileChannel on fallback", ex);
                     App.err("Failed to open FileChannel, aborting measurement");
-                    return;
+                    return null;
                 }
             } else {
                 // If it wasn't a Direct I/O issue, it's a fatal IO error (e.g., disk full, permissions)
                 Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, "Fatal error opening FileChannel", e);
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Closes a channel that is not cached. The close is part of the sample
+     * only when open/close timing is enabled.
+     *
+     * @return the sample end time in nanoseconds
+     */
+    private static long closeChannel(FileChannel fc, ChannelCache cache, BenchmarkRunner bRunner) {
+        long endTime = System.nanoTime();
+        if (cache == null) {
+            try {
+                fc.close();
+            } catch (IOException e) {
+                Logger.getLogger(Sample.class.getName()).log(Level.WARNING, "Failed to close FileChannel", e);
+            }
+            if (bRunner.config.timeOpenClose) {
+                endTime = System.nanoTime();
+            }
+        }
+        return endTime;
+    }
+    
+    /**
+     * Moves batch contiguous blocks per gathering write or scattering read so
+     * the syscall cost is paid once per batch instead of once per block. The
+     * offset generator picks batches rather than blocks, so in random orders
+     * each batch starts at a batch aligned block. Latency is recorded per
+     * call, i.e. for the whole batch.
+     *
+     * @return bytes transferred
+     */
+    private long transferVectored(FileChannel fc, Type ioType, BufferPool pool, long blockSize,
+            int numOfBlocks, int batch, BenchmarkRunner bRunner,
+            LatencyHistogram histogram, OffsetGenerator offsets, IoPacer pacer) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[batch];
+        long totalBytes = 0;
+        long workingSetBlocks = bRunner.config.getWorkingSetBlocks();
+        long startTime = System.nanoTime();
+        for (int b = 0; b < numOfBlocks; b += batch) {
+            if (isDone(bRunner, startTime)) break;
+            int count = Math.min(batch, numOfBlocks - b);
+            // the generator addresses whole batches, the clamp keeps a batch inside the working set
+            long blockIndex = Math.min(offsets.next(b / batch) * batch, workingSetBlocks - count);
+            long expected = count * blockSize;
+            for (int i = 0; i < count; i++) {
+                if (ioType == Type.WRITE) {
+                    pool.stamp(i);
+                    stampBlock(bRunner, pool.buffer(i), blockIndex + i, b + i);
+                }
+                buffers[i] = pool.buffer(i);
+            }
+            fc.position(blockIndex * blockSize);
+
+            long ioStart = pacer.next(count);
+            long transferred = 0;
+            // a vectored call may transfer less than requested
+            while (transferred < expected) {
+                long n = switch (ioType) {
+                    case WRITE -> fc.write(buffers, 0, count);
+                    case READ -> fc.read(buffers, 0, count);
+                };
+                if (n < 0) break; // end of file
+                transferred += n;
+            }
+            long latencyNs = System.nanoTime() - ioStart;
+            histogram.record(latencyNs);
+            if (ioType == Type.WRITE) {
+                recordAllocation(bRunner, blockIndex, count, latencyNs);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    verifyBlock(bRunner, pool.buffer(i), blockIndex + i);
+                }
+            }
+            totalBytes += transferred;
+            for (int i = 0; i < count; i++) {
+                switch (ioType) {
+                    case WRITE -> bRunner.updateWriteProgress(this);
+                    case READ -> bRunner.updateReadProgress(this);
+                }
+            }
+        }
+        return totalBytes;
+    }
+    
+    public void measureWriteAsync(long blockSize, int numOfBlocks, int ioDepth,
+            BenchmarkRunner bRunner, LatencyHistogram histogram, BufferPool buffers,
+            OffsetGenerator offsets, IoPacer pacer) {
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.WRITE);
+        options.add(StandardOpenOption.CREATE);
+        if (App.writeSyncEnable) {
+            options.add(StandardOpenOption.DSYNC);
+        }
+        measureAsync(Type.WRITE, options, blockSize, numOfBlocks, ioDepth, bRunner, histogram, buffers, offsets, pacer);
+    }
+    
+    public void measureReadAsync(long blockSize, int numOfBlocks, int ioDepth,
+            BenchmarkRunner bRunner, LatencyHistogram histogram, BufferPool buffers,
+            OffsetGenerator offsets, IoPacer pacer) {
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.READ);
+        measureAsync(Type.READ, options, blockSize, numOfBlocks, ioDepth, bRunner, histogram, buffers, offsets, pacer);
+    }
+    
+    /**
+     * Keeps up to ioDepth positional transfers in flight on an
+     * AsynchronousFileChannel. Completion handlers only hand the finished slot
+     * back to this worker thread, so latency and progress accounting stay
+     * single threaded and every slot reuses its own aligned buffer.
+     */
+    private void measureAsync(Type ioType, Set<OpenOption> options, long blockSize,
+            int numOfBlocks, int ioDepth, BenchmarkRunner bRunner, LatencyHistogram histogram,
+            BufferPool buffers, OffsetGenerator offsets, IoPacer pacer) {
+        File testFile = getTestFile(bRunner);
+        long startTime = System.nanoTime();
+        
+        if (App.directEnable) {
+            options.add(ExtendedOpenOption.DIRECT); // non-standard api
+        }
+        AsynchronousFileChannel initialAfc = null;
+        try {
+            initialAfc = AsynchronousFileChannel.open(testFile.toPath(), options, null);
+        } catch (UnsupportedOperationException | IOException e) {
+            // If direct I/O was requested, try falling back to buffered I/O
+            if (App.directEnable && options.contains(ExtendedOpenOption.DIRECT)) {
+                bRunner.recordBufferedFallback("Direct I/O open failed or unsupported: " + e.getMessage());
+                options.remove(ExtendedOpenOption.DIRECT);
+                try {
+                    initialAfc = AsynchronousFileChannel.open(testFile.toPath(), options, null);
+                } catch (IOException ex) {
+                    Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, "Failed to open AsynchronousFileChannel on fallback", ex);
+                    App.err("Failed to open AsynchronousFileChannel, aborting measurement");
+                    return;
+                }
+            } else {
+                Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, "Fatal error opening AsynchronousFileChannel", e);
                 return;
             }
         }
         
-        try (FileChannel fc = initialFc; Arena arena = Arena.ofConfined()) {
-            MemorySegment segment = arena.allocate(blockSize, byteAlignment);
+        int depth = Math.max(1, Math.min(Math.min(ioDepth, numOfBlocks), buffers.size()));
+        long[] submitNs = new long[depth];
+        long[] slotBlocks = new long[depth];
+        long[] completeNs = new long[depth];
+        int[] transferred = new int[depth];
+        Throwable[] failures = new Throwable[depth];
+        ArrayBlockingQueue<Integer> completions = new ArrayBlockingQueue<>(depth);
+        CompletionHandler<Integer, Integer> handler = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer result, Integer slot) {
+                completeNs[slot] = System.nanoTime();
+                transferred[slot] = result;
+                completions.offer(slot);
+            }
+            @Override
+            public void failed(Throwable exc, Integer slot) {
+                completeNs[slot] = System.nanoTime();
+                failures[slot] = exc;
+                completions.offer(slot);
+            }
+        };
+        
+        long totalBytes = 0;
+        try (AsynchronousFileChannel afc = initialAfc) {
+            int nextBlock = 0;
+            int inFlight = 0;
+            Throwable failure = null;
+            boolean interrupted = false;
+            for (int slot = 0; slot < depth; slot++) {
+                submitAsync(afc, ioType, slot, nextBlock++, numOfBlocks, blockSize,
+                        buffers, submitNs, slotBlocks, handler, offsets, pacer);
+                inFlight++;
+            }
+            // every submitted transfer must complete before the buffers are reused
+            while (inFlight > 0) {
+                int slot;
+                try {
+                    slot = completions.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    continue;
+                }
+                inFlight--;
+                if (failures[slot] != null) {
+                    failure = failures[slot];
+                    continue;
+                }
+                histogram.record(completeNs[slot] - submitNs[slot]);
+                totalBytes += transferred[slot];
+                switch (ioType) {
+                    case WRITE -> {
+                        recordAllocation(bRunner, slotBlocks[slot], 1, completeNs[slot] - submitNs[slot]);
+                        bRunner.updateWriteProgress(this);
+                    }
+                    case READ -> bRunner.updateReadProgress(this);
+                }
+                if (failure == null && !interrupted && nextBlock < numOfBlocks
+                        && !isDone(bRunner, startTime)) {
+                    submitAsync(afc, ioType, slot, nextBlock++, numOfBlocks, blockSize,
+                            buffers, submitNs, slotBlocks, handler, offsets, pacer);
+                    inFlight++;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw new IOException("Async " + ioType + " failed", failure);
+            }
+        } catch (IOException e) {
+            Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, e);
+        }
+        long elapsedTimeNs = System.nanoTime() - startTime;
+        setResult(elapsedTimeNs, totalBytes, blockSize);
+    }
+    
+    /**
+     * Maps the test file and writes each block as a memory copy into the
+     * mapping. Dirty pages are flushed with force() before the sample ends
+     * when write sync is enabled, so msync cost is part of the sample.
+     */
+    public void measureWriteMmap(long blockSize, int numOfBlocks, BenchmarkRunner bRunner,
+            LatencyHistogram histogram, BufferPool buffers, OffsetGenerator offsets, IoPacer pacer) {
+        long totalBytesWritten = 0;
+        File testFile = getTestFile(bRunner);
+        long startTime = System.nanoTime();
+        
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.READ); // required for a read write mapping
+        options.add(StandardOpenOption.WRITE);
+        options.add(StandardOpenOption.CREATE);
+        try (FileChannel fc = FileChannel.open(testFile.toPath(), options);
+                Arena arena = Arena.ofConfined()) {
+            MemorySegment mapped = fc.map(FileChannel.MapMode.READ_WRITE, 0,
+                    blockSize * bRunner.config.getWorkingSetBlocks(), arena);
+            MemorySegment block = buffers.segment(0);
             for (int b = 0; b < numOfBlocks; b++) {
-                if (bRunner.listener.isCancelled()) break;
-                long blockIndex = (bRunner.config.blockOrder == RANDOM) ? Util.randInt(0, (int)(numOfBlocks - 1)) : b;
+                if (isDone(bRunner, startTime)) break;
+                long blockIndex = offsets.next(b);
                 long byteOffset = blockIndex * blockSize;
-                int read = fc.read(segment.asByteBuffer(), byteOffset);
-                totalBytesRead += read;
-                bRunner.updateReadProgress();
+
+                buffers.stamp(0);
+                long ioStart = pacer.next();
+                MemorySegment.copy(block, 0, mapped, byteOffset, blockSize);
+                long latencyNs = System.nanoTime() - ioStart;
+                histogram.record(latencyNs);
+                recordAllocation(bRunner, blockIndex, 1, latencyNs);
+                totalBytesWritten += blockSize;
+                bRunner.updateWriteProgress(this);
+            }
+            if (App.writeSyncEnable) {
+                mapped.force();
+            }
+        } catch (IOException e) {
+            Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, e);
+        }
+        long elapsedTimeNs = System.nanoTime() - startTime;
+        setResult(elapsedTimeNs, totalBytesWritten, blockSize);
+    }
+    
+    /**
+     * Maps the test file read only and copies each block out of the
+     * mapping, so uncached blocks are read through page faults.
+     */
+    public void measureReadMmap(long blockSize, int numOfBlocks, BenchmarkRunner bRunner,
+            LatencyHistogram histogram, BufferPool buffers, OffsetGenerator offsets, IoPacer pacer) {
+        long totalBytesRead = 0;
+        File testFile = getTestFile(bRunner);
+        long startTime = System.nanoTime();
+        
+        try (FileChannel fc = FileChannel.open(testFile.toPath(), StandardOpenOption.READ);
+                Arena arena = Arena.ofConfined()) {
+            long mapSize = Math.min(fc.size(), blockSize * bRunner.config.getWorkingSetBlocks());
+            MemorySegment mapped = fc.map(FileChannel.MapMode.READ_ONLY, 0, mapSize, arena);
+            MemorySegment block = buffers.segment(0);
+            for (int b = 0; b < numOfBlocks; b++) {
+                if (isDone(bRunner, startTime)) break;
+                long blockIndex = offsets.next(b);
+                long byteOffset = blockIndex * blockSize;
+                if (byteOffset + blockSize > mapSize) {
+                    throw new IOException("Test file shorter than mapped read at offset " + byteOffset);
+                }
+                long ioStart = pacer.next();
+                MemorySegment.copy(mapped, byteOffset, block, 0, blockSize);
+                histogram.record(System.nanoTime() - ioStart);
+                totalBytesRead += blockSize;
+                bRunner.updateReadProgress(this);
             }
         } catch (IOException ex) {
             Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, ex);
         }
         long elapsedTimeNs = System.nanoTime() - startTime;
-        accessTimeMs = (elapsedTimeNs / 1_000_000f) / (float) numOfBlocks;
-        double sec = (double) elapsedTimeNs / 1_000_000_000d;
-        bwMbSec = ((double) totalBytesRead / (double) MEGABYTE) / sec;
+        setResult(elapsedTimeNs, totalBytesRead, blockSize);
     }
-}
\ No newline at end of file
+    
+    public void measureWriteIoUring(long blockSize, int numOfBlocks, int ioDepth,
+            BenchmarkRunner bRunner, LatencyHistogram histogram, BufferPool buffers,
+            IoUring ring, OffsetGenerator offsets, IoPacer pacer) {
+        int flags = IoUring.O_WRONLY | IoUring.O_CREAT;
+        if (App.writeSyncEnable) {
+            flags |= IoUring.O_DSYNC;
+        }
+        measureIoUring(Type.WRITE, flags, blockSize, numOfBlocks, ioDepth, bRunner, histogram,
+                buffers, ring, offsets, pacer);
+    }
+    
+    public void measureReadIoUring(long blockSize, int numOfBlocks, int ioDepth,
+            BenchmarkRunner bRunner, LatencyHistogram histogram, BufferPool buffers,
+            IoUring ring, OffsetGenerator offsets, IoPacer pacer) {
+        measureIoUring(Type.READ, IoUring.O_RDONLY, blockSize, numOfBlocks, ioDepth, bRunner,
+                histogram, buffers, ring, offsets, pacer);
+    }
+    
+    /**
+     * Keeps up to ioDepth transfers in flight on the io_uring of the worker.
+     * New requests are queued as soon as their slot completes and handed to
+     * the kernel together by the next io_uring_enter, or one by one when a
+     * pacer releases them so none waits past its intended start. The ring
+     * is set up and its buffers registered once per worker and operation,
+     * without a ring the sample runs on the MODERN engine.
+     */
+    private void measureIoUring(Type ioType, int flags, long blockSize, int numOfBlocks,
+            int ioDepth, BenchmarkRunner bRunner, LatencyHistogram histogram, BufferPool buffers,
+            IoUring ring, OffsetGenerator offsets, IoPacer pacer) {
+        if (ring == null) {
+            switch (ioType) {
+                case WRITE -> measureWrite(blockSize, numOfBlocks, bRunner, histogram, buffers, offsets, pacer);
+                case READ -> measureRead(blockSize, numOfBlocks, bRunner, histogram, buffers, offsets, pacer);
+            }
+            return;
+        }
+        File testFile = getTestFile(bRunner);
+        int depth = BenchmarkRunner.ioUringDepth(ioDepth, numOfBlocks, buffers);
+        
+        boolean write = ioType == Type.WRITE;
+        long[] submitNs = new long[depth];
+        long[] slotBlocks = new long[depth];
+        long totalBytes = 0;
+        long startTime = System.nanoTime();
+        try {
+            int fd = IoUring.openFile(testFile.toPath(), App.directEnable ? flags | IoUring.O_DIRECT : flags);
+            if (fd < 0 && App.directEnable) {
+                bRunner.recordBufferedFallback("Direct I/O open failed or unsupported: errno=" + -fd);
+                fd = IoUring.openFile(testFile.toPath(), flags);
+            }
+            if (fd < 0) {
+                App.err("Failed to open " + testFile + " for io_uring, aborting measurement");
+                throw new IOException("open failed, errno=" + -fd);
+            }
+            try {
+                int nextBlock = 0;
+                int inFlight = 0;
+                int failure = 0;
+                for (int slot = 0; slot < depth; slot++) {
+                    queueIoUring(ring, write, fd, slot, nextBlock++, numOfBlocks, blockSize,
+                            buffers, submitNs, slotBlocks, offsets, pacer);
+                    inFlight++;
+                }
+                while (inFlight > 0) {
+                    ring.submit(1);
+                    while (ring.reapCompletion()) {
+                        long now = System.nanoTime();
+                        int slot = (int) ring.completedUserData;
+                        int result = ring.completedResult;
+                        inFlight--;
+                        if (result < 0) {
+                            failure = -result;
+                            continue;
+                        }
+                        histogram.record(now - submitNs[slot]);
+                        totalBytes += result;
+                        switch (ioType) {
+                            case WRITE -> {
+                                recordAllocation(bRunner, slotBlocks[slot], 1, now - submitNs[slot]);
+                                bRunner.updateWriteProgress(this);
+                            }
+                            case READ -> bRunner.updateReadProgress(this);
+                        }
+                        if (failure == 0 && nextBlock < numOfBlocks
+                                && !isDone(bRunner, startTime)) {
+                            queueIoUring(ring, write, fd, slot, nextBlock++, numOfBlocks, blockSize,
+                                    buffers, submitNs, slotBlocks, offsets, pacer);
+                            inFlight++;
+                        }
+                    }
+                }
+                if (failure != 0) {
+                    throw new IOException("io_uring " + ioType + " failed, errno=" + failure);
+                }
+            } finally {
+                IoUring.closeFile(fd);
+            }
+        } catch (IOException e) {
+            Logger.getLogger(Sample.class.getName()).log(Level.SEVERE, null, e);
+        }
+        long elapsedTimeNs = System.nanoTime() - startTime;
+        setResult(elapsedTimeNs, totalBytes, blockSize);
+    }
+    
+    private void queueIoUring(IoUring ring, boolean write, int fd, int slot, int b,
+            int numOfBlocks, long blockSize, BufferPool buffers, long[] submitNs, long[] slotBlocks,
+            OffsetGenerator offsets, IoPacer pacer) throws IOException {
+        long blockIndex = offsets.next(b);
+        long byteOffset = blockIndex * blockSize;
+        slotBlocks[slot] = blockIndex;
+        if (write) buffers.stamp(slot);
+        submitNs[slot] = pacer.next();
+        // ring holds depth entries and each slot has at most one in flight
+        ring.queue(write, fd, buffers.segment(slot), slot, blockSize, byteOffset, slot);
+        if (pacer.isOpenLoop()) {
+            ring.submit(0); // the pacer may park before the next enter
+        }
+    }
+    
+    private void submitAsync(AsynchronousFileChannel afc, Type ioType, int slot, int b,
+            int numOfBlocks, long blockSize, BufferPool buffers, long[] submitNs, long[] slotBlocks,
+            CompletionHandler<Integer, Integer> handler, OffsetGenerator offsets, IoPacer pacer) {
+        long blockIndex = offsets.next(b);
+        long byteOffset = blockIndex * blockSize;
+        slotBlocks[slot] = blockIndex;
+        if (ioType == Type.WRITE) buffers.stamp(slot);
+        ByteBuffer buffer = buffers.buffer(slot);
+        submitNs[slot] = pacer.next();
+        switch (ioType) {
+            case WRITE -> afc.write(buffer, byteOffset, slot, handler);
+            case READ -> afc.read(buffer, byteOffset, slot, handler);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package jdiskmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import jdiskmark.Benchmark.BenchmarkType;
+
+/**
+ * Finds the saturation knee of a device, the lowest concurrency that
+ * delivers nearly the peak IOPS. Concurrency is doubled until a doubling
+ * gains less than GAIN or the limit is reached, then the interval where the
+ * IOPS cross KNEE_FRACTION of the peak is bisected. Past the knee added
+ * concurrency only queues, latency grows while IOPS stay flat.
+ */
+public class SaturationSearch {
+
+    // a doubling that gains less than this is saturated
+    static final double GAIN = 0.10;
+    // the knee delivers at least this share of the peak IOPS
+    static final double KNEE_FRACTION = 0.90;
+    // bisection stops once the interval is this share of its lower end
+    static final double RESOLUTION = 0.125;
+
+    /** One measured point of the throughput / latency curve. */
+    public record Point(int concurrency, double iops, double latencyMs, double p99Ms) {}
+
+    /** Measures the device at a concurrency. */
+    @FunctionalInterface
+    public interface Probe {
+        Point measure(int concurrency) throws Exception;
+    }
+
+    private final int maxConcurrency;
+    private final List<Point> curve = new ArrayList<>();
+    private Point knee;
+
+    /** @param maxConcurrency upper end of the ramp, at least 1 */
+    public SaturationSearch(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    /**
+     * Runs the ramp and the bisection.
+     *
+     * @param probe measures one concurrency, returns null when cancelled
+     * @return the knee, null if nothing was measured
+     * @throws Exception if a probe fails
+     */
+    public Point run(Probe probe) throws Exception {
+        // geometric ramp
+        Point previous = null;
+        for (int c = 1; c <= maxConcurrency; c = c <= maxConcurrency / 2 ? c * 2 : maxConcurrency + 1) {
+            Point p = measure(probe, c);
+            if (p == null) break;
+            if (previous != null && p.iops() < previous.iops() * (1 + GAIN)) break;
+            previous = p;
+        }
+        if (curve.isEmpty()) return null;
+        double target = KNEE_FRACTION * peak().iops();
+        // the ramp points around the crossing of the target
+        Point hi = null;
+        Point lo = null;
+        for (Point p : sorted()) {
+            if (p.iops() >= target) {
+                hi = p;
+                break;
+            }
+            lo = p;
+        }
+        // bisection between the last point below and the first point above
+        while (lo != null && hi.concurrency() - lo.concurrency() > Math.max(1, RESOLUTION * lo.concurrency())) {
+            Point mid = measure(probe, (lo.concurrency() + hi.concurrency()) / 2);
+            if (mid == null) break;
+            if (mid.iops() >= target) {
+                hi = mid;
+            } else {
+                lo = mid;
+            }
+        }
+        knee = hi;
+        return knee;
+    }
+
+    private Point measure(Probe probe, int concurrency) throws Exception {
+        Point p = probe.measure(concurrency);
+        if (p != null) curve.add(p);
+        return p;
+    }
+
+    private Point peak() {
+        return curve.stream().max(Comparator.comparingDouble(Point::iops)).orElseThrow();
+    }
+
+    private List<Point> sorted() {
+        return curve.stream().sorted(Comparator.comparingInt(Point::concurrency)).toList();
+    }
+
+    /** @return the measured points by concurrency */
+    public List<Point> getCurve() {
+        return sorted();
+    }
+
+    public Point getKnee() {
+        return knee;
+    }
+
+    /**
+     * @param concurrency the concurrency the benchmark ran at
+     * @param benchmark a finished benchmark
+     * @return the point of the benchmark, the operations summed for MIXED
+     * and the first operation otherwise
+     */
+    static Point point(int concurrency, Benchmark benchmark) {
+        List<BenchmarkOperation> ops = benchmark.getOperations();
+        if (ops.isEmpty()) return new Point(concurrency, 0, 0, 0);
+        if (benchmark.getConfig().benchmarkType != BenchmarkType.MIXED) {
+            BenchmarkOperation op = ops.get(0);
+            return new Point(concurrency, op.getIops(), op.getLatency(), op.getLatencyP99());
+        }
+        double iops = 0;
+        double weighted = 0;
+        double p99 = 0;
+        for (BenchmarkOperation op : ops) {
+            iops += op.getIops();
+            weighted += op.getIops() * op.getLatency();
+            p99 = Math.max(p99, op.getLatencyP99());
+        }
+        return new Point(concurrency, iops, iops > 0 ? weighted / iops : 0, p99);
+    }
+}
@@ -0,0 +1,140 @@
+package jdiskmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the highest IOPS a device sustains while a latency percentile stays
+ * within a limit. A closed loop run measures the ceiling, when it misses
+ * the limit the open loop rate is bisected between zero and the ceiling. A
+ * rate passes when the percentile meets the limit and the device kept up
+ * with the schedule, latency is measured from the scheduled start so a
+ * device falling behind shows the queueing delay it causes.
+ */
+public class SloSearch {
+
+    // a rate is sustained when the device delivers this share of it
+    static final double SUSTAIN = 0.95;
+    // bisection stops once the interval is this share of the ceiling
+    static final double RESOLUTION = 0.05;
+
+    /**
+     * One measured rate.
+     *
+     * @param targetIops the open loop rate, 0 for the closed loop ceiling
+     * @param iops the IOPS delivered
+     * @param latencyMs the latency at the SLO percentile
+     */
+    public record Point(double targetIops, double iops, double latencyMs) {}
+
+    /** Measures the device at an open loop rate, 0 for closed loop. */
+    @FunctionalInterface
+    public interface Probe {
+        Point measure(double targetIops) throws Exception;
+    }
+
+    private final double latencyLimitMs;
+    private final int maxIterations;
+    private final List<Point> curve = new ArrayList<>();
+    private Point best;
+
+    /**
+     * @param latencyLimitMs the latency the percentile must not exceed
+     * @param maxIterations the most rates tried after the ceiling
+     */
+    public SloSearch(double latencyLimitMs, int maxIterations) {
+        this.latencyLimitMs = latencyLimitMs;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param probe measures one rate, returns null when cancelled
+     * @return the highest passing point, null if no rate met the SLO
+     * @throws Exception if a probe fails
+     */
+    public Point run(Probe probe) throws Exception {
+        Point ceiling = measure(probe, 0);
+        if (ceiling == null) return null;
+        if (meets(ceiling)) {
+            best = ceiling;
+            return best;
+        }
+        double lo = 0;
+        double hi = ceiling.iops();
+        for (int i = 0; i < maxIterations && hi - lo > RESOLUTION * ceiling.iops(); i++) {
+            double rate = Math.max(1, Math.round((lo + hi) / 2));
+            Point p = measure(probe, rate);
+            if (p == null) break;
+            if (passes(p)) {
+                lo = rate;
+                if (best == null || p.iops() > best.iops()) best = p;
+            } else {
+                hi = rate;
+            }
+        }
+        return best;
+    }
+
+    private Point measure(Probe probe, double rate) throws Exception {
+        Point p = probe.measure(rate);
+        if (p != null) curve.add(p);
+        return p;
+    }
+
+    boolean meets(Point p) {
+        return p.latencyMs() <= latencyLimitMs;
+    }
+
+    /** @return true if the point met the SLO at a rate the device kept up with */
+    boolean passes(Point p) {
+        return meets(p) && (p.targetIops() == 0 || p.iops() >= SUSTAIN * p.targetIops());
+    }
+
+    /** @return the measured rates, the closed loop ceiling last */
+    public List<Point> getCurve() {
+        return curve.stream()
+                .sorted(Comparator.comparingDouble(p -> p.targetIops() == 0 ? Double.MAX_VALUE : p.targetIops()))
+                .toList();
+    }
+
+    public Point getBest() {
+        return best;
+    }
+
+    /**
+     * @param percentile one of 50, 99, 99.9 or 100 for the maximum
+     * @param op a finished operation
+     * @return the latency of the operation at the percentile
+     */
+    static double latencyAt(double percentile, BenchmarkOperation op) {
+        if (percentile == 50) return op.getLatencyP50();
+        if (percentile == 99) return op.getLatencyP99();
+        if (percentile == 99.9) return op.getLatencyP999();
+        if (percentile == 100) return op.getLatencyMax();
+        throw new IllegalArgumentException("Unsupported SLO percentile: " + percentile
+                + ", expected 50, 99, 99.9 or 100");
+    }
+
+    /**
+     * @param targetIops the rate the benchmark ran at
+     * @param percentile the SLO percentile
+     * @param benchmark a finished benchmark
+     * @return the point of the benchmark, the IOPS summed over the
+     * operations and the worst latency of any operation
+     */
+    static Point point(double targetIops, double percentile, Benchmark benchmark) {
+        double iops = 0;
+        double latency = 0;
+        for (BenchmarkOperation op : benchmark.getOperations()) {
+            iops += op.getIops();
+            latency = Math.max(latency, latencyAt(percentile, op));
+        }
+        if (benchmark.getConfig().benchmarkType == Benchmark.BenchmarkType.READ_WRITE
+                && !benchmark.getOperations().isEmpty()) {
+            // the phases run one after the other, each at the rate
+            iops /= benchmark.getOperations().size();
+        }
+        return new Point(targetIops, iops, latency);
+    }
+}
@@ -0,0 +1,68 @@
+package jdiskmark;
+
+/**
+ * Steady state criterion of the SNIA Solid State Storage Performance Test
+ * Specification. Over a window of the last five rounds the values must stay
+ * within 20% of the window average and the least squares fit through them
+ * must change by no more than 10% of the average across the window.
+ */
+public class SteadyStateDetector {
+
+    public static final int WINDOW = 5;
+    // largest allowed max - min of the window relative to its average
+    static final double MAX_EXCURSION = 0.20;
+    // largest allowed change of the fitted line across the window
+    static final double MAX_SLOPE_EXCURSION = 0.10;
+
+    private final double[] window = new double[WINDOW];
+    private int rounds;
+
+    /** @param value the result of the next round, e.g. its IOPS */
+    public void add(double value) {
+        System.arraycopy(window, 1, window, 0, WINDOW - 1);
+        window[WINDOW - 1] = value;
+        rounds++;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /** @return the average of the window, or of the rounds so far */
+    public double getAverage() {
+        int n = Math.min(rounds, WINDOW);
+        double sum = 0;
+        for (int i = WINDOW - n; i < WINDOW; i++) {
+            sum += window[i];
+        }
+        return n == 0 ? 0 : sum / n;
+    }
+
+    /** @return the slope of the least squares line through the window per round */
+    double getSlope() {
+        double xAvg = (WINDOW - 1) / 2d;
+        double yAvg = getAverage();
+        double num = 0;
+        double den = 0;
+        for (int x = 0; x < WINDOW; x++) {
+            num += (x - xAvg) * (window[x] - yAvg);
+            den += (x - xAvg) * (x - xAvg);
+        }
+        return num / den;
+    }
+
+    /** @return true once a full window meets both excursion limits */
+    public boolean isSteady() {
+        if (rounds < WINDOW) return false;
+        double avg = getAverage();
+        if (avg <= 0) return false;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (double v : window) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        return max - min <= MAX_EXCURSION * avg
+                && Math.abs(getSlope()) * (WINDOW - 1) <= MAX_SLOPE_EXCURSION * avg;
+    }
+}
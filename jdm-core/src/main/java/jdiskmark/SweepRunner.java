@@ -0,0 +1,212 @@
+package jdiskmark;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import jdiskmark.BenchmarkSweep.SweepType;
+
+/**
+ * Runs the benchmarks of a sweep. A grid sweep runs one benchmark per cell
+ * of the block size x thread count x queue depth grid, a saturation sweep
+ * the probes of a SaturationSearch and an SLO sweep the rates of an
+ * SloSearch. Every benchmark runs the configured
+ * benchmark with the swept parameters replaced and the same seed, so they
+ * differ only by those parameters. Caches are dropped between benchmarks
+ * when the process may do it without asking.
+ */
+public class SweepRunner {
+
+    private final BenchmarkRunner.BenchmarkListener listener;
+    private final boolean canDropCache = App.isRoot || App.isAdmin;
+    private int runs = 0;
+
+    public SweepRunner(BenchmarkRunner.BenchmarkListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the sweep holding the benchmarks of the cells that ran
+     * @throws Exception if a cell fails
+     */
+    public BenchmarkSweep run() throws Exception {
+        int[] blockSizes = App.sweepBlockSizesKb != null ? App.sweepBlockSizesKb : new int[] {App.blockSizeKb};
+        if (App.sweepBlockSizesKb != null && App.ioSizeBytes() != (long) App.blockSizeKb * App.KILOBYTE) {
+            App.msg("block size axis ignored, the records are " + App.ioSizeBytes() + " bytes");
+            blockSizes = new int[] {App.blockSizeKb};
+        }
+        int[] threads = App.sweepThreads != null ? App.sweepThreads : new int[] {App.numOfThreads};
+        int[] ioDepths = new int[] {App.ioDepth};
+        if (App.sweepIoDepths != null) {
+            if (App.ioEngine.hasIoDepth()) {
+                ioDepths = App.sweepIoDepths;
+            } else {
+                App.msg("queue depth axis ignored, the " + App.ioEngine + " engine has no queue depth");
+            }
+        }
+        BenchmarkSweep sweep = new BenchmarkSweep(blockSizes, threads, ioDepths);
+        sweep.startTime = LocalDateTime.now();
+        int cells = blockSizes.length * threads.length * ioDepths.length;
+        Long savedSeed = fixSeed();
+        try {
+            sweep:
+            for (int kb : blockSizes) {
+                for (int t : threads) {
+                    for (int qd : ioDepths) {
+                        if (listener.isCancelled()) break sweep;
+                        App.msg("sweep cell " + (runs + 1) + "/" + cells + ": " + kb + " KB blocks, "
+                                + t + " threads, iodepth " + qd);
+                        sweep.add(runAt(kb, t, qd));
+                    }
+                }
+            }
+        } finally {
+            App.randomSeed = savedSeed;
+        }
+        finish(sweep);
+        return sweep;
+    }
+
+    /**
+     * Ramps the concurrency to find the saturation knee. Engines with a
+     * queue depth ramp the depth of the configured threads, the others ramp
+     * the threads, at most one thread per sample.
+     *
+     * @return the sweep holding a benchmark per probe and the knee
+     * @throws Exception if a probe fails
+     */
+    public BenchmarkSweep findKnee() throws Exception {
+        boolean rampDepth = App.ioEngine.hasIoDepth();
+        int threads = App.numOfThreads;
+        TreeSet<Integer> threadCounts = new TreeSet<>();
+        TreeSet<Integer> ioDepths = new TreeSet<>();
+        BenchmarkSweep sweep = new BenchmarkSweep();
+        sweep.type = SweepType.SATURATION;
+        sweep.startTime = LocalDateTime.now();
+        int maxConcurrency = App.kneeMaxConcurrency;
+        if (!rampDepth && maxConcurrency > App.numOfSamples) {
+            // each thread runs a range of the samples, threads beyond the samples stay idle
+            maxConcurrency = Math.max(1, App.numOfSamples);
+            App.msg("thread ramp capped at " + maxConcurrency
+                    + " threads, one per sample, raise the sample count to ramp further");
+        }
+        SaturationSearch search = new SaturationSearch(maxConcurrency);
+        Long savedSeed = fixSeed();
+        try {
+            search.run(c -> {
+                if (listener.isCancelled()) return null;
+                int t = rampDepth ? threads : c;
+                int qd = rampDepth ? c : App.ioDepth;
+                App.msg("saturation probe " + (runs + 1) + ": " + t + " threads, iodepth " + qd);
+                Benchmark b = runAt(App.blockSizeKb, t, qd);
+                sweep.add(b);
+                threadCounts.add(t);
+                ioDepths.add(qd);
+                return SaturationSearch.point(c, b);
+            });
+        } finally {
+            App.randomSeed = savedSeed;
+        }
+        sweep.blockSizesKb = String.valueOf(App.blockSizeKb);
+        sweep.threadCounts = join(threadCounts);
+        sweep.ioDepths = join(ioDepths);
+        SaturationSearch.Point knee = search.getKnee();
+        if (knee != null) {
+            sweep.kneeThreads = rampDepth ? threads : knee.concurrency();
+            sweep.kneeIoDepth = rampDepth ? knee.concurrency() : App.ioDepth;
+            sweep.kneeIops = knee.iops();
+            sweep.kneeLatencyMs = knee.latencyMs();
+            sweep.kneeP99Ms = knee.p99Ms();
+        }
+        finish(sweep);
+        return sweep;
+    }
+
+    /**
+     * Searches the highest open loop rate meeting the latency SLO with the
+     * configured block size, threads and queue depth.
+     *
+     * @return the sweep holding a benchmark per rate tried and the result
+     * @throws Exception if a run fails
+     */
+    public BenchmarkSweep findSloMax() throws Exception {
+        double percentile = App.sloPercentile;
+        SloSearch.latencyAt(percentile, new BenchmarkOperation()); // rejects unsupported percentiles early
+        BenchmarkSweep sweep = new BenchmarkSweep(new int[] {App.blockSizeKb},
+                new int[] {App.numOfThreads}, new int[] {App.ioDepth});
+        sweep.type = SweepType.SLO;
+        sweep.sloPercentile = percentile;
+        sweep.sloLatencyMs = App.sloLatencyMs;
+        sweep.startTime = LocalDateTime.now();
+        SloSearch search = new SloSearch(App.sloLatencyMs, App.sloIterations);
+        long savedTargetIops = App.targetIops;
+        double savedTargetMbSec = App.targetMbSec;
+        Long savedSeed = fixSeed();
+        try {
+            search.run(rate -> {
+                if (listener.isCancelled()) return null;
+                App.targetIops = Math.round(rate);
+                App.targetMbSec = 0;
+                App.msg("slo probe " + (runs + 1) + ": "
+                        + (rate == 0 ? "closed loop" : App.targetIops + " IOPS"));
+                Benchmark b = runAt(App.blockSizeKb, App.numOfThreads, App.ioDepth);
+                sweep.add(b);
+                return SloSearch.point(App.targetIops, percentile, b);
+            });
+        } finally {
+            App.targetIops = savedTargetIops;
+            App.targetMbSec = savedTargetMbSec;
+            App.randomSeed = savedSeed;
+        }
+        SloSearch.Point best = search.getBest();
+        if (best != null) {
+            sweep.sloMet = true;
+            sweep.sloTargetIops = Math.round(best.targetIops());
+            sweep.sloIops = best.iops();
+            sweep.sloMeasuredMs = best.latencyMs();
+        }
+        finish(sweep);
+        return sweep;
+    }
+
+    /** Runs the configured benchmark with the three parameters replaced. */
+    private Benchmark runAt(int blockSizeKb, int threads, int ioDepth) throws Exception {
+        int savedBlockSizeKb = App.blockSizeKb;
+        int savedThreads = App.numOfThreads;
+        int savedIoDepth = App.ioDepth;
+        try {
+            App.blockSizeKb = blockSizeKb;
+            App.numOfThreads = threads;
+            App.ioDepth = ioDepth;
+            if (runs++ > 0 && canDropCache) {
+                listener.attemptCacheDrop();
+            }
+            Benchmark benchmark = new BenchmarkRunner(listener, App.getConfig()).execute();
+            App.nextSampleNumber += App.numOfSamples;
+            return benchmark;
+        } finally {
+            App.blockSizeKb = savedBlockSizeKb;
+            App.numOfThreads = savedThreads;
+            App.ioDepth = savedIoDepth;
+        }
+    }
+
+    /** @return the configured seed, the sweep runs on one seed until it is restored */
+    private static Long fixSeed() {
+        Long saved = App.randomSeed;
+        if (App.randomSeed == null) {
+            App.randomSeed = new SplittableRandom().nextLong();
+        }
+        return saved;
+    }
+
+    private void finish(BenchmarkSweep sweep) {
+        if (!canDropCache && runs > 1) {
+            App.msg("caches were not dropped between benchmarks, run as root or admin to drop them");
+        }
+        sweep.endTime = LocalDateTime.now();
+    }
+
+    private static String join(TreeSet<Integer> values) {
+        return values.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElse("");
+    }
+}
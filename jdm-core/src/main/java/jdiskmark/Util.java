@@ -11,7 +11,6 @@ import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import javax.swing.filechooser.FileSystemView;
 
 /**
@@ -42,28 +41,6 @@ public class Util {
         return (path.delete());
     }
     
-    /**
-     * Returns a pseudo-random number between min and max, inclusive.
-     * The difference between min and max can be at most
-     * <code>Integer.MAX_VALUE - 1</code>.
-     *
-     * @param min Minimum value
-     * @param max Maximum value.  Must be greater than min.
-     * @return Integer between min and max, inclusive.
-     * @see java.util.Random#nextInt(int)
-     */
-    public static int randInt(int min, int max) {
-
-        // Usually this can be a field rather than a method variable
-        Random rand = new Random();
-
-        // nextInt is normally exclusive of the top value,
-        // so add 1 to make it inclusive
-        int randomNum = rand.nextInt((max - min) + 1) + min;
-
-        return randomNum;
-    }
-    
     /*
      * Not used kept here for reference.
      */
@@ -104,6 +81,52 @@ public class Util {
         return DF.format(num);
     }
     
+    /**
+     * Parses a byte size with an optional binary unit suffix, e.g. 512M, 4G
+     * or 2T. A plain number is bytes.
+     * 
+     * @param size the size text
+     * @return the size in bytes
+     * @throws IllegalArgumentException if the text is not a valid size
+     */
+    public static long parseByteSize(String size) {
+        String s = size.trim().toUpperCase();
+        if (s.endsWith("B")) s = s.substring(0, s.length() - 1);
+        long unit = 1;
+        if (!s.isEmpty()) {
+            switch (s.charAt(s.length() - 1)) {
+                case 'K' -> unit = App.KILOBYTE;
+                case 'M' -> unit = App.MEGABYTE;
+                case 'G' -> unit = App.GIGABYTE;
+                case 'T' -> unit = App.TERABYTE;
+                default -> unit = 1;
+            }
+            if (unit > 1) s = s.substring(0, s.length() - 1);
+        }
+        try {
+            long value = Long.parseLong(s.trim());
+            if (value < 0) throw new NumberFormatException("negative");
+            return Math.multiplyExact(value, unit);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid size: " + size, e);
+        }
+    }
+    
+    /**
+     * @param bytes a size in bytes
+     * @return the size in the largest binary unit that divides it, e.g. 2T
+     */
+    public static String formatByteSize(long bytes) {
+        long[] units = {App.TERABYTE, App.GIGABYTE, App.MEGABYTE, App.KILOBYTE};
+        String[] names = {"T", "G", "M", "K"};
+        for (int i = 0; i < units.length; i++) {
+            if (bytes >= units[i] && bytes % units[i] == 0) {
+                return (bytes / units[i]) + names[i];
+            }
+        }
+        return String.valueOf(bytes);
+    }
+    
     /**
      * Gets the drive type string for a root file such as C:\
      * 
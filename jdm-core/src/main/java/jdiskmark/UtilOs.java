@@ -8,6 +8,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.RandomAccessFile;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -285,6 +286,39 @@ public class UtilOs {
         return deviceNames;
     }
     
+    /**
+     * On Linux read the block sizes of a device from its request queue in
+     * sysfs, a partition uses the queue of its parent device.
+     * Example: /sys/class/block/sda/queue/logical_block_size contains 512
+     * @param device the device name ie. sda or nvme0n1p1
+     * @return the geometry or null if the queue could not be read
+     */
+    static public BlockGeometry getBlockGeometryLinux(String device) {
+        try {
+            Path dev = Path.of("/sys/class/block", device).toRealPath();
+            Path queue = dev.resolve("queue");
+            if (!Files.isDirectory(queue)) {
+                queue = dev.getParent().resolve("queue");
+            }
+            return BlockGeometry.parse(device,
+                    readSysFile(queue.resolve("logical_block_size")),
+                    readSysFile(queue.resolve("physical_block_size")),
+                    readSysFile(queue.resolve("optimal_io_size")),
+                    readSysFile(queue.resolve("rotational")));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "no block queue for " + device, e);
+            return null;
+        }
+    }
+    
+    private static String readSysFile(Path file) {
+        try {
+            return Files.readString(file).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
     /**
      * On Linux OS use the lsblk command to get the disk model number for a 
      * specific Device ie. /dev/sda
@@ -651,6 +685,37 @@ public class UtilOs {
         }
     }
     
+    /**
+     * On Linux OS read the calling thread's page fault counters so a sample
+     * only sees the faults its own worker caused.
+     * @return {minor, major} fault counts or null if not available
+     */
+    static public long[] getPageFaultsLinux() {
+        Path stat = Path.of("/proc/thread-self/stat");
+        if (!Files.isReadable(stat)) {
+            stat = Path.of("/proc/self/stat");
+        }
+        try {
+            return parsePageFaultsLinux(Files.readString(stat));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * $ cat /proc/thread-self/stat
+     * 4242 (java) S 1 4242 4242 0 -1 4194368 1520 0 3 0 ...
+     * minflt and majflt are fields 10 and 12, counted after the comm field
+     * which may itself contain spaces.
+     * @param statLine content of a stat file
+     * @return {minor, major} fault counts
+     */
+    static long[] parsePageFaultsLinux(String statLine) {
+        String[] parts = statLine.substring(statLine.lastIndexOf(')') + 1).trim().split("\\s+");
+        // parts[0] is field 3 (state)
+        return new long[] { Long.parseLong(parts[7]), Long.parseLong(parts[9]) };
+    }
+    
     /**
      * $ df -h /home/james
      * Filesystem      Size  Used Avail Use% Mounted on
@@ -0,0 +1,88 @@
+package jdiskmark;
+
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for splitting writes into allocating writes and overwrites.
+ * Pure logic, no I/O required.
+ */
+class AllocationTrackerTest {
+
+    @Test
+    void firstWriteAllocates_secondOverwrites() {
+        AllocationTracker t = new AllocationTracker(16, 0, 1);
+        t.record(0, 3, 1, 100);
+        t.record(0, 3, 1, 10);
+        assertEquals(1, t.getAllocatingWrites());
+        assertEquals(100, t.getAllocatingNs());
+        assertEquals(1, t.getOverwrites());
+        assertEquals(10, t.getOverwriteNs());
+    }
+
+    @Test
+    void blocksBelowAllocatedLength_overwrite() {
+        AllocationTracker t = new AllocationTracker(16, 0, 1);
+        t.setAllocatedBlocks(0, 8);
+        t.record(0, 7, 1, 1);
+        t.record(0, 8, 1, 1);
+        assertEquals(1, t.getOverwrites());
+        assertEquals(1, t.getAllocatingWrites());
+    }
+
+    @Test
+    void vectoredWrite_allocatesIfAnyBlockIsNew() {
+        AllocationTracker t = new AllocationTracker(16, 0, 1);
+        t.record(0, 0, 2, 1);
+        t.record(0, 1, 2, 1);
+        t.record(0, 0, 3, 1);
+        assertEquals(2, t.getAllocatingWrites());
+        assertEquals(1, t.getOverwrites());
+    }
+
+    @Test
+    void multiFile_tracksFilesApart() {
+        AllocationTracker t = new AllocationTracker(16, 10, 2);
+        t.setAllocatedBlocks(0, 16);
+        t.record(10, 5, 1, 1);
+        t.record(11, 5, 1, 1);
+        assertEquals(1, t.getOverwrites());
+        assertEquals(1, t.getAllocatingWrites());
+    }
+
+    @Test
+    void extents_mergeOverlappingAndAdjacentWrites() {
+        TreeMap<Long, Long> extents = new TreeMap<>();
+        assertTrue(AllocationTracker.add(extents, 10, 12));
+        assertTrue(AllocationTracker.add(extents, 14, 16));
+        assertFalse(AllocationTracker.add(extents, 10, 11), "inside an extent");
+        assertTrue(AllocationTracker.add(extents, 12, 14), "fills the gap");
+        assertEquals(1, extents.size());
+        assertEquals(16, extents.get(10L));
+        assertTrue(AllocationTracker.add(extents, 8, 20), "extends both ends");
+        assertEquals(1, extents.size());
+        assertEquals(20, extents.get(8L));
+        assertFalse(AllocationTracker.add(extents, 8, 20));
+    }
+
+    @Test
+    void sequentialWrites_keepOneExtent_hugeWorkingSet() {
+        // 2^40 blocks would need 128 GiB as a bitmap
+        AllocationTracker t = new AllocationTracker(1L << 40, 0, 1);
+        for (long b = 0; b < 1000; b++) {
+            t.record(0, b, 1, 1);
+        }
+        t.record(0, (1L << 40) - 1, 1, 1);
+        assertEquals(1001, t.getAllocatingWrites());
+        assertEquals(2, t.getExtents());
+    }
+
+    @Test
+    void maxExtents_boundedByWritesOrAlternateBlocks() {
+        assertEquals(100, AllocationTracker.maxExtents(1L << 40, 1, 100));
+        assertEquals(8, AllocationTracker.maxExtents(16, 1, 100));
+        assertEquals(16, AllocationTracker.maxExtents(16, 2, 0));
+        assertTrue(AllocationTracker.maxExtents(1L << 40, 1, 0) > AllocationTracker.MAX_EXTENTS);
+    }
+}
@@ -0,0 +1,45 @@
+package jdiskmark;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the sweep axes and cell lookup. Pure logic, no I/O required.
+ */
+class BenchmarkSweepTest {
+
+    @Test
+    void parseAxis_list() {
+        assertArrayEquals(new int[] {4, 64, 1024}, BenchmarkSweep.parseAxis("4, 64,1024"));
+    }
+
+    @Test
+    void parseAxis_doublingRange() {
+        assertArrayEquals(new int[] {1, 2, 4, 8, 16}, BenchmarkSweep.parseAxis("1..20"));
+    }
+
+    @Test
+    void parseAxis_rejectsNonPositive() {
+        assertThrows(IllegalArgumentException.class, () -> BenchmarkSweep.parseAxis("0,4"));
+        assertThrows(IllegalArgumentException.class, () -> BenchmarkSweep.parseAxis("8..4"));
+        assertThrows(IllegalArgumentException.class, () -> BenchmarkSweep.parseAxis("four"));
+    }
+
+    @Test
+    void cell_findsOperationByParameters() {
+        BenchmarkSweep sweep = new BenchmarkSweep(new int[] {4}, new int[] {1, 2}, new int[] {1});
+        for (int threads : new int[] {1, 2}) {
+            BenchmarkConfig config = new BenchmarkConfig();
+            config.blockSize = 4L * App.KILOBYTE;
+            config.numThreads = threads;
+            Benchmark b = new Benchmark(config);
+            BenchmarkOperation op = new BenchmarkOperation();
+            op.ioMode = Benchmark.IOMode.WRITE;
+            op.iops = threads * 100;
+            b.operations.add(op);
+            sweep.add(b);
+        }
+        assertEquals(200, sweep.cell(Benchmark.IOMode.WRITE, 4, 2, 1).iops);
+        assertNull(sweep.cell(Benchmark.IOMode.READ, 4, 2, 1));
+    }
+}
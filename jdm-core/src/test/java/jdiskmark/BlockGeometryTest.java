@@ -0,0 +1,51 @@
+package jdiskmark;
+
+import jdiskmark.App.SectorAlignment;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the parsing of the sysfs block queue attributes and the
+ * alignment chosen from them. Pure logic, no I/O required.
+ */
+class BlockGeometryTest {
+
+    @Test
+    void parse_readsQueueAttributes() {
+        BlockGeometry g = BlockGeometry.parse("sda", "512\n", "4096\n", "0\n", "1\n");
+        assertEquals(512, g.getLogicalBlockSize());
+        assertEquals(4096, g.getPhysicalBlockSize());
+        assertEquals(0, g.getOptimalIoSize());
+        assertTrue(g.isRotational());
+    }
+
+    @Test
+    void parse_missingLogicalSize_returnsNull_missingOthersDefault() {
+        assertNull(BlockGeometry.parse("sda", null, "4096", "0", "0"));
+        assertNull(BlockGeometry.parse("sda", "n/a", "4096", "0", "0"));
+        BlockGeometry g = BlockGeometry.parse("nvme0n1", "4096", null, null, null);
+        assertEquals(4096, g.getPhysicalBlockSize(), "physical is at least logical");
+        assertFalse(g.isRotational());
+    }
+
+    @Test
+    void merge_takesStrictestMember() {
+        BlockGeometry a = BlockGeometry.parse("sda", "512", "512", "0", "0");
+        BlockGeometry b = BlockGeometry.parse("sdb", "4096", "4096", "65536", "1");
+        BlockGeometry m = a.merge(b);
+        assertEquals(4096, m.getLogicalBlockSize());
+        assertEquals(65536, m.getOptimalIoSize());
+        assertTrue(m.isRotational());
+        assertEquals("sda:sdb", m.devices);
+    }
+
+    @Test
+    void alignmentFor_raisesToNeededBytes_keepsLargerConfigured() {
+        assertEquals(SectorAlignment.ALIGN_4K, BlockGeometry.alignmentFor(SectorAlignment.NONE, 4096));
+        assertEquals(SectorAlignment.ALIGN_4K, BlockGeometry.alignmentFor(SectorAlignment.ALIGN_512, 4096));
+        assertEquals(SectorAlignment.ALIGN_8K, BlockGeometry.alignmentFor(SectorAlignment.ALIGN_512, 5000));
+        assertEquals(SectorAlignment.ALIGN_64K, BlockGeometry.alignmentFor(SectorAlignment.ALIGN_64K, 4096));
+        // larger than any alignment, the largest is used
+        assertEquals(SectorAlignment.ALIGN_64K, BlockGeometry.alignmentFor(SectorAlignment.ALIGN_4K, 1 << 20));
+    }
+}
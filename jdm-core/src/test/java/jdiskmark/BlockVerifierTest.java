@@ -0,0 +1,105 @@
+package jdiskmark;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for block stamping and verification. Pure logic, no I/O required.
+ */
+class BlockVerifierTest {
+
+    private static final int BLOCK = 4096;
+
+    private static ByteBuffer stamped(BlockVerifier v, int sample, long block) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(BLOCK);
+        for (int i = BlockVerifier.HEADER_BYTES; i < BLOCK; i++) buf.put(i, (byte) i);
+        v.stamp(buf, sample, block, 1);
+        return buf;
+    }
+
+    @Test
+    void intactBlock_verifies() {
+        BlockVerifier v = new BlockVerifier(7, 16, 0, 1);
+        v.verify(stamped(v, 0, 3), 0, 3);
+        assertEquals(1, v.getVerifiedBlocks());
+        assertEquals(0, v.getErrors());
+    }
+
+    @Test
+    void unwrittenBlock_isSkipped() {
+        BlockVerifier v = new BlockVerifier(7, 16, 0, 1);
+        v.verify(ByteBuffer.allocateDirect(BLOCK), 0, 5);
+        assertEquals(1, v.getUnwrittenBlocks());
+        assertEquals(0, v.getErrors());
+    }
+
+    @Test
+    void flippedPayloadBit_failsChecksum() {
+        BlockVerifier v = new BlockVerifier(7, 16, 0, 1);
+        ByteBuffer buf = stamped(v, 0, 3);
+        buf.put(1000, (byte) (buf.get(1000) ^ 1));
+        v.verify(buf, 0, 3);
+        assertEquals(1, v.getErrors());
+    }
+
+    @Test
+    void misdirectedBlock_fails() {
+        BlockVerifier v = new BlockVerifier(7, 16, 0, 1);
+        stamped(v, 0, 4);
+        v.verify(stamped(v, 0, 3), 0, 4);
+        assertEquals(1, v.getErrors());
+    }
+
+    @Test
+    void staleBlockFromEarlierRun_fails() {
+        BlockVerifier earlier = new BlockVerifier(6, 16, 0, 1);
+        BlockVerifier v = new BlockVerifier(7, 16, 0, 1);
+        stamped(v, 0, 3);
+        v.verify(stamped(earlier, 0, 3), 0, 3);
+        assertEquals(1, v.getErrors());
+    }
+
+    @Test
+    void crc_directAndHeapBlocksAgree() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(BLOCK);
+        ByteBuffer heap = ByteBuffer.allocate(BLOCK);
+        for (int i = 0; i < BLOCK; i++) {
+            direct.put(i, (byte) (i * 31));
+            heap.put(i, (byte) (i * 31));
+        }
+        assertEquals(BlockVerifier.crc(heap), BlockVerifier.crc(direct));
+        assertEquals(BlockVerifier.crc(heap), BlockVerifier.crc(direct), "reused checksum is reset");
+    }
+
+    @Test
+    void sharedArenaBlock_copiedOnlyIfCrc32cRejectsIt() {
+        try (BufferPool pool = new BufferPool(BLOCK, BLOCK, 1)) {
+            ByteBuffer buf = pool.buffer(0);
+            boolean rejected;
+            try {
+                new CRC32C().update(buf.duplicate());
+                rejected = false;
+            } catch (UnsupportedOperationException e) {
+                rejected = true; // JDK 21 refuses views of closeable shared arenas
+            }
+            BlockVerifier v = new BlockVerifier(7, 16, 0, 1);
+            for (int i = BlockVerifier.HEADER_BYTES; i < BLOCK; i++) buf.put(i, (byte) i);
+            v.stamp(buf, 0, 3, 1);
+            v.verify(buf, 0, 3);
+            assertEquals(1, v.getVerifiedBlocks());
+            assertEquals(!rejected, BlockVerifier.checksumsInPlace());
+        }
+    }
+
+    @Test
+    void multiFile_tracksBlocksPerSample() {
+        BlockVerifier v = new BlockVerifier(7, 16, 10, 4);
+        ByteBuffer buf = stamped(v, 11, 3);
+        v.verify(buf, 12, 3); // same block of another sample's file was never written
+        assertEquals(1, v.getUnwrittenBlocks());
+        v.verify(buf, 11, 3);
+        assertEquals(1, v.getVerifiedBlocks());
+    }
+}
@@ -0,0 +1,107 @@
+package jdiskmark;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import jdiskmark.Benchmark.DataPattern;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the write buffer content patterns.
+ */
+class DataGeneratorTest {
+
+    private static final int BLOCK = 64 * 1024;
+
+    private static byte[] generate(DataPattern pattern, double ratio) {
+        MemorySegment block = Arena.ofAuto().allocate(BLOCK);
+        new DataGenerator(pattern, ratio, 42).fill(block);
+        return block.toArray(ValueLayout.JAVA_BYTE);
+    }
+
+    private static double deflateRatio(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] out = new byte[data.length * 2];
+        int len = deflater.deflate(out);
+        deflater.end();
+        return (double) data.length / len;
+    }
+
+    @Test
+    void zero_isAllZeros() {
+        for (byte b : generate(DataPattern.ZERO, 1)) {
+            assertEquals(0, b);
+        }
+    }
+
+    @Test
+    void random_isIncompressible() {
+        assertTrue(deflateRatio(generate(DataPattern.RANDOM, 1)) < 1.01);
+    }
+
+    @Test
+    void compressible_approachesTargetRatio() {
+        for (double ratio : new double[] {2, 4}) {
+            assertEquals(ratio, deflateRatio(generate(DataPattern.COMPRESSIBLE, ratio)), ratio * 0.15);
+        }
+    }
+
+    @Test
+    void unique_stampsEvery4kDifferently() {
+        DataGenerator g = new DataGenerator(DataPattern.UNIQUE, 1, 42);
+        MemorySegment block = Arena.ofAuto().allocate(BLOCK);
+        g.fill(block);
+        g.stamp(block);
+        byte[] first = block.toArray(ValueLayout.JAVA_BYTE);
+        g.stamp(block);
+        byte[] second = block.toArray(ValueLayout.JAVA_BYTE);
+        for (int off = 0; off < BLOCK; off += DataGenerator.UNIQUE_STRIDE) {
+            assertNotEquals(block.get(ValueLayout.JAVA_LONG_UNALIGNED, off),
+                    MemorySegment.ofArray(first).get(ValueLayout.JAVA_LONG_UNALIGNED, off));
+        }
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    @Test
+    void stamp_isNoOpForOtherPatterns() {
+        DataGenerator g = new DataGenerator(DataPattern.RANDOM, 1, 42);
+        MemorySegment block = Arena.ofAuto().allocate(BLOCK);
+        g.fill(block);
+        byte[] before = block.toArray(ValueLayout.JAVA_BYTE);
+        g.stamp(block);
+        assertArrayEquals(before, block.toArray(ValueLayout.JAVA_BYTE));
+    }
+
+    /** 32 successive 4 KiB writes of one buffer, a 128 KiB compression record */
+    private static byte[] record(DataPattern pattern) {
+        int block = 4096;
+        DataGenerator g = new DataGenerator(pattern, 1, 42);
+        byte[] record = new byte[32 * block];
+        try (BufferPool pool = new BufferPool(block, block, 1)) {
+            pool.fill(g, g.newRegion(Arena.ofAuto(), block));
+            for (int w = 0; w < 32; w++) {
+                pool.stamp(0);
+                MemorySegment.copy(pool.segment(0), ValueLayout.JAVA_BYTE, 0, record, w * block, block);
+            }
+        }
+        return record;
+    }
+
+    @Test
+    void pool_successiveWritesOfARecordAreIncompressible() {
+        assertTrue(deflateRatio(record(DataPattern.RANDOM)) < 1.01);
+        assertTrue(deflateRatio(record(DataPattern.UNIQUE)) < 1.01);
+    }
+
+    @Test
+    void newRegion_zeroHasNone_othersCoverTwoBlocks() {
+        assertNull(new DataGenerator(DataPattern.ZERO, 1, 42).newRegion(Arena.ofAuto(), BLOCK));
+        long big = DataGenerator.REGION_BYTES;
+        assertEquals(2 * big, new DataGenerator(DataPattern.RANDOM, 1, 42).newRegion(Arena.ofAuto(), big).byteSize());
+    }
+}
@@ -0,0 +1,115 @@
+package jdiskmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the batching of the group commit writer against an in
+ * memory sink. Pure logic, no I/O required.
+ */
+class GroupCommitLogTest {
+
+    /** Runs producers appending the given records each and returns the group sizes. */
+    static List<Integer> run(int producers, int records, int maxBatch, long maxWaitNs) throws Exception {
+        List<Integer> groups = new ArrayList<>();
+        GroupCommitLog log = new GroupCommitLog(n -> {
+            synchronized (groups) {
+                groups.add(n);
+            }
+        }, producers, maxBatch, maxWaitNs);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            futures.add(executor.submit(() -> {
+                for (int r = 0; r < records; r++) {
+                    log.append();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        executor.shutdown();
+        log.close();
+        assertEquals((long) producers * records, log.getRecords());
+        assertEquals(groups.size(), log.getGroups());
+        return groups;
+    }
+
+    @Test
+    void everyRecordIsCommittedOnce() throws Exception {
+        List<Integer> groups = run(8, 200, 64, 1_000_000);
+        assertEquals(1600, groups.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void groupsNeverExceedMaxBatch() throws Exception {
+        List<Integer> groups = run(8, 100, 3, 10_000_000);
+        assertTrue(groups.stream().allMatch(n -> n <= 3), "groups " + groups);
+    }
+
+    @Test
+    void singleProducer_commitsEachRecordAlone() throws Exception {
+        // the only producer waits in its group, so the group does not wait for more
+        long start = System.nanoTime();
+        List<Integer> groups = run(1, 20, 64, 1_000_000_000L);
+        assertTrue(groups.stream().allMatch(n -> n == 1));
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    @Test
+    void groupIsHeldUntilMaxWait() throws Exception {
+        GroupCommitLog log = new GroupCommitLog(n -> {}, 4, 64, 50_000_000L);
+        long start = System.nanoTime();
+        log.append(); // 3 of the 4 producers never append
+        assertTrue(System.nanoTime() - start >= 50_000_000L);
+        assertEquals(1, log.getGroups());
+        log.close();
+    }
+
+    @Test
+    void sinkFailure_failsWaitingAndLaterAppends() throws Exception {
+        CountDownLatch committed = new CountDownLatch(1);
+        GroupCommitLog log = new GroupCommitLog(n -> {
+            committed.countDown();
+            throw new IOException("disk full");
+        }, 1, 1, 0);
+        assertThrows(IOException.class, log::append);
+        assertEquals(0, committed.getCount());
+        assertThrows(IOException.class, log::append);
+        log.close();
+    }
+
+    @Test
+    void interruptedClose_throwsUncheckedAndKeepsInterrupt() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GroupCommitLog log = new GroupCommitLog(n -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }, 1, 1, 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> producer = executor.submit(() -> {
+            log.append();
+            return null;
+        });
+        entered.await();
+        Thread.currentThread().interrupt();
+        assertThrows(IllegalStateException.class, log::close);
+        assertTrue(Thread.interrupted(), "the interrupt status is restored");
+        release.countDown();
+        producer.get();
+        executor.shutdown();
+        log.close();
+    }
+}
@@ -0,0 +1,50 @@
+package jdiskmark;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the open loop io scheduler.
+ */
+class IoPacerTest {
+
+    @Test
+    void closedLoop_returnsCurrentTime() {
+        IoPacer pacer = IoPacer.forRate(0, 4);
+        assertFalse(pacer.isOpenLoop());
+        long before = System.nanoTime();
+        long start = pacer.next();
+        assertTrue(start >= before && start <= System.nanoTime());
+    }
+
+    @Test
+    void forRate_splitsRateAcrossWorkers() {
+        assertEquals(4_000_000, IoPacer.forRate(1000, 4).getIntervalNs());
+    }
+
+    @Test
+    void openLoop_startsFollowScheduleNotCompletion() throws InterruptedException {
+        IoPacer pacer = new IoPacer(1_000_000);
+        pacer.start();
+        long first = pacer.next();
+        // a slow io delays the actual start but not the intended ones
+        Thread.sleep(20);
+        long second = pacer.next();
+        long third = pacer.next(4);
+        long fourth = pacer.next();
+        assertEquals(1_000_000, second - first);
+        assertEquals(1_000_000, third - second);
+        assertEquals(4_000_000, fourth - third);
+        assertTrue(System.nanoTime() >= fourth);
+    }
+
+    @Test
+    void start_restartsScheduleAtNextIo() throws InterruptedException {
+        IoPacer pacer = new IoPacer(1_000_000);
+        pacer.start();
+        long first = pacer.next();
+        Thread.sleep(20);
+        pacer.start();
+        assertTrue(pacer.next() - first >= 20_000_000);
+    }
+}
@@ -0,0 +1,74 @@
+package jdiskmark;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ring offsets and the submission entry encoding of the
+ * io_uring binding. Pure logic, no I/O required.
+ */
+class IoUringTest {
+
+    @Test
+    void sqeOffset_wrapsAtTheRingSize() {
+        int mask = 7; // 8 entries
+        assertEquals(0, IoUring.sqeOffset(0, mask));
+        assertEquals(3 * IoUring.SQE_SIZE, IoUring.sqeOffset(3, mask));
+        assertEquals(0, IoUring.sqeOffset(8, mask));
+        assertEquals(7 * IoUring.SQE_SIZE, IoUring.sqeOffset(-1, mask), "the tail wraps past Integer.MAX_VALUE");
+        assertEquals(2 * IoUring.SQE_SIZE, IoUring.sqeOffset(Integer.MIN_VALUE + 2, mask));
+    }
+
+    @Test
+    void cqeOffset_startsAtTheCqesOffset() {
+        assertEquals(256, IoUring.cqeOffset(256, 0, 15));
+        assertEquals(256 + 5 * IoUring.CQE_SIZE, IoUring.cqeOffset(256, 21, 15));
+    }
+
+    @Test
+    void opcode_fixedOnlyWithRegisteredBuffers() {
+        assertEquals(IoUring.IORING_OP_WRITE, IoUring.opcode(true, false));
+        assertEquals(IoUring.IORING_OP_READ, IoUring.opcode(false, false));
+        assertEquals(IoUring.IORING_OP_WRITE_FIXED, IoUring.opcode(true, true));
+        assertEquals(IoUring.IORING_OP_READ_FIXED, IoUring.opcode(false, true));
+    }
+
+    @Test
+    void encodeSqe_fieldsAtTheirKernelOffsets() {
+        MemorySegment sqes = Arena.ofAuto().allocate(2L * IoUring.SQE_SIZE, 8);
+        sqes.fill((byte) 0x5a); // stale content of a reused entry
+        long base = IoUring.SQE_SIZE;
+        IoUring.encodeSqe(sqes, base, IoUring.IORING_OP_WRITE_FIXED, 9, 1L << 40,
+                0x7f00_1234_5000L, 1 << 20, 42, 3);
+        assertEquals(IoUring.IORING_OP_WRITE_FIXED, sqes.get(JAVA_BYTE, base));
+        assertEquals(0, sqes.get(JAVA_BYTE, base + 1), "flags");
+        assertEquals(0, sqes.get(JAVA_SHORT, base + 2), "ioprio");
+        assertEquals(9, sqes.get(JAVA_INT, base + 4));
+        assertEquals(1L << 40, sqes.get(JAVA_LONG, base + 8));
+        assertEquals(0x7f00_1234_5000L, sqes.get(JAVA_LONG, base + 16));
+        assertEquals(1 << 20, sqes.get(JAVA_INT, base + 24));
+        assertEquals(0, sqes.get(JAVA_INT, base + 28), "rw_flags");
+        assertEquals(42, sqes.get(JAVA_LONG, base + 32));
+        assertEquals(3, sqes.get(JAVA_SHORT, base + 40));
+        for (long off = 42; off < IoUring.SQE_SIZE; off++) {
+            assertEquals(0, sqes.get(JAVA_BYTE, base + off), "byte " + off);
+        }
+        assertEquals((byte) 0x5a, sqes.get(JAVA_BYTE, base - 1), "the previous entry is untouched");
+    }
+
+    @Test
+    void encodeSqe_regularOpLeavesBufferIndexZero() {
+        MemorySegment sqes = Arena.ofAuto().allocate(IoUring.SQE_SIZE, 8);
+        sqes.fill((byte) 0x5a);
+        IoUring.encodeSqe(sqes, 0, IoUring.IORING_OP_READ, 3, 0, 0x1000, 4096, 7, -1);
+        assertEquals(IoUring.IORING_OP_READ, sqes.get(JAVA_BYTE, 0));
+        assertEquals(0, sqes.get(JAVA_SHORT, 40));
+    }
+}
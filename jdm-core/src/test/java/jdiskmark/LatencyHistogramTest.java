@@ -0,0 +1,125 @@
+package jdiskmark;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyHistogram bucketing, percentiles and encoding.
+ * Pure logic, no I/O required.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void indexFor_bucketsAreContiguous() {
+        // every bucket upper bound must map back to the same bucket and the
+        // next value must start the following bucket
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT - 1; i++) {
+            long high = LatencyHistogram.highestValueAt(i);
+            assertEquals(i, LatencyHistogram.indexFor(high));
+            assertEquals(i + 1, LatencyHistogram.indexFor(high + 1));
+        }
+    }
+
+    @Test
+    void getValueAtPercentile_uniformValues_withinRelativeError() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            h.record(v * 1_000); // 1 us .. 100 ms
+        }
+        assertEquals(100_000, h.getTotalCount());
+        assertEquals(50_000_000, h.getValueAtPercentile(50), 50_000_000 * 0.035);
+        assertEquals(99_000_000, h.getValueAtPercentile(99), 99_000_000 * 0.035);
+        assertEquals(99_900_000, h.getValueAtPercentile(99.9), 99_900_000 * 0.035);
+        assertEquals(100_000_000, h.getMaxNs());
+    }
+
+    @Test
+    void getValueAtPercentile_tailSpike_isVisibleAtP99() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < 985; i++) h.record(100_000);     // 0.1 ms
+        for (int i = 0; i < 15; i++) h.record(50_000_000);   // 50 ms stalls
+        assertTrue(h.getValueAtPercentile(50) < 110_000);
+        assertTrue(h.getValueAtPercentile(99) > 45_000_000,
+                "1.5% of I/Os stalled so p99 must reflect the stall, not the average");
+    }
+
+    @Test
+    void getValueAtPercentile_empty_returnsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getValueAtPercentile(99));
+        assertEquals(0, h.getMinNs());
+    }
+
+    @Test
+    void record_valueAboveRange_clampsToLastBucket() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE);
+        assertEquals(1, h.counts[LatencyHistogram.BUCKET_COUNT - 1]);
+        assertEquals(Long.MAX_VALUE, h.getMaxNs());
+    }
+
+    @Test
+    void add_mergesCountsAndExtremes() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(1_000);
+        b.record(2_000_000);
+        b.record(3_000);
+        a.add(b);
+        assertEquals(3, a.getTotalCount());
+        assertEquals(1_000, a.getMinNs());
+        assertEquals(2_000_000, a.getMaxNs());
+    }
+
+    @Test
+    void add_mixedWorkersAndSamples_accountEveryIoOnce() {
+        // each worker keeps a histogram per direction, filled from per sample
+        // histograms, and the operations merge the workers of their direction
+        int workers = 3;
+        int samples = 4;
+        int ios = 500;
+        LatencyHistogram[][] worker = new LatencyHistogram[workers][2];
+        long[] expected = new long[2];
+        for (int w = 0; w < workers; w++) {
+            worker[w][0] = new LatencyHistogram();
+            worker[w][1] = new LatencyHistogram();
+            LatencyHistogram[] sample = {new LatencyHistogram(), new LatencyHistogram()};
+            for (int s = 0; s < samples; s++) {
+                for (LatencyHistogram h : sample) h.reset();
+                for (int i = 0; i < ios; i++) {
+                    int mode = (i + w) % 3 == 0 ? 1 : 0; // a third are reads
+                    sample[mode].record(1_000 + i * 10L + mode * 1_000_000L);
+                    expected[mode]++;
+                }
+                worker[w][0].add(sample[0]);
+                worker[w][1].add(sample[1]);
+            }
+        }
+        LatencyHistogram[] op = {new LatencyHistogram(), new LatencyHistogram()};
+        for (LatencyHistogram[] h : worker) {
+            op[0].add(h[0]);
+            op[1].add(h[1]);
+        }
+        assertEquals(workers * samples * ios, op[0].getTotalCount() + op[1].getTotalCount());
+        assertEquals(expected[0], op[0].getTotalCount());
+        assertEquals(expected[1], op[1].getTotalCount());
+        // the directions do not leak into each other
+        assertTrue(op[0].getMaxNs() < 1_000_000);
+        assertTrue(op[1].getMinNs() >= 1_000_000);
+    }
+
+    @Test
+    void encode_decode_roundTrip() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 17; v < 50_000_000; v *= 3) {
+            h.record(v);
+            h.record(v + 5);
+        }
+        LatencyHistogram copy = LatencyHistogram.decode(h.encode());
+        assertArrayEquals(h.counts, copy.counts);
+        assertEquals(h.getTotalCount(), copy.getTotalCount());
+        assertEquals(h.getMinNs(), copy.getMinNs());
+        assertEquals(h.getMaxNs(), copy.getMaxNs());
+        assertEquals(h.getMeanNs(), copy.getMeanNs());
+    }
+}
@@ -0,0 +1,103 @@
+package jdiskmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import jdiskmark.Benchmark.BenchmarkType;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the record size, log tail and log length handling of the
+ * log commit types. Pure logic, no I/O required.
+ */
+class LogCommitTest {
+
+    @Test
+    void ioSizeBytes_recordSizeOnlyForLogTypes() {
+        BenchmarkType savedType = App.benchmarkType;
+        int savedRecordBytes = App.logRecordBytes;
+        int savedBlockSizeKb = App.blockSizeKb;
+        try {
+            App.blockSizeKb = 4;
+            App.logRecordBytes = 512;
+            App.benchmarkType = BenchmarkType.LOG_COMMIT;
+            assertEquals(512, App.ioSizeBytes());
+            App.benchmarkType = BenchmarkType.GROUP_COMMIT;
+            assertEquals(512, App.ioSizeBytes());
+            App.benchmarkType = BenchmarkType.WRITE;
+            assertEquals(4096, App.ioSizeBytes(), "other types keep the block size");
+            App.benchmarkType = BenchmarkType.LOG_COMMIT;
+            App.logRecordBytes = 0;
+            assertEquals(4096, App.ioSizeBytes(), "0 falls back to the block size");
+        } finally {
+            App.benchmarkType = savedType;
+            App.logRecordBytes = savedRecordBytes;
+            App.blockSizeKb = savedBlockSizeKb;
+        }
+    }
+
+    @Test
+    void recordOffset_ownLog_appendsFromZeroBeyondInt() {
+        AtomicLong tail = new AtomicLong(123);
+        assertEquals(0, Sample.recordOffset(true, 0, 512, tail));
+        assertEquals(3 * 512, Sample.recordOffset(true, 3, 512, tail));
+        assertEquals(1L << 32, Sample.recordOffset(true, 1 << 20, 4096, tail));
+        assertEquals(123, tail.get(), "the shared tail is untouched");
+    }
+
+    @Test
+    void recordOffset_sharedLog_reservesContiguousRecords() throws Exception {
+        int threads = 8;
+        int records = 1000;
+        long recordSize = 520; // not a sector multiple, written buffered
+        AtomicLong tail = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                List<Long> offsets = new ArrayList<>();
+                for (int r = 0; r < records; r++) {
+                    offsets.add(Sample.recordOffset(false, r, recordSize, tail));
+                }
+                return offsets;
+            }));
+        }
+        List<Long> all = new ArrayList<>();
+        for (Future<List<Long>> f : futures) all.addAll(f.get());
+        executor.shutdown();
+        Collections.sort(all);
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i * recordSize, all.get(i), "records overlap or leave a gap");
+        }
+        assertEquals(threads * records * recordSize, tail.get());
+    }
+
+    @Test
+    void logLength_perSampleLogOrSharedLog() {
+        BenchmarkConfig config = new BenchmarkConfig();
+        config.benchmarkType = BenchmarkType.LOG_COMMIT;
+        config.numBlocks = 1000;
+        config.blockSize = 512;
+        config.numSamples = 10;
+        config.multiFileEnabled = false;
+        assertEquals(10 * 1000 * 512, BenchmarkRunner.logLength(config));
+        config.multiFileEnabled = true;
+        assertEquals(1000 * 512, BenchmarkRunner.logLength(config));
+        config.benchmarkType = BenchmarkType.GROUP_COMMIT;
+        assertEquals(10 * 1000 * 512, BenchmarkRunner.logLength(config), "a group commit has one log");
+    }
+
+    @Test
+    void isAligned_recordSizeMultipleOfAlignment() {
+        assertTrue(BenchmarkRunner.isAligned(4096, 4096));
+        assertTrue(BenchmarkRunner.isAligned(8192, 512));
+        assertFalse(BenchmarkRunner.isAligned(512, 4096));
+        assertFalse(BenchmarkRunner.isAligned(520, 512));
+        assertFalse(BenchmarkRunner.isAligned(0, 512));
+    }
+}
@@ -0,0 +1,50 @@
+package jdiskmark;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the file layout of the metadata benchmark and the phase
+ * results. Pure logic, no I/O required.
+ */
+class MetadataBenchmarkTest {
+
+    @Test
+    void filesAreDealtToDirectoriesInTurn() {
+        int[] perDir = new int[4];
+        for (int f = 0; f < 100; f++) {
+            perDir[Integer.parseInt(MetadataBenchmark.dirName(f, 4).substring(1))]++;
+        }
+        assertArrayEquals(new int[] {25, 25, 25, 25}, perDir);
+    }
+
+    @Test
+    void noDirectories_usesOne() {
+        assertEquals("d0", MetadataBenchmark.dirName(7, 0));
+    }
+
+    @Test
+    void renamedNames_areDistinct() {
+        Set<String> names = new HashSet<>();
+        for (int f = 0; f < 50; f++) {
+            names.add(MetadataBenchmark.fileName(f, false));
+            names.add(MetadataBenchmark.fileName(f, true));
+        }
+        assertEquals(100, names.size());
+    }
+
+    @Test
+    void finish_countsSuccessfulCallsOnly() {
+        MetadataOperation op = new MetadataOperation(new Benchmark(), MetadataOperation.Phase.STAT);
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(1_000_000);
+        h.record(3_000_000);
+        op.finish(h, 2);
+        assertEquals(2, op.getOps());
+        assertEquals(2, op.getErrors());
+        assertTrue(op.getLatencyMax() >= 2.9, "max " + op.getLatencyMax());
+        assertNotNull(op.getLatencyHistogram());
+    }
+}
@@ -0,0 +1,190 @@
+package jdiskmark;
+
+import java.util.Arrays;
+import jdiskmark.App.IoEngine;
+import jdiskmark.Benchmark.IOMode;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the block offset generators. Pure logic, no I/O required.
+ */
+class OffsetGeneratorTest {
+
+    private static final long RUN_SEED = 42;
+    private static final int BLOCKS = 1000;
+    private static final int IOS = 100_000;
+
+    private static long[] draw(OffsetGenerator g, long seed, int count) {
+        g.start(BLOCKS, seed);
+        long[] offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = g.next(i);
+        }
+        return offsets;
+    }
+
+    @Test
+    void sampleSeed_sameInputs_replaysSameOffsets() {
+        long seed = OffsetGenerator.sampleSeed(RUN_SEED, IOMode.WRITE, 7);
+        assertArrayEquals(draw(new OffsetGenerator.Uniform(RUN_SEED), seed, 64),
+                draw(new OffsetGenerator.Uniform(RUN_SEED), seed, 64));
+        assertArrayEquals(draw(new OffsetGenerator.Zipfian(RUN_SEED, 0.99), seed, 64),
+                draw(new OffsetGenerator.Zipfian(RUN_SEED, 0.99), seed, 64));
+        assertNotEquals(seed, OffsetGenerator.sampleSeed(RUN_SEED, IOMode.READ, 7));
+        assertNotEquals(seed, OffsetGenerator.sampleSeed(RUN_SEED, IOMode.WRITE, 8));
+    }
+
+    @Test
+    void sequential_returnsOrdinal() {
+        OffsetGenerator g = new OffsetGenerator.Sequential();
+        g.start(BLOCKS, 0);
+        assertEquals(0, g.next(0));
+        assertEquals(999, g.next(999));
+    }
+
+    @Test
+    void uniform_staysInRange_andCoversBlocks() {
+        int[] hits = new int[BLOCKS];
+        for (long o : draw(new OffsetGenerator.Uniform(RUN_SEED), 1, IOS)) {
+            hits[(int) o]++;
+        }
+        for (int h : hits) {
+            assertTrue(h > 0);
+        }
+    }
+
+    @Test
+    void shuffled_touchesEveryBlockOnce() {
+        for (int n : new int[] {1, 2, 3, 17, 64, 1000, 4099}) {
+            OffsetGenerator g = new OffsetGenerator.Shuffled(RUN_SEED);
+            g.start(n, OffsetGenerator.sampleSeed(RUN_SEED, IOMode.READ, n));
+            boolean[] seen = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                long o = g.next(i);
+                assertTrue(o >= 0 && o < n);
+                assertFalse(seen[(int) o], "block " + o + " repeated for n=" + n);
+                seen[(int) o] = true;
+            }
+        }
+    }
+
+    @Test
+    void shuffled_orderChangesWithSampleSeed() {
+        long[] a = draw(new OffsetGenerator.Shuffled(RUN_SEED), 1, BLOCKS);
+        long[] b = draw(new OffsetGenerator.Shuffled(RUN_SEED), 2, BLOCKS);
+        assertFalse(Arrays.equals(a, b));
+        long[] sequential = new long[BLOCKS];
+        for (int i = 0; i < BLOCKS; i++) sequential[i] = i;
+        assertFalse(Arrays.equals(a, sequential));
+    }
+
+    @Test
+    void hotspot_sendsConfiguredShareToHotBlocks() {
+        long hot = 0;
+        for (long o : draw(new OffsetGenerator.Hotspot(RUN_SEED, 90, 10), 1, IOS)) {
+            assertTrue(o >= 0 && o < BLOCKS);
+            if (o < BLOCKS / 10) hot++;
+        }
+        assertEquals(0.90, (double) hot / IOS, 0.01);
+    }
+
+    @Test
+    void zipfian_mostPopularBlockDominates() {
+        int[] hits = new int[BLOCKS];
+        for (long o : draw(new OffsetGenerator.Zipfian(RUN_SEED, 0.99), 1, IOS)) {
+            assertTrue(o >= 0 && o < BLOCKS);
+            hits[(int) o]++;
+        }
+        int max = 0;
+        for (int h : hits) max = Math.max(max, h);
+        // ranks map to distinct blocks so the hottest block is exactly rank 0
+        assertEquals(1 / OffsetGenerator.Zipfian.zeta(BLOCKS, 0.99), (double) max / IOS, 0.01);
+    }
+
+    @Test
+    void zipfian_rankFrequencyFollowsZipf() {
+        OffsetGenerator.Zipfian g = new OffsetGenerator.Zipfian(RUN_SEED, 0.99);
+        g.start(BLOCKS, 1);
+        int[] hits = new int[BLOCKS];
+        for (int i = 0; i < IOS; i++) {
+            hits[(int) g.nextRank()]++;
+        }
+        // rank r is (r + 1)^-theta / zeta(n, theta) of the io, rank 0 roughly 13 percent
+        double zetaN = OffsetGenerator.Zipfian.zeta(BLOCKS, 0.99);
+        assertEquals(1 / zetaN, (double) hits[0] / IOS, 0.01);
+        assertEquals(Math.pow(2, -0.99) / zetaN, (double) hits[1] / IOS, 0.01);
+        assertEquals(Math.pow(10, -0.99) / zetaN, (double) hits[9] / IOS, 0.005);
+    }
+
+    @Test
+    void nextChance_splitsMixedIoByReadPct() {
+        for (int pct : new int[] {0, 30, 70, 100}) {
+            OffsetGenerator g = new OffsetGenerator.Uniform(RUN_SEED);
+            g.start(BLOCKS, OffsetGenerator.sampleSeed(RUN_SEED, IOMode.WRITE, pct));
+            int reads = 0;
+            for (int i = 0; i < IOS; i++) {
+                if (g.nextChance(pct)) reads++;
+                g.next(i);
+            }
+            assertEquals(pct / 100.0, (double) reads / IOS, 0.01, "read share at " + pct + "%");
+        }
+    }
+
+    @Test
+    void nextChance_replaysWithTheOffsets() {
+        long seed = OffsetGenerator.sampleSeed(RUN_SEED, IOMode.WRITE, 3);
+        OffsetGenerator a = new OffsetGenerator.Uniform(RUN_SEED);
+        OffsetGenerator b = new OffsetGenerator.Uniform(RUN_SEED);
+        a.start(BLOCKS, seed);
+        b.start(BLOCKS, seed);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(a.nextChance(50), b.nextChance(50));
+            assertEquals(a.next(i), b.next(i));
+        }
+    }
+
+    @Test
+    void workingSet_beyondIntBlocks_scalesUnits() {
+        BenchmarkConfig config = new BenchmarkConfig();
+        config.blockSize = 4096;
+        config.numBlocks = 64;
+        config.vectorBatch = 8;
+        config.workingSetSize = 1L << 44; // 16 TiB, 2^32 blocks
+        assertEquals(1L << 32, config.getWorkingSetBlocks());
+        assertEquals(1L << 32, BenchmarkRunner.offsetUnits(config, IoEngine.IO_URING));
+        assertEquals(1L << 29, BenchmarkRunner.offsetUnits(config, IoEngine.MODERN), "whole batches");
+        config.workingSetSize = 0;
+        assertEquals(64, config.getWorkingSetBlocks(), "at least the blocks of one sample");
+    }
+
+    @Test
+    void generators_beyondIntBlocks_reachTheWholeRange() {
+        long units = 1L << 32;
+        OffsetGenerator[] generators = {
+            new OffsetGenerator.Uniform(RUN_SEED),
+            new OffsetGenerator.Shuffled(RUN_SEED),
+            new OffsetGenerator.Zipfian(RUN_SEED, 0.99),
+            new OffsetGenerator.Hotspot(RUN_SEED, 50, 50)
+        };
+        for (OffsetGenerator g : generators) {
+            g.start(units, 1);
+            long max = 0;
+            for (int i = 0; i < 10_000; i++) {
+                long o = g.next(i);
+                assertTrue(o >= 0 && o < units, g.getClass().getSimpleName() + " " + o);
+                max = Math.max(max, o);
+            }
+            assertTrue(max > Integer.MAX_VALUE, g.getClass().getSimpleName() + " stays below 2^31");
+            assertTrue(max * 4096 > 0, "byte offset overflows");
+        }
+    }
+
+    @Test
+    void zeta_largeBlockCount_approximationIsClose() {
+        long n = 2 * OffsetGenerator.Zipfian.ZETA_EXACT_TERMS;
+        double exact = 0;
+        for (long i = 1; i <= n; i++) exact += 1 / Math.pow(i, 0.99);
+        assertEquals(exact, OffsetGenerator.Zipfian.zeta(n, 0.99), exact * 1e-9);
+    }
+}
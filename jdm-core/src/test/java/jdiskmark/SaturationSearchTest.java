@@ -0,0 +1,52 @@
+package jdiskmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the saturation knee search against modeled devices.
+ * Pure logic, no I/O required.
+ */
+class SaturationSearchTest {
+
+    /** A device serving 1000 IOPS per outstanding io up to its limit. */
+    private static SaturationSearch.Point device(int concurrency, double limit) {
+        double iops = Math.min(1000.0 * concurrency, limit);
+        return new SaturationSearch.Point(concurrency, iops, concurrency / iops * 1000, 0);
+    }
+
+    @Test
+    void knee_isLowestConcurrencyNearPeak() throws Exception {
+        SaturationSearch search = new SaturationSearch(256);
+        SaturationSearch.Point knee = search.run(c -> device(c, 20_000));
+        // 90% of the 20000 peak needs 18 outstanding ios
+        assertTrue(knee.concurrency() >= 18 && knee.concurrency() <= 20, "knee " + knee.concurrency());
+        assertTrue(knee.iops() >= 0.9 * 20_000);
+    }
+
+    @Test
+    void ramp_stopsOnceDoublingStopsPaying() throws Exception {
+        List<Integer> probed = new ArrayList<>();
+        SaturationSearch search = new SaturationSearch(1024);
+        search.run(c -> {
+            probed.add(c);
+            return device(c, 4_000);
+        });
+        assertFalse(probed.contains(16), "probed " + probed);
+    }
+
+    @Test
+    void unsaturatedDevice_kneeAtLimit() throws Exception {
+        SaturationSearch search = new SaturationSearch(8);
+        assertEquals(8, search.run(c -> device(c, 1e9)).concurrency());
+    }
+
+    @Test
+    void cancelledProbe_endsSearch() throws Exception {
+        SaturationSearch search = new SaturationSearch(64);
+        assertNull(search.run(c -> null));
+        assertTrue(search.getCurve().isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package jdiskmark;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the latency SLO search against a modeled device.
+ * Pure logic, no I/O required.
+ */
+class SloSearchTest {
+
+    /**
+     * A device delivering up to 10000 IOPS with a latency that grows as the
+     * rate nears the ceiling, 0.5 ms idle and 4 ms closed loop.
+     */
+    static SloSearch.Probe device() {
+        return rate -> {
+            double load = rate == 0 ? 10000 : Math.min(rate, 10000);
+            double latency = 0.5 / (1 - load / 10000 * 0.875);
+            return new SloSearch.Point(rate, load, latency);
+        };
+    }
+
+    @Test
+    void limitMetClosedLoop_returnsCeiling() throws Exception {
+        SloSearch s = new SloSearch(5, 8);
+        SloSearch.Point best = s.run(device());
+        assertEquals(0, best.targetIops());
+        assertEquals(10000, best.iops(), 1e-9);
+        assertEquals(1, s.getCurve().size());
+    }
+
+    @Test
+    void limitMissedClosedLoop_bisectsToHighestPassingRate() throws Exception {
+        SloSearch s = new SloSearch(1, 20);
+        SloSearch.Point best = s.run(device());
+        assertNotNull(best);
+        assertTrue(best.latencyMs() <= 1);
+        // 1 ms is reached at 5714 IOPS, within the resolution of the ceiling
+        assertTrue(best.targetIops() > 5714 - SloSearch.RESOLUTION * 10000, "best " + best);
+        assertTrue(best.targetIops() <= 5714, "best " + best);
+    }
+
+    @Test
+    void rateDeviceCannotSustain_fails() throws Exception {
+        // meets the latency but falls behind the schedule
+        SloSearch s = new SloSearch(10, 4);
+        SloSearch.Point slow = new SloSearch.Point(1000, 500, 1);
+        assertTrue(s.meets(slow));
+        assertFalse(s.passes(slow));
+        assertTrue(s.passes(new SloSearch.Point(1000, 960, 1)));
+    }
+
+    @Test
+    void noRateMeetsLimit_returnsNull_curveEndsWithCeiling() throws Exception {
+        SloSearch s = new SloSearch(0.1, 3);
+        assertNull(s.run(device()));
+        List<SloSearch.Point> curve = s.getCurve();
+        assertEquals(4, curve.size());
+        assertEquals(0, curve.get(curve.size() - 1).targetIops());
+        assertTrue(curve.get(0).targetIops() < curve.get(1).targetIops());
+    }
+}
@@ -0,0 +1,47 @@
+package jdiskmark;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SNIA steady state criterion.
+ */
+class SteadyStateDetectorTest {
+
+    private static SteadyStateDetector of(double... values) {
+        SteadyStateDetector d = new SteadyStateDetector();
+        for (double v : values) d.add(v);
+        return d;
+    }
+
+    @Test
+    void flatWindow_isSteady() {
+        SteadyStateDetector d = of(1000, 1010, 990, 1005, 995);
+        assertTrue(d.isSteady());
+        assertEquals(1000, d.getAverage(), 1e-9);
+    }
+
+    @Test
+    void partialWindow_isNotSteady() {
+        assertFalse(of(1000, 1000, 1000, 1000).isSteady());
+    }
+
+    @Test
+    void largeExcursion_isNotSteady() {
+        // slope is flat but max - min is 30% of the average
+        assertFalse(of(1000, 1150, 850, 1150, 850).isSteady());
+    }
+
+    @Test
+    void trend_isNotSteady() {
+        // every value is within the excursion limit but the fit drops 12%
+        assertFalse(of(1060, 1030, 1000, 970, 940).isSteady());
+    }
+
+    @Test
+    void fallingInitialRounds_slideOutOfWindow() {
+        SteadyStateDetector d = of(5000, 3000, 1200, 1000, 1000, 1000, 1000, 1000);
+        assertTrue(d.isSteady());
+        assertEquals(8, d.getRounds());
+    }
+}
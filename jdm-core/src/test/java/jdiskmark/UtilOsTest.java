@@ -0,0 +1,43 @@
+package jdiskmark;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for parsing the page fault counters of /proc/&lt;pid&gt;/stat.
+ * Pure logic, no I/O required.
+ */
+class UtilOsTest {
+
+    // fields 3 to 12: state ppid pgrp session tty_nr tpgid flags minflt cminflt majflt
+    private static final String AFTER_COMM = " S 1 4242 4242 0 -1 4194368 1520 77 3 9 12 4 0 0 20 0 31 0";
+
+    @Test
+    void parsePageFaults_readsMinfltAndMajflt() {
+        long[] faults = UtilOs.parsePageFaultsLinux("4242 (java)" + AFTER_COMM + "\n");
+        assertArrayEquals(new long[] {1520, 3}, faults, "fields 10 and 12, not the child counts");
+    }
+
+    @Test
+    void parsePageFaults_commWithSpacesAndParenthesis() {
+        // comm is whatever the thread named itself, only the last ')' ends it
+        assertArrayEquals(new long[] {1520, 3},
+                UtilOs.parsePageFaultsLinux("4242 (worker 1) S)" + AFTER_COMM));
+        assertArrayEquals(new long[] {1520, 3},
+                UtilOs.parsePageFaultsLinux("4242 (a) (b c)" + AFTER_COMM));
+        assertArrayEquals(new long[] {1520, 3},
+                UtilOs.parsePageFaultsLinux("4242 ( )" + AFTER_COMM));
+    }
+
+    @Test
+    void parsePageFaults_largeCounters() {
+        String line = "1 (init) S 0 1 1 0 -1 4194560 " + Long.MAX_VALUE + " 0 4294967296 0";
+        assertArrayEquals(new long[] {Long.MAX_VALUE, 4294967296L}, UtilOs.parsePageFaultsLinux(line));
+    }
+
+    @Test
+    void parsePageFaults_truncatedLine_throws() {
+        assertThrows(RuntimeException.class, () -> UtilOs.parsePageFaultsLinux("4242 (java) S 1 4242"));
+        assertThrows(RuntimeException.class, () -> UtilOs.parsePageFaultsLinux(""));
+    }
+}
@@ -64,7 +64,7 @@ jpackage --type app-image \
          --mac-package-identifier "$IDENTIFIER" \
          --mac-package-name "$APP_NAME" \
          --java-options "-XX:+UseZGC" \
-         --add-modules "java.base,java.desktop,java.logging,java.prefs,java.management,java.instrument,java.sql,java.rmi,java.naming,jdk.unsupported,java.net.http"
+         --add-modules "java.base,java.desktop,java.logging,java.prefs,java.management,java.instrument,java.sql,java.rmi,java.naming,jdk.unsupported,java.net.http,jdk.jfr"
 
 # Step 3: Sign app bundle (Optional)
 if [ -n "$SIGNING_IDENTITY" ]; then